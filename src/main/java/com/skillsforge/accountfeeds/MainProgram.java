@@ -7,7 +7,11 @@ import com.skillsforge.accountfeeds.config.ProgramState;
 import com.skillsforge.accountfeeds.config.PropKey;
 import com.skillsforge.accountfeeds.exceptions.ParamException;
 import com.skillsforge.accountfeeds.exceptions.UploadException;
+import com.skillsforge.accountfeeds.input.ExternalSorter;
+import com.skillsforge.accountfeeds.input.FeedArchive;
+import com.skillsforge.accountfeeds.input.GzipInput;
 import com.skillsforge.accountfeeds.input.Indexes;
+import com.skillsforge.accountfeeds.input.ParallelValidator;
 import com.skillsforge.accountfeeds.input.ParsedFeedFiles;
 import com.skillsforge.accountfeeds.inputmodels.InputGroup;
 import com.skillsforge.accountfeeds.inputmodels.InputGroupRole;
@@ -25,7 +29,11 @@ import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.entity.ContentType;
+import org.apache.http.entity.mime.FormBodyPartBuilder;
+import org.apache.http.entity.mime.MIME;
 import org.apache.http.entity.mime.MultipartEntityBuilder;
+import org.apache.http.entity.mime.content.AbstractContentBody;
+import org.apache.http.entity.mime.content.FileBody;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.jetbrains.annotations.Contract;
@@ -33,17 +41,26 @@ import org.jetbrains.annotations.Contract;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.PrintStream;
+import java.io.UncheckedIOException;
 import java.io.UnsupportedEncodingException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -62,6 +79,13 @@ public class MainProgram {
   private static final Charset UTF8 = StandardCharsets.UTF_8;
   @Nonnull
   private static final ContentType CSV_CONTENT_TYPE = ContentType.create("text/csv", UTF8);
+  private static final int UPLOAD_BUFFER_SIZE = 1 << 16;
+  // How many relationships spilled to disk are read back at once to be validated in parallel.
+  private static final int SPILLED_BATCH_SIZE = 1 << 14;
+  // A held relationship is spilled as its record followed by where in the log it was added, so
+  // that a duplicate of it found later is logged where it would have been had it been held in
+  // memory.
+  private static final int HELD_RELATIONSHIP_WIDTH = OutputUserRelationship.RECORD_WIDTH + 1;
   @Nonnull
   private static final ContentType PARAM_CONTENT_TYPE = ContentType.create("text/plain", UTF8);
 
@@ -101,44 +125,83 @@ public class MainProgram {
     // fields.  The files will be checked for obvious CSV errors whilst constructing this object.
     // This class exposes methods for checking the SF-specific format of the files.
     final ParsedFeedFiles feedFiles = new ParsedFeedFiles(state, orgParams);
+    try {
+      if (state.hasFatalErrorBeenEncountered()) {
+        state.log("MP.3", ERROR,
+            "Problems were encountered whilst parsing the input files - exiting.\n");
+        state.renderLog();
+        exitCode = 1;
+        return;
+      }
 
-    if (state.hasFatalErrorBeenEncountered()) {
-      state.log("MP.3", ERROR,
-          "Problems were encountered whilst parsing the input files - exiting.\n");
-      state.renderLog();
-      exitCode = 1;
-      return;
-    }
+      // Only the key columns were read, so only the layout and those columns can be checked.
+      if (state.getProgramMode() == ProgramMode.QUICKCHECK) {
+        feedFiles.checkLayout();
+        feedFiles.checkKeyColumns();
 
-    // Sets of appropriately linted objects, suitable for re-creating a "mint-condition" feed from.
-    final Collection<OutputUser> compiledUsers = new HashSet<>();
-    final Collection<OutputGroup> compiledGroups = new HashSet<>();
+        exitCode = state.hasFatalErrorBeenEncountered() ? 1 : 0;
+        state.renderLog();
+        return;
+      }
 
-    // For every mode, run the full sanity check.
-    check(state, orgParams, feedFiles, compiledUsers, compiledGroups);
+      // Nothing has been read yet: only the headers and a sample of the rows are.
+      if (state.getProgramMode() == ProgramMode.SAMPLE) {
+        feedFiles.checkSamples();
 
-    if (state.getProgramMode() == ProgramMode.LINT) {
-      lint(state, compiledUsers, compiledGroups);
-    }
+        exitCode = state.hasFatalErrorBeenEncountered() ? 1 : 0;
+        state.renderLog();
+        return;
+      }
 
-    if (state.getProgramMode() == ProgramMode.UPLOAD) {
-      try {
-        upload(state, orgParams, feedFiles.getMetadataKeyCsvString());
-      } catch (ParamException ignored) {
-        state.log("MP.4", ERROR, "Could not locate the metadata headers in use in the Users file.");
+      // Sets of appropriately linted objects, suitable for re-creating a "mint-condition" feed
+      // from.
+      // They keep the order of the feed files, so that everything logged about them does too.
+      final Collection<OutputUser> compiledUsers = new LinkedHashSet<>();
+      final Collection<OutputGroup> compiledGroups = new LinkedHashSet<>();
+
+      // With --max-heap-fraction, the relationships each user holds are spilled to disk in CSV
+      // order, rather than being added to that user.
+      final long heapBudget = state.getHeapBudget();
+      try (final ExternalSorter heldRelationships = (heapBudget > 0)
+                                                    ? new ExternalSorter(
+                                                        HELD_RELATIONSHIP_WIDTH,
+                                                        OutputUserRelationship.RECORD_SORTER,
+                                                        heapBudget / 2)
+                                                    : null;
+           final ParallelValidator validator = new ParallelValidator(state)) {
+
+        // For every mode, run the full sanity check.
+        check(state, orgParams, feedFiles, validator, compiledUsers, compiledGroups,
+            heldRelationships);
+
+        if (state.getProgramMode() == ProgramMode.LINT) {
+          lint(state, compiledUsers, compiledGroups, heldRelationships);
+        }
       }
-    }
 
-    if (state.hasFatalErrorBeenEncountered()) {
-      state.log("MP.5", ERROR,
-          "Problems were encountered - exiting.\n");
+      if (state.getProgramMode() == ProgramMode.UPLOAD) {
+        try {
+          upload(state, orgParams, feedFiles, feedFiles.getMetadataKeyCsvString());
+        } catch (ParamException ignored) {
+          state.log("MP.4", ERROR,
+              "Could not locate the metadata headers in use in the Users file.");
+        }
+      }
+
+      if (state.hasFatalErrorBeenEncountered()) {
+        state.log("MP.5", ERROR,
+            "Problems were encountered - exiting.\n");
+        state.renderLog();
+        exitCode = 1;
+        return;
+      }
+
+      exitCode = 0;
       state.renderLog();
-      exitCode = 1;
-      return;
+    } finally {
+      feedFiles.deleteSpilledUserRelationships();
+      feedFiles.deleteSpooledFiles();
     }
-
-    exitCode = 0;
-    state.renderLog();
   }
 
   @SuppressWarnings({
@@ -152,8 +215,10 @@ public class MainProgram {
       @Nonnull final ProgramState state,
       @Nonnull final OrganisationParameters orgParams,
       @Nonnull final ParsedFeedFiles feedFiles,
+      @Nonnull final ParallelValidator validator,
       @Nonnull final Collection<OutputUser> compiledUsers,
-      @Nonnull final Collection<OutputGroup> compiledGroups) {
+      @Nonnull final Collection<OutputGroup> compiledGroups,
+      @Nullable final ExternalSorter heldRelationships) {
 
     /*
     Plan:
@@ -174,26 +239,25 @@ public class MainProgram {
 
     // Build objects
     state.log(null, INFO, "\n\nBuilding objects:\n=================\n");
-    final Collection<InputUser> users = feedFiles.generateUserModels();
-    final Collection<InputGroup> groups = feedFiles.generateGroupModels();
-    final Collection<InputUserGroup> userGroups = feedFiles.generateUserGroupModels();
-    final Collection<InputUserRelationship> userRelationships =
-        feedFiles.generateUserRelationshipModels();
-    final Collection<InputGroupRole> groupRoles = feedFiles.generateGroupRoleModels();
-
-    // Sanity check the semantics of each input object, and build output objects.
-    for (final InputUser user : users) {
-      final OutputUser outputUser = user.validateAllFields();
-      if (outputUser != null) {
-        compiledUsers.add(outputUser);
-      }
-    }
-    for (final InputGroup group : groups) {
-      final OutputGroup outputGroup = group.validateAllFields();
-      if (outputGroup != null) {
-        compiledGroups.add(outputGroup);
-      }
-    }
+    final List<InputUser> users = feedFiles.generateUserModels();
+    final List<InputGroup> groups = feedFiles.generateGroupModels();
+    final List<InputUserGroup> userGroups = feedFiles.generateUserGroupModels();
+    final ExternalSorter spilledUserRelationships =
+        (heldRelationships == null) ? null : feedFiles.spillUserRelationshipModels();
+    final List<InputUserRelationship> userRelationships =
+        (spilledUserRelationships == null)
+        ? feedFiles.generateUserRelationshipModels()
+        : Collections.emptyList();
+    final List<InputGroupRole> groupRoles = feedFiles.generateGroupRoleModels();
+    // Everything from here on works from the input objects.
+    feedFiles.releaseRows();
+
+    // Sanity check the semantics of each input object, and build output objects.  Objects are
+    // validated in parallel, but logged and added in the order of their files.
+    validator.validate(FileKey.INPUT_USERS, users,
+        InputUser::validateAllFields, compiledUsers::add);
+    validator.validate(FileKey.INPUT_GROUPS, groups,
+        InputGroup::validateAllFields, compiledGroups::add);
     state.log(null, INFO, "+ All objects built.\n");
 
     // Build indexes against the objects, and check for missing primary keys whilst doing so.
@@ -204,39 +268,38 @@ public class MainProgram {
 
     // Build link objects
     state.log(null, INFO, "\n\nValidating output objects:\n==========================\n");
-    for (final InputGroupRole groupRole : groupRoles) {
-      final OutputGroupRole newGroupRole = groupRole.validateAllFields(indexes);
-
-      if (newGroupRole != null) {
-        final OutputGroup grp = indexes.getCompiledGroupByGroupAlias(newGroupRole.getGroupAlias());
-        if (grp != null) {
-          grp.addRole(state, newGroupRole);
-        }
-      }
-    }
-    for (final InputUserGroup userGroup : userGroups) {
-      final OutputUserGroup newUserGroup = userGroup.validateAllFields(indexes);
-
-      if (newUserGroup != null) {
-        final OutputUser usr = indexes.getCompiledUserByUserId(newUserGroup.getUserId());
-        if (usr != null) {
-          usr.addGroup(state, newUserGroup);
-        }
-      }
-    }
-    for (final InputUserRelationship userRelationship : userRelationships) {
-      final OutputUserRelationship newUserRel = userRelationship.validateAllFields(indexes);
-
-      if (newUserRel != null) {
-        final OutputUser holder = indexes.getCompiledUserByUserId(newUserRel.getUserIdLeft());
-        if (holder != null) {
-          holder.addRelationshipHeldOverAnotherUser(state, newUserRel);
-        }
-        final OutputUser subject = indexes.getCompiledUserByUserId(newUserRel.getUserIdRight());
-        if (subject != null) {
-          subject.addRelationshipThisUserIsASubjectOf(newUserRel);
-        }
-      }
+    validator.validate(FileKey.INPUT_GROUP_ROLES, groupRoles,
+        (groupRole, logState) -> groupRole.validateAllFields(logState, indexes),
+        newGroupRole -> {
+          final OutputGroup grp =
+              indexes.getCompiledGroupByGroupAlias(newGroupRole.getGroupAlias());
+          if (grp != null) {
+            grp.addRole(state, newGroupRole);
+          }
+        });
+    validator.validate(FileKey.INPUT_USER_GROUPS, userGroups,
+        (userGroup, logState) -> userGroup.validateAllFields(logState, indexes),
+        newUserGroup -> {
+          final OutputUser usr = indexes.getCompiledUserByUserId(newUserGroup.getUserId());
+          if (usr != null) {
+            usr.addGroup(state, newUserGroup);
+          }
+        });
+    validator.validate(FileKey.INPUT_USER_RELATIONSHIPS, userRelationships,
+        (userRelationship, logState) -> userRelationship.validateAllFields(logState, indexes),
+        newUserRel -> {
+          final OutputUser holder = indexes.getCompiledUserByUserId(newUserRel.getUserIdLeft());
+          if (holder != null) {
+            holder.addRelationshipHeldOverAnotherUser(state, newUserRel);
+          }
+          final OutputUser subject = indexes.getCompiledUserByUserId(newUserRel.getUserIdRight());
+          if (subject != null) {
+            subject.addRelationshipThisUserIsASubjectOf(newUserRel);
+          }
+        });
+    if ((spilledUserRelationships != null) && (heldRelationships != null)) {
+      validateSpilledRelationships(state, indexes, validator, spilledUserRelationships,
+          heldRelationships);
     }
     state.log(null, INFO, "+ Validated all final feed objects.\n");
 
@@ -313,6 +376,100 @@ public class MainProgram {
     state.log(null, INFO, "+ All relationships checked.\n");
   }
 
+  /**
+   * Validates the relationships spilled to disk for --max-heap-fraction, as check() validates those
+   * held in memory, except that each relationship a user holds is spilled again rather than added
+   * to that user.  Those are spilled in CSV order, where a mapping specified more than once sorts
+   * next to itself, so the duplicates are found by reading them back.
+   */
+  private static void validateSpilledRelationships(
+      @Nonnull final ProgramState state,
+      @Nonnull final Indexes indexes,
+      @Nonnull final ParallelValidator validator,
+      @Nonnull final ExternalSorter userRelationships,
+      @Nonnull final ExternalSorter heldRelationships) {
+
+    // The relationships are read back and validated a batch at a time.
+    final List<InputUserRelationship> batch = new ArrayList<>(SPILLED_BATCH_SIZE);
+    final Consumer<OutputUserRelationship> addValidated = newUserRel -> {
+      final OutputUser holder = indexes.getCompiledUserByUserId(newUserRel.getUserIdLeft());
+      if (holder != null) {
+        holder.addRelationshipRoleHeld(newUserRel.getRoleAliasLeft());
+        final String[] record = Arrays.copyOf(newUserRel.toRecord(), HELD_RELATIONSHIP_WIDTH);
+        record[OutputUserRelationship.RECORD_WIDTH] = state.markLogPosition().encode();
+        try {
+          heldRelationships.add(record);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }
+      final OutputUser subject = indexes.getCompiledUserByUserId(newUserRel.getUserIdRight());
+      if (subject != null) {
+        subject.addRelationshipThisUserIsASubjectOf(newUserRel);
+      }
+    };
+    final Runnable validateBatch = () -> {
+      validator.validate(FileKey.INPUT_USER_RELATIONSHIPS, batch,
+          (userRelationship, logState) -> userRelationship.validateAllFields(logState, indexes),
+          addValidated);
+      batch.clear();
+    };
+
+    try (final ExternalSorter toValidate = userRelationships) {
+      toValidate.forEachSorted(fields -> {
+        batch.add(new InputUserRelationship(state, fields));
+        if (batch.size() == SPILLED_BATCH_SIZE) {
+          validateBatch.run();
+        }
+      });
+      validateBatch.run();
+
+      forEachHeldRelationship(heldRelationships, (rel, duplicate, logPosition) -> {
+        if (duplicate) {
+          state.inLogContext(state.decodeLogContext(logPosition),
+              () -> OutputUser.logDuplicateRelationship(state, rel));
+        }
+      });
+    } catch (IOException | UncheckedIOException e) {
+      state.log("MP.vsr.1", ERROR, "Could not read back the relationships spilled to disk: %s",
+          e.getLocalizedMessage());
+      state.setFatalErrorEncountered();
+      return;
+    }
+    state.log(null, INFO, "+ Spilled the relationships to disk in %d sorted run(s).",
+        userRelationships.getRunsWritten() + heldRelationships.getRunsWritten());
+  }
+
+  /**
+   * Reads back the relationships spilled by validateSpilledRelationships(), in CSV order, along
+   * with whether each one maps the same holder, role and subject as the one before it, and where
+   * in the log it was added.
+   */
+  private static void forEachHeldRelationship(
+      @Nonnull final ExternalSorter heldRelationships,
+      @Nonnull final HeldRelationshipConsumer consumer) throws IOException {
+
+    final OutputUserRelationship[] previous = {null};
+    heldRelationships.forEachSorted(record -> {
+      final OutputUserRelationship rel = OutputUserRelationship.fromRecord(record);
+      consumer.accept(rel, (previous[0] != null) && previous[0].isSameMapping(rel),
+          record[OutputUserRelationship.RECORD_WIDTH]);
+      previous[0] = rel;
+    });
+  }
+
+  /**
+   * Takes each held relationship in turn, whether it duplicates the one before it, and where in
+   * the log it was added (for {@link ProgramState#decodeLogContext}).
+   */
+  @FunctionalInterface
+  private interface HeldRelationshipConsumer {
+    void accept(
+        @Nonnull OutputUserRelationship rel,
+        boolean duplicate,
+        @Nonnull String logPosition);
+  }
+
   @Contract(pure = true)
   private static boolean doesUserHaveRole(
       @Nonnull final OutputUser user,
@@ -335,15 +492,15 @@ public class MainProgram {
                )
                .anyMatch(roleName::equals)
 
-           || user.getRelationshipsHeld()
-               .map(OutputUserRelationship::getRoleAliasLeft)
+           || user.getRelationshipRolesHeld()
                .anyMatch(roleName::equals);
   }
 
   private static void lint(
       @Nonnull final ProgramState state,
       @Nonnull final Collection<OutputUser> compiledUsers,
-      @Nonnull final Collection<OutputGroup> compiledGroups) {
+      @Nonnull final Collection<OutputGroup> compiledGroups,
+      @Nullable final ExternalSorter heldRelationships) {
 
     state.log(null, INFO, "\n\nOutputting linted objects:\n==========================\n");
 
@@ -400,11 +557,13 @@ public class MainProgram {
     // UserRelationships file
     writeOutToFile(state, ParsedFeedFiles.getUserRelationshipsHeaders(),
         FileKey.OUTPUT_USER_RELATIONSHIPS,
-        output -> compiledUsers.stream()
+        (heldRelationships == null)
+        ? output -> compiledUsers.stream()
             .flatMap(OutputUser::getRelationshipsHeld)
             .sorted(OutputUserRelationship.CSV_SORTER)
             .map(OutputUserRelationship::getCsvRow)
             .forEach(output::println)
+        : output -> writeHeldRelationships(state, heldRelationships, output)
     );
     if (state.hasFatalErrorBeenEncountered()) {
       return;
@@ -426,6 +585,28 @@ public class MainProgram {
     state.log(null, INFO, "+ Output all linted objects.\n");
   }
 
+  /**
+   * Writes out the relationships spilled to disk by check(), leaving out those specified more than
+   * once, which it has already logged.
+   */
+  private static void writeHeldRelationships(
+      @Nonnull final ProgramState state,
+      @Nonnull final ExternalSorter heldRelationships,
+      @Nonnull final PrintStream output) {
+
+    try {
+      forEachHeldRelationship(heldRelationships, (rel, duplicate, logPosition) -> {
+        if (!duplicate) {
+          output.println(rel.getCsvRow());
+        }
+      });
+    } catch (IOException e) {
+      state.log("MP.whr.1", ERROR, "Could not read back the relationships spilled to disk: %s",
+          e.getLocalizedMessage());
+      state.setFatalErrorEncountered();
+    }
+  }
+
   private static void writeOutToFile(
       @Nonnull final ProgramState state,
       @Nonnull final Collection<String> headers,
@@ -463,6 +644,7 @@ public class MainProgram {
   private static void upload(
       @Nonnull final ProgramState state,
       @Nonnull final OrganisationParameters orgParams,
+      @Nonnull final ParsedFeedFiles feedFiles,
       @Nonnull final String metaKeyCsvList) {
 
     final Map<PropKey, String> uploadParams = orgParams.getUploadParams();
@@ -487,35 +669,44 @@ public class MainProgram {
           uploadParams.get(PropKey.RELATIONSHIP_EXPIRE_DELAY));
     }
 
-    final File usersFile = state.getFile(FileKey.INPUT_USERS);
-    final File groupsFile = state.getFile(FileKey.INPUT_GROUPS);
-    final File userRelationshipsFile = state.getFile(FileKey.INPUT_USER_RELATIONSHIPS);
-    final File userGroupsFile = state.getFile(FileKey.INPUT_USER_GROUPS);
-    final File groupRolesFile = state.getFile(FileKey.INPUT_GROUP_ROLES);
-
-    if (isAnyNull(usersFile, groupsFile, userRelationshipsFile, userGroupsFile, groupRolesFile)) {
-      state.log("MP.u.1", ERROR, "All five CSV files must be specified and exist.");
-      state.setFatalErrorEncountered();
-      return;
-    }
-
     // This uses the FileBody class to write out each file.  It's probably not UTF-8 compliant...
     // See the monstrosity that is FileBody::writeTo to see how this works.
 
     final MultipartEntityBuilder entityBuilder = MultipartEntityBuilder
         .create()
         .setBoundary("------------------------boundary-" + UUID.randomUUID())
-        .setCharset(UTF8)
-        .addBinaryBody("csvFile_Users",
-            usersFile, CSV_CONTENT_TYPE, "Users.csv")
-        .addBinaryBody("csvFile_UserGroup",
-            userGroupsFile, CSV_CONTENT_TYPE, "UserGroups.csv")
-        .addBinaryBody("csvFile_UserRelationships",
-            userRelationshipsFile, CSV_CONTENT_TYPE, "UserRelationships.csv")
-        .addBinaryBody("csvFile_Groups",
-            groupsFile, CSV_CONTENT_TYPE, "Groups.csv")
-        .addBinaryBody("csvFile_GroupRole",
-            groupRolesFile, CSV_CONTENT_TYPE, "GroupRoles.csv");
+        .setCharset(UTF8);
+
+    final File sourceZip = state.getFile(FileKey.SOURCE_ZIP);
+    if (sourceZip != null) {
+      if (!addArchiveEntries(state, entityBuilder, sourceZip)) {
+        return;
+      }
+    } else {
+      final File usersFile = getUploadFile(state, feedFiles, FileKey.INPUT_USERS);
+      final File groupsFile = getUploadFile(state, feedFiles, FileKey.INPUT_GROUPS);
+      final File userRelationshipsFile =
+          getUploadFile(state, feedFiles, FileKey.INPUT_USER_RELATIONSHIPS);
+      final File userGroupsFile = getUploadFile(state, feedFiles, FileKey.INPUT_USER_GROUPS);
+      final File groupRolesFile = getUploadFile(state, feedFiles, FileKey.INPUT_GROUP_ROLES);
+
+      if (isAnyNull(usersFile, groupsFile, userRelationshipsFile, userGroupsFile,
+          groupRolesFile)) {
+        state.log("MP.u.1", ERROR, "All five CSV files must be specified and exist.");
+        state.setFatalErrorEncountered();
+        return;
+      }
+
+      final boolean sendCompressed = state.getProperty(PropKey.UPLOAD_COMPRESSED) != null;
+      addCsvFile(entityBuilder, "csvFile_Users", usersFile, "Users.csv", sendCompressed);
+      addCsvFile(entityBuilder, "csvFile_UserGroup", userGroupsFile, "UserGroups.csv",
+          sendCompressed);
+      addCsvFile(entityBuilder, "csvFile_UserRelationships", userRelationshipsFile,
+          "UserRelationships.csv", sendCompressed);
+      addCsvFile(entityBuilder, "csvFile_Groups", groupsFile, "Groups.csv", sendCompressed);
+      addCsvFile(entityBuilder, "csvFile_GroupRole", groupRolesFile, "GroupRoles.csv",
+          sendCompressed);
+    }
     fields.forEach((paramName, value) ->
         entityBuilder.addTextBody(paramName, value, PARAM_CONTENT_TYPE));
 
@@ -573,6 +764,92 @@ public class MainProgram {
     state.log(null, INFO, "Completed uploading: %s", statusLine.toString());
   }
 
+  /**
+   * Files read from standard input or a named pipe were copied as they were read, and the copies
+   * are sent instead.
+   */
+  @Nullable
+  private static File getUploadFile(
+      @Nonnull final ProgramState state,
+      @Nonnull final ParsedFeedFiles feedFiles,
+      @Nonnull final FileKey fileKey) {
+
+    return state.isStream(fileKey) ? feedFiles.getSpooledFile(fileKey) : state.getFile(fileKey);
+  }
+
+  /**
+   * Gzip-compressed files are inflated as they are sent, unless {@code sendCompressed}
+   * (--upload-compressed) is set, in which case they are sent as they are, marked with a
+   * Content-Encoding that the server must decode.
+   */
+  private static void addCsvFile(
+      @Nonnull final MultipartEntityBuilder entityBuilder,
+      @Nonnull final String fieldName,
+      @Nonnull final File file,
+      @Nonnull final String filename,
+      final boolean sendCompressed) {
+
+    if (!GzipInput.isGzipped(file)) {
+      entityBuilder.addBinaryBody(fieldName, file, CSV_CONTENT_TYPE, filename);
+      return;
+    }
+    if (!sendCompressed) {
+      entityBuilder.addPart(fieldName, new InflatedFileBody(file, filename));
+      return;
+    }
+    entityBuilder.addPart(FormBodyPartBuilder
+        .create(fieldName, new FileBody(file, CSV_CONTENT_TYPE, filename))
+        .addField("Content-Encoding", "gzip")
+        .build());
+  }
+
+  /**
+   * @return false if any of the five files could not be found in the archive.
+   */
+  private static boolean addArchiveEntries(
+      @Nonnull final ProgramState state,
+      @Nonnull final MultipartEntityBuilder entityBuilder,
+      @Nonnull final File zipFile) {
+
+    try (final FeedArchive archive = FeedArchive.open(zipFile)) {
+      return addArchiveEntry(state, entityBuilder, archive, "csvFile_Users",
+          FileKey.INPUT_USERS, "Users.csv")
+             && addArchiveEntry(state, entityBuilder, archive, "csvFile_UserGroup",
+          FileKey.INPUT_USER_GROUPS, "UserGroups.csv")
+             && addArchiveEntry(state, entityBuilder, archive, "csvFile_UserRelationships",
+          FileKey.INPUT_USER_RELATIONSHIPS, "UserRelationships.csv")
+             && addArchiveEntry(state, entityBuilder, archive, "csvFile_Groups",
+          FileKey.INPUT_GROUPS, "Groups.csv")
+             && addArchiveEntry(state, entityBuilder, archive, "csvFile_GroupRole",
+          FileKey.INPUT_GROUP_ROLES, "GroupRoles.csv");
+    } catch (IOException e) {
+      state.log("MP.u.4", ERROR, "Could not read %s: %s", zipFile.getPath(),
+          e.getLocalizedMessage());
+      state.setFatalErrorEncountered();
+      return false;
+    }
+  }
+
+  private static boolean addArchiveEntry(
+      @Nonnull final ProgramState state,
+      @Nonnull final MultipartEntityBuilder entityBuilder,
+      @Nonnull final FeedArchive archive,
+      @Nonnull final String fieldName,
+      @Nonnull final FileKey fileKey,
+      @Nonnull final String filename) {
+
+    final String entryName = state.getProperty(fileKey.getFilePathProp());
+    final ZipEntry entry = (entryName == null) ? null : archive.getEntry(entryName);
+    if (entry == null) {
+      state.log("MP.u.5", ERROR, "Could not find the %s file (%s) in %s.",
+          fileKey.getFileDescription(), entryName, archive.getFile().getPath());
+      state.setFatalErrorEncountered();
+      return false;
+    }
+    entityBuilder.addPart(fieldName, new ArchiveEntryBody(archive.getFile(), entry, filename));
+    return true;
+  }
+
   @Contract(pure = true, value = "null,_,_,_,_->true;"
                                  + "_,null,_,_,_->true;"
                                  + "_,_,null,_,_->true;"
@@ -592,4 +869,117 @@ public class MainProgram {
   public int getExitCode() {
     return exitCode;
   }
+
+  /**
+   * Sends one entry of the source zip, inflated as it is sent.  The archive is opened afresh each
+   * time the body is written, so that it doesn't need to be held open until the upload.
+   */
+  private static final class ArchiveEntryBody extends AbstractContentBody {
+    @Nonnull
+    private final File zipFile;
+    @Nonnull
+    private final String entryName;
+    private final long size;
+    @Nonnull
+    private final String filename;
+
+    private ArchiveEntryBody(
+        @Nonnull final File zipFile,
+        @Nonnull final ZipEntry entry,
+        @Nonnull final String filename) {
+
+      super(CSV_CONTENT_TYPE);
+      this.zipFile = zipFile;
+      this.entryName = entry.getName();
+      this.size = entry.getSize();
+      this.filename = filename;
+    }
+
+    @Override
+    @Nonnull
+    public String getFilename() {
+      return filename;
+    }
+
+    @Override
+    public void writeTo(@Nonnull final OutputStream out) throws IOException {
+      try (final FeedArchive archive = FeedArchive.open(zipFile)) {
+        final ZipEntry entry = archive.getEntry(entryName);
+        if (entry == null) {
+          throw new FileNotFoundException(entryName + " is no longer in " + zipFile.getPath());
+        }
+        try (final InputStream input = archive.getInputStream(entry)) {
+          final byte[] buffer = new byte[UPLOAD_BUFFER_SIZE];
+          int read;
+          while ((read = input.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+          }
+        }
+      }
+    }
+
+    @Override
+    @Nonnull
+    public String getTransferEncoding() {
+      return MIME.ENC_BINARY;
+    }
+
+    /**
+     * @return the inflated size, or -1 if the archive doesn't record it.
+     */
+    @Override
+    public long getContentLength() {
+      return size;
+    }
+  }
+
+  /**
+   * A gzip-compressed file, inflated as it is sent.
+   */
+  private static final class InflatedFileBody extends AbstractContentBody {
+    @Nonnull
+    private final File file;
+    @Nonnull
+    private final String filename;
+
+    private InflatedFileBody(
+        @Nonnull final File file,
+        @Nonnull final String filename) {
+
+      super(CSV_CONTENT_TYPE);
+      this.file = file;
+      this.filename = filename;
+    }
+
+    @Override
+    @Nonnull
+    public String getFilename() {
+      return filename;
+    }
+
+    @Override
+    public void writeTo(@Nonnull final OutputStream out) throws IOException {
+      try (final InputStream input = GzipInput.open(file)) {
+        final byte[] buffer = new byte[UPLOAD_BUFFER_SIZE];
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+          out.write(buffer, 0, read);
+        }
+      }
+    }
+
+    @Override
+    @Nonnull
+    public String getTransferEncoding() {
+      return MIME.ENC_BINARY;
+    }
+
+    /**
+     * @return -1, since the inflated size isn't known until the file has been read.
+     */
+    @Override
+    public long getContentLength() {
+      return -1;
+    }
+  }
 }
@@ -10,6 +10,8 @@ import javax.annotation.Nonnull;
  */
 enum AccessType {
   READ_FILE("read the file"),
+  // A file, or something that can only be read once from start to end, such as a named pipe.
+  READ_STREAM("read the file or pipe"),
   WRITE_FILE("write to the file"),
   READ_DIR("access the directory"),
   WRITE_DIR("write within the directory");
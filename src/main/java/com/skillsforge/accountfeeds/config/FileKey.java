@@ -8,12 +8,12 @@ import javax.annotation.Nullable;
  * @date 26-May-2017
  */
 public enum FileKey {
-  INPUT_USERS(PropKey.SOURCE_DIR, PropKey.USERS_FILENAME, AccessType.READ_FILE),
-  INPUT_USER_GROUPS(PropKey.SOURCE_DIR, PropKey.USER_GROUPS_FILENAME, AccessType.READ_FILE),
+  INPUT_USERS(PropKey.SOURCE_DIR, PropKey.USERS_FILENAME, AccessType.READ_STREAM),
+  INPUT_USER_GROUPS(PropKey.SOURCE_DIR, PropKey.USER_GROUPS_FILENAME, AccessType.READ_STREAM),
   INPUT_USER_RELATIONSHIPS(PropKey.SOURCE_DIR, PropKey.USER_RELATIONSHIPS_FILENAME,
-      AccessType.READ_FILE),
-  INPUT_GROUPS(PropKey.SOURCE_DIR, PropKey.GROUPS_FILENAME, AccessType.READ_FILE),
-  INPUT_GROUP_ROLES(PropKey.SOURCE_DIR, PropKey.GROUP_ROLES_FILENAME, AccessType.READ_FILE),
+      AccessType.READ_STREAM),
+  INPUT_GROUPS(PropKey.SOURCE_DIR, PropKey.GROUPS_FILENAME, AccessType.READ_STREAM),
+  INPUT_GROUP_ROLES(PropKey.SOURCE_DIR, PropKey.GROUP_ROLES_FILENAME, AccessType.READ_STREAM),
 
   OUTPUT_USERS(PropKey.DEST_DIR, PropKey.USERS_FILENAME, AccessType.WRITE_FILE),
   OUTPUT_USER_GROUPS(PropKey.DEST_DIR, PropKey.USER_GROUPS_FILENAME, AccessType.WRITE_FILE),
@@ -23,6 +23,7 @@ public enum FileKey {
   OUTPUT_GROUP_ROLES(PropKey.DEST_DIR, PropKey.GROUP_ROLES_FILENAME, AccessType.WRITE_FILE),
 
   SOURCE_DIR(null, PropKey.SOURCE_DIR, AccessType.READ_DIR),
+  SOURCE_ZIP(null, PropKey.SOURCE_ZIP, AccessType.READ_FILE),
   DEST_DIR(null, PropKey.DEST_DIR, AccessType.READ_DIR),
   STATE_FILE(null, PropKey.STATE_FILENAME, AccessType.READ_FILE),
   LOG(null, PropKey.OUTPUT_LOG, AccessType.WRITE_FILE),;
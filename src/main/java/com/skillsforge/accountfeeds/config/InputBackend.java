@@ -0,0 +1,13 @@
+package com.skillsforge.accountfeeds.config;
+
+/**
+ * How feed files are read: decoded through a {@link java.io.Reader}, or lexed as raw UTF-8 bytes
+ * from a memory-mapping of the file.
+ *
+ * @author agent
+ * @date 17-Oct-2026
+ */
+public enum InputBackend {
+  READER,
+  MAPPED
+}
@@ -0,0 +1,11 @@
+package com.skillsforge.accountfeeds.config;
+
+/**
+ * An object whose {@code toString()} never changes, so it can be passed to {@link ProgramState}'s
+ * log methods as it is and only formatted if the line is rendered.
+ *
+ * @author agent
+ * @date 17-Oct-2026
+ */
+public interface LogArgument {
+}
@@ -0,0 +1,146 @@
+package com.skillsforge.accountfeeds.config;
+
+import org.jetbrains.annotations.Contract;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Where in the log the lines logged while working on one row of a file, on any thread, belong:
+ * in the given phase of the program, sorted by file and then by line, and then in the order they
+ * were logged.  Made with {@link ProgramState#newLogContext}, and used with
+ * {@link ProgramState#inLogContext}.
+ * <p>
+ * A context may also be a slot marked within another context (or at a point outside any
+ * context) with {@link ProgramState#markLogPosition}, so that lines logged in it later are placed
+ * where the slot was marked.  A marked slot can be written to a String with {@link #encode()}
+ * and read back with {@link ProgramState#decodeLogContext}, so that it can be spilled to disk.
+ * <p>
+ * A context may be used by one thread at a time, but can be passed from one thread to another
+ * (for instance to carry on logging about a row on the main thread once it has been validated on
+ * a worker), so long as that is done safely.
+ *
+ * @author agent
+ * @date 17-Oct-2026
+ */
+public final class LogContext {
+  @Nonnull
+  private final ProgramState state;
+  private final long phase;
+  @Nullable
+  private final FileKey file;
+  private final long line;
+  // The sequence reserved in the context this slot was marked in, or -1 if this isn't a slot.
+  private final int slot;
+  private int nextSequence = 0;
+
+  LogContext(
+      @Nonnull final ProgramState state,
+      final long phase,
+      @Nullable final FileKey file,
+      final long line) {
+
+    this(state, phase, file, line, -1);
+  }
+
+  private LogContext(
+      @Nonnull final ProgramState state,
+      final long phase,
+      @Nullable final FileKey file,
+      final long line,
+      final int slot) {
+
+    this.state = state;
+    this.phase = phase;
+    this.file = file;
+    this.line = line;
+    this.slot = slot;
+  }
+
+  /**
+   * @return a slot in this context, after every line logged in it so far and before every line
+   * logged in it later.
+   */
+  @Nonnull
+  LogContext markSlot() {
+    if (slot >= 0) {
+      throw new IllegalStateException("A slot cannot be marked within a slot: " + this);
+    }
+    return new LogContext(state, phase, file, line, nextSequence++);
+  }
+
+  /**
+   * @return the context, to be read back with {@link ProgramState#decodeLogContext}.
+   */
+  @Nonnull
+  @Contract(pure = true)
+  public String encode() {
+    return phase + ":" + getFileOrder() + ':' + line + ':' + slot;
+  }
+
+  /**
+   * @throws IllegalArgumentException if {@code encoded} didn't come from {@link #encode()}.
+   */
+  @Nonnull
+  static LogContext decode(
+      @Nonnull final ProgramState state,
+      @Nonnull final String encoded) {
+
+    final String[] parts = encoded.split(":");
+    try {
+      if (parts.length == 4) {
+        final int fileOrder = Integer.parseInt(parts[1]);
+        return new LogContext(state, Long.parseLong(parts[0]),
+            (fileOrder < 0) ? null : FileKey.values()[fileOrder], Long.parseLong(parts[2]),
+            Integer.parseInt(parts[3]));
+      }
+    } catch (NumberFormatException | ArrayIndexOutOfBoundsException ignored) {
+      // Reported below.
+    }
+    throw new IllegalArgumentException("Not an encoded log context: " + encoded);
+  }
+
+  /**
+   * @return whether this is a context for lines logged to {@code other}.
+   */
+  @Contract(pure = true)
+  boolean isFor(@Nonnull final ProgramState other) {
+    return state == other;
+  }
+
+  @Contract(pure = true)
+  long getPhase() {
+    return phase;
+  }
+
+  /**
+   * @return the file's place in the order of the files, or -1 if the lines aren't about a file.
+   */
+  @Contract(pure = true)
+  int getFileOrder() {
+    return (file == null) ? -1 : file.ordinal();
+  }
+
+  @Contract(pure = true)
+  long getLine() {
+    return line;
+  }
+
+  /**
+   * @return the sequence of the next line logged in this context: its order among the context's
+   * lines, or for a slot, the slot's place among the lines of the context it was marked in
+   * followed by the line's order within the slot.
+   */
+  long nextSequence() {
+    return (slot < 0)
+           ? ((long) nextSequence++ << 32)
+           : (((long) slot << 32) | ++nextSequence);
+  }
+
+  @Nonnull
+  @Override
+  @Contract(pure = true)
+  public String toString() {
+    return String.format("LogContext[%d,%s,%d,%d]", phase, file, line, slot);
+  }
+}
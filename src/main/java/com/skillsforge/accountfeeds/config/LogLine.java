@@ -8,6 +8,12 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 /**
+ * A line of the log.  A line logged with a format and arguments is only formatted when it is
+ * first rendered, as most lines in a large log are counted far more often than they are read.  So
+ * that it still renders as it would have when it was logged, each argument is kept as it is only
+ * if it cannot change: a String, a boxed primitive, an enum constant or a {@link LogArgument}.
+ * Anything else is converted to a String straight away.
+ *
  * @author aw1459
  * @date 28-Jun-2017
  */
@@ -17,8 +23,13 @@ public class LogLine {
   private final String errorCode;
   @Nonnull
   private final LogLevel level;
-  @Nonnull
-  private final String errorString;
+  // The format and arguments, if the line is only formatted when it is first rendered.
+  @Nullable
+  private final String format;
+  @Nullable
+  private final Object[] formatArgs;
+  @Nullable
+  private String errorString;
 
   private final boolean lintable;
 
@@ -29,6 +40,8 @@ public class LogLine {
 
     errorCode = code;
     errorString = str;
+    format = null;
+    formatArgs = null;
     level = lvl;
     lintable = false;
   }
@@ -41,6 +54,8 @@ public class LogLine {
 
     errorCode = code;
     errorString = str;
+    format = null;
+    formatArgs = null;
     level = lvl;
     this.lintable = lintable;
   }
@@ -52,7 +67,8 @@ public class LogLine {
       @Nonnull final Object... args) {
 
     errorCode = code;
-    errorString = String.format(fmt, args);
+    format = fmt;
+    formatArgs = pinArguments(args);
     level = lvl;
     this.lintable = false;
   }
@@ -65,7 +81,8 @@ public class LogLine {
       @Nonnull final Object... args) {
 
     errorCode = code;
-    errorString = String.format(fmt, args);
+    format = fmt;
+    formatArgs = pinArguments(args);
     level = lvl;
     this.lintable = lintable;
   }
@@ -76,7 +93,34 @@ public class LogLine {
         level.name(),
         lintable ? "-LINTABLE" : "",
         (errorCode == null) ? "" : ("::" + errorCode),
-        errorString);
+        getErrorString());
+  }
+
+  @Nullable
+  @Contract(pure = true)
+  public String getErrorCode() {
+    return errorCode;
+  }
+
+  @Nonnull
+  @Contract(pure = true)
+  public LogLevel getLevel() {
+    return level;
+  }
+
+  @Contract(pure = true)
+  public boolean isLintable() {
+    return lintable;
+  }
+
+  @Nonnull
+  public String getErrorString() {
+    // Two threads may both format the line, but they format it to the same String.
+    if (errorString == null) {
+      //noinspection ConstantConditions - a line without a String always has a format.
+      errorString = String.format(format, formatArgs);
+    }
+    return errorString;
   }
 
   @Contract(pure = true)
@@ -88,4 +132,24 @@ public class LogLine {
   public boolean isWarning() {
     return level == LogLevel.WARN;
   }
+
+  @Nonnull
+  private static Object[] pinArguments(@Nonnull final Object... args) {
+    final Object[] pinned = args.clone();
+    for (int i = 0; i < pinned.length; i++) {
+      final Object arg = pinned[i];
+      if ((arg != null) && !isUnchanging(arg)) {
+        pinned[i] = arg.toString();
+      }
+    }
+    return pinned;
+  }
+
+  @Contract(pure = true)
+  private static boolean isUnchanging(@Nonnull final Object arg) {
+    return (arg instanceof String) || (arg instanceof LogArgument) || (arg instanceof Enum)
+           || (arg instanceof Integer) || (arg instanceof Long) || (arg instanceof Boolean)
+           || (arg instanceof Character) || (arg instanceof Double) || (arg instanceof Float)
+           || (arg instanceof Short) || (arg instanceof Byte);
+  }
 }
@@ -0,0 +1,332 @@
+package com.skillsforge.accountfeeds.config;
+
+import org.jetbrains.annotations.Contract;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * The lines logged to a {@link ProgramState}, from any number of threads.  Each thread appends to
+ * a buffer of its own, so logging a line never waits on another thread.  Each line is stored with
+ * a sequence key - the phase of the program it was logged in, then the file and line it is about,
+ * then the order it was logged in - and the lines are sorted by it when they are read back, so
+ * they come out in the same order however many threads logged them.
+ * <p>
+ * A sink may be given a sample limit, in which case only that many warnings and errors of each
+ * code are kept (the first in sequence order), and the rest are only counted.  A line that will
+ * not be kept is never built.
+ * <p>
+ * The lines kept so far may be flushed (written out and forgotten) at any point at which no other
+ * thread is logging and no line logged later could come before them; only their counts are kept.
+ * <p>
+ * The lines may only be read back once every thread that logged them has finished (for instance,
+ * once its task has been joined).
+ *
+ * @author agent
+ * @date 17-Oct-2026
+ */
+final class LogSink {
+  @Nonnull
+  private static final Comparator<Entry> SEQUENCE_ORDER =
+      (left, right) -> compare(left.phase, left.fileOrder, left.line, left.sequence, right);
+
+  // Almost every line is logged by the thread that made the sink, which uses this buffer without
+  // going through a ThreadLocal.
+  @Nonnull
+  private final Thread owner = Thread.currentThread();
+  @Nonnull
+  private final Buffer ownerBuffer = new Buffer();
+  @Nonnull
+  private final Queue<Buffer> buffers = new ConcurrentLinkedQueue<>();
+  @Nonnull
+  private final ThreadLocal<Buffer> otherBuffers = ThreadLocal.withInitial(() -> {
+    final Buffer buffer = new Buffer();
+    buffers.add(buffer);
+    return buffer;
+  });
+  // The most warnings and errors of each code to keep, or 0 to keep every line.
+  private int sampleLimit = 0;
+  // Only changed by flush(), while no other thread is logging.
+  @Nonnull
+  private final long[] flushedCounts = new long[LogLevel.values().length];
+  @Nonnull
+  private final Map<String, long[]> flushedSamples = new HashMap<>();
+
+  LogSink() {
+    buffers.add(ownerBuffer);
+  }
+
+  /**
+   * Sets how many warnings and errors of each code are kept from now on.  This may only be called
+   * before any other thread logs to the sink.
+   *
+   * @param sampleLimit 0 to keep every line.
+   */
+  void setSampleLimit(final int sampleLimit) {
+    this.sampleLimit = sampleLimit;
+  }
+
+  @Contract(pure = true)
+  int getSampleLimit() {
+    return sampleLimit;
+  }
+
+  @Contract(pure = true)
+  boolean isOwnedByCurrentThread() {
+    return Thread.currentThread() == owner;
+  }
+
+  /**
+   * @param logLine called to build the line, only if it is kept.
+   * @return whether the line was kept.
+   */
+  boolean add(
+      final long phase,
+      final int fileOrder,
+      final long line,
+      final long sequence,
+      @Nullable final String code,
+      @Nonnull final LogLevel level,
+      @Nonnull final Supplier<LogLine> logLine) {
+
+    final Buffer buffer = (Thread.currentThread() == owner) ? ownerBuffer : otherBuffers.get();
+    if ((sampleLimit == 0) || (code == null) || (level == LogLevel.INFO)) {
+      buffer.entries.add(new Entry(phase, fileOrder, line, sequence, logLine.get()));
+      return true;
+    }
+
+    final Samples samples = buffer.samples.computeIfAbsent(code, key -> new Samples());
+    samples.counts[level.ordinal()]++;
+    final long unshown = sampleLimit - sum(flushedSamples.get(code));
+    if (samples.kept.size() >= unshown) {
+      // Only a line that comes before the last of this thread's samples can be one of the first.
+      if (samples.kept.isEmpty()
+          || (compare(phase, fileOrder, line, sequence, samples.kept.peek()) > 0)) {
+        return false;
+      }
+      samples.kept.poll();
+    }
+    samples.kept.add(new Entry(phase, fileOrder, line, sequence, logLine.get()));
+    return true;
+  }
+
+  /**
+   * @return every line kept, in sequence order.
+   */
+  @Nonnull
+  @Contract(pure = true)
+  List<LogLine> getLines() {
+    final List<Entry> entries = new ArrayList<>();
+    for (final Buffer buffer : buffers) {
+      entries.addAll(buffer.entries);
+    }
+    selectSamples().values().forEach(entries::addAll);
+    entries.sort(SEQUENCE_ORDER);
+    return entries.stream().map(entry -> entry.logLine).collect(Collectors.toList());
+  }
+
+  /**
+   * Passes every line kept so far to {@code output} in sequence order, and then forgets them.  No
+   * other thread may be logging to the sink, and no line logged afterwards may come before them.
+   */
+  void flush(@Nonnull final Consumer<LogLine> output) {
+    final List<Entry> entries = new ArrayList<>();
+    for (final Buffer buffer : buffers) {
+      for (final Entry entry : buffer.entries) {
+        flushedCounts[entry.logLine.getLevel().ordinal()]++;
+      }
+      entries.addAll(buffer.entries);
+      buffer.entries.clear();
+    }
+    selectSamples().forEach((code, samples) -> {
+      final long[] shown =
+          flushedSamples.computeIfAbsent(code, key -> new long[flushedCounts.length]);
+      for (final Entry sample : samples) {
+        shown[sample.logLine.getLevel().ordinal()]++;
+      }
+      entries.addAll(samples);
+    });
+    for (final Buffer buffer : buffers) {
+      buffer.samples.values().forEach(samples -> samples.kept.clear());
+    }
+
+    entries.sort(SEQUENCE_ORDER);
+    entries.forEach(entry -> output.accept(entry.logLine));
+  }
+
+  /**
+   * @return every line kept, in sequence order, leaving the sink empty.
+   */
+  @Nonnull
+  List<LogLine> takeLines() {
+    final List<LogLine> lines = getLines();
+    for (final Buffer buffer : buffers) {
+      buffer.entries.clear();
+      buffer.samples.clear();
+    }
+    return lines;
+  }
+
+  /**
+   * @return how many warnings and errors of each code have been, or would be, shown: those
+   * flushed, and those that {@link #getLines()} would return.  Indexed by
+   * {@link LogLevel#ordinal()}.
+   */
+  @Nonnull
+  @Contract(pure = true)
+  Map<String, long[]> getShownByCode() {
+    final Map<String, long[]> shown = new HashMap<>();
+    flushedSamples.forEach((code, counts) -> shown.put(code, counts.clone()));
+    selectSamples().forEach((code, samples) -> {
+      final long[] counts = shown.computeIfAbsent(code, key -> new long[flushedCounts.length]);
+      for (final Entry sample : samples) {
+        counts[sample.logLine.getLevel().ordinal()]++;
+      }
+    });
+    return shown;
+  }
+
+  /**
+   * @return how many warnings and errors of each code were logged, in order of code, indexed by
+   * {@link LogLevel#ordinal()}.  Empty unless the sink has a sample limit.
+   */
+  @Nonnull
+  @Contract(pure = true)
+  Map<String, long[]> getCountsByCode() {
+    final Map<String, long[]> counts = new TreeMap<>();
+    for (final Buffer buffer : buffers) {
+      buffer.samples.forEach((code, samples) -> {
+        final long[] total = counts.computeIfAbsent(code, key -> new long[samples.counts.length]);
+        for (int level = 0; level < total.length; level++) {
+          total[level] += samples.counts[level];
+        }
+      });
+    }
+    return counts;
+  }
+
+  /**
+   * @return how many lines of {@code level} were logged, whether or not they were kept.
+   */
+  @Contract(pure = true)
+  long count(@Nonnull final LogLevel level) {
+    long count = flushedCounts[level.ordinal()];
+    for (final Buffer buffer : buffers) {
+      count += buffer.entries.stream().filter(entry -> entry.logLine.getLevel() == level).count();
+      for (final Samples samples : buffer.samples.values()) {
+        count += samples.counts[level.ordinal()];
+      }
+    }
+    return count;
+  }
+
+  /**
+   * @return the first of the warnings and errors kept of each code that haven't been flushed, no
+   * more than are left to show of it, in sequence order.
+   */
+  @Nonnull
+  @Contract(pure = true)
+  private Map<String, List<Entry>> selectSamples() {
+    final Map<String, List<Entry>> samplesByCode = new HashMap<>();
+    for (final Buffer buffer : buffers) {
+      buffer.samples.forEach((code, samples) -> {
+        if (!samples.kept.isEmpty()) {
+          samplesByCode.computeIfAbsent(code, key -> new ArrayList<>()).addAll(samples.kept);
+        }
+      });
+    }
+    // Each thread kept its own first lines of each code, so the first of all are among them.
+    samplesByCode.forEach((code, samples) -> {
+      samples.sort(SEQUENCE_ORDER);
+      final long unshown = sampleLimit - sum(flushedSamples.get(code));
+      samples.subList((int) Long.min(unshown, samples.size()), samples.size()).clear();
+    });
+    return samplesByCode;
+  }
+
+  @Contract(pure = true)
+  private static long sum(@Nullable final long[] counts) {
+    long sum = 0;
+    if (counts != null) {
+      for (final long count : counts) {
+        sum += count;
+      }
+    }
+    return sum;
+  }
+
+  @Contract(pure = true)
+  private static int compare(
+      final long phase,
+      final int fileOrder,
+      final long line,
+      final long sequence,
+      @Nonnull final Entry other) {
+
+    int order = Long.compare(phase, other.phase);
+    if (order == 0) {
+      order = Integer.compare(fileOrder, other.fileOrder);
+    }
+    if (order == 0) {
+      order = Long.compare(line, other.line);
+    }
+    if (order == 0) {
+      order = Long.compare(sequence, other.sequence);
+    }
+    return order;
+  }
+
+  private static final class Buffer {
+    // Every line that is always kept.
+    @Nonnull
+    private final List<Entry> entries = new ArrayList<>();
+    // The warnings and errors of each code, if the sink has a sample limit.
+    @Nonnull
+    private final Map<String, Samples> samples = new HashMap<>();
+  }
+
+  private static final class Samples {
+    // How many lines of each level were logged to the buffer, kept or not.
+    @Nonnull
+    private final long[] counts = new long[LogLevel.values().length];
+    // The first lines logged to the buffer, with the last of them at the head.
+    @Nonnull
+    private final PriorityQueue<Entry> kept = new PriorityQueue<>(SEQUENCE_ORDER.reversed());
+  }
+
+  private static final class Entry {
+    private final long phase;
+    private final int fileOrder;
+    private final long line;
+    private final long sequence;
+    @Nonnull
+    private final LogLine logLine;
+
+    private Entry(
+        final long phase,
+        final int fileOrder,
+        final long line,
+        final long sequence,
+        @Nonnull final LogLine logLine) {
+
+      this.phase = phase;
+      this.fileOrder = fileOrder;
+      this.line = line;
+      this.sequence = sequence;
+      this.logLine = logLine;
+    }
+  }
+}
@@ -6,6 +6,8 @@ package com.skillsforge.accountfeeds.config;
  */
 public enum ProgramMode {
   CHECK,
+  QUICKCHECK,
+  SAMPLE,
   LINT,
   UPLOAD,
   HELP
@@ -1,28 +1,40 @@
 package com.skillsforge.accountfeeds.config;
 
+import com.skillsforge.accountfeeds.input.GzipInput;
+import com.skillsforge.accountfeeds.input.ReadAheadInputStream;
+
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
 import org.apache.commons.cli.DefaultParser;
 import org.apache.commons.cli.Option;
+import org.apache.commons.cli.OptionGroup;
 import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
 import org.jetbrains.annotations.Contract;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.io.UnsupportedEncodingException;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.EnumMap;
-import java.util.LinkedList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 import static com.skillsforge.accountfeeds.config.LogLevel.ERROR;
+import static com.skillsforge.accountfeeds.config.LogLevel.WARN;
 
 /**
  * @author aw1459
@@ -31,12 +43,26 @@ import static com.skillsforge.accountfeeds.config.LogLevel.ERROR;
 @SuppressWarnings({"UseOfSystemOutOrSystemErr", "OverlyComplexMethod", "BooleanParameter"})
 public class ProgramState {
 
+  // Given as the name of an input file, to read it from standard input.
+  @Nonnull
+  public static final String STANDARD_INPUT = "-";
   @Nonnull
   private static final Options checkOptions = new Options();
   @Nonnull
+  private static final Options sampleOptions = new Options();
+  @Nonnull
   private static final Options lintOptions = new Options();
   @Nonnull
   private static final Options uploadOptions = new Options();
+  @Nonnull
+  private static final String DEFAULT_PARSE_CACHE_DIR = ".account-feed-utility/parse-cache";
+  private static final int MAX_READ_AHEAD_KIB = 1 << 16;
+  private static final int DEFAULT_SAMPLE_ROWS = 1000;
+  private static final int LOG_BUFFER_SIZE = 1 << 16;
+  @Nonnull
+  private static final Set<PropKey> flagOptions =
+      EnumSet.of(PropKey.STREAMING, PropKey.NO_PARSE_CACHE, PropKey.STREAM_LOG,
+          PropKey.UPLOAD_COMPRESSED);
 
   static {
     final Option optUsers =
@@ -50,7 +76,14 @@ public class ProgramState {
     final Option optGroupRoles =
         Option.builder().longOpt(PropKey.GROUP_ROLES_FILENAME.argName()).hasArg().build();
     final Option optSourceDir =
-        Option.builder("s").longOpt(PropKey.SOURCE_DIR.argName()).hasArg().required().build();
+        Option.builder("s").longOpt(PropKey.SOURCE_DIR.argName()).hasArg().build();
+    final Option optSourceZip =
+        Option.builder().longOpt(PropKey.SOURCE_ZIP.argName()).hasArg().build();
+    // The files are either in a directory or a zip archive, so exactly one of these is needed.
+    final OptionGroup sourceGroup = new OptionGroup()
+        .addOption(optSourceDir)
+        .addOption(optSourceZip);
+    sourceGroup.setRequired(true);
     final Option optDestDir =
         Option.builder("d").longOpt(PropKey.DEST_DIR.argName()).hasArg().required().build();
     final Option optStateFilename =
@@ -75,25 +108,90 @@ public class ProgramState {
         Option.builder("x").longOpt(PropKey.ACCOUNT_EXPIRE_DELAY.argName()).hasArg().build();
     final Option optRelationshipExpiry =
         Option.builder("r").longOpt(PropKey.RELATIONSHIP_EXPIRE_DELAY.argName()).hasArg().build();
+    final Option optStreaming =
+        Option.builder().longOpt(PropKey.STREAMING.argName()).build();
+    final Option optThreads =
+        Option.builder().longOpt(PropKey.THREADS.argName()).hasArg().build();
+    final Option optInputBackend =
+        Option.builder().longOpt(PropKey.INPUT_BACKEND.argName()).hasArg().build();
+    final Option optNoParseCache =
+        Option.builder().longOpt(PropKey.NO_PARSE_CACHE.argName()).build();
+    final Option optParseCacheDir =
+        Option.builder().longOpt(PropKey.PARSE_CACHE_DIR.argName()).hasArg().build();
+    final Option optReadAhead =
+        Option.builder().longOpt(PropKey.READ_AHEAD.argName()).hasArg().build();
+    final Option optReadAheadDepth =
+        Option.builder().longOpt(PropKey.READ_AHEAD_DEPTH.argName()).hasArg().build();
+    final Option optRowStorage =
+        Option.builder().longOpt(PropKey.ROW_STORAGE.argName()).hasArg().build();
+    final Option optMaxHeapFraction =
+        Option.builder().longOpt(PropKey.MAX_HEAP_FRACTION.argName()).hasArg().build();
+    final Option optSampleRows =
+        Option.builder().longOpt(PropKey.SAMPLE_ROWS.argName()).hasArg().build();
+    final Option optSampleMethod =
+        Option.builder().longOpt(PropKey.SAMPLE_METHOD.argName()).hasArg().build();
+    final Option optLogSamples =
+        Option.builder().longOpt(PropKey.LOG_SAMPLES.argName()).hasArg().build();
+    final Option optStreamLog =
+        Option.builder().longOpt(PropKey.STREAM_LOG.argName()).build();
+    final Option optUploadCompressed =
+        Option.builder().longOpt(PropKey.UPLOAD_COMPRESSED.argName()).build();
 
     checkOptions.addOption(optUsers)
         .addOption(optUserGroups)
         .addOption(optUserRel)
         .addOption(optGroups)
         .addOption(optGroupRoles)
-        .addOption(optSourceDir)
+        .addOptionGroup(sourceGroup)
         .addOption(optStateFilename)
-        .addOption(optOutputLog);
+        .addOption(optOutputLog)
+        .addOption(optStreaming)
+        .addOption(optThreads)
+        .addOption(optInputBackend)
+        .addOption(optNoParseCache)
+        .addOption(optParseCacheDir)
+        .addOption(optReadAhead)
+        .addOption(optReadAheadDepth)
+        .addOption(optRowStorage)
+        .addOption(optMaxHeapFraction)
+        .addOption(optLogSamples)
+        .addOption(optStreamLog);
+
+    // Sampling reads a few rows straight from each file, so the options for how files are read
+    // in full don't apply.
+    sampleOptions.addOption(optUsers)
+        .addOption(optUserGroups)
+        .addOption(optUserRel)
+        .addOption(optGroups)
+        .addOption(optGroupRoles)
+        .addOptionGroup(sourceGroup)
+        .addOption(optStateFilename)
+        .addOption(optOutputLog)
+        .addOption(optSampleRows)
+        .addOption(optSampleMethod)
+        .addOption(optLogSamples)
+        .addOption(optStreamLog);
 
     lintOptions.addOption(optUsers)
         .addOption(optUserGroups)
         .addOption(optUserRel)
         .addOption(optGroups)
         .addOption(optGroupRoles)
-        .addOption(optSourceDir)
+        .addOptionGroup(sourceGroup)
         .addOption(optDestDir)
         .addOption(optStateFilename)
-        .addOption(optOutputLog);
+        .addOption(optOutputLog)
+        .addOption(optStreaming)
+        .addOption(optThreads)
+        .addOption(optInputBackend)
+        .addOption(optNoParseCache)
+        .addOption(optParseCacheDir)
+        .addOption(optReadAhead)
+        .addOption(optReadAheadDepth)
+        .addOption(optRowStorage)
+        .addOption(optMaxHeapFraction)
+        .addOption(optLogSamples)
+        .addOption(optStreamLog);
 
     uploadOptions
         .addOption(optUsers)
@@ -101,7 +199,7 @@ public class ProgramState {
         .addOption(optUserRel)
         .addOption(optGroups)
         .addOption(optGroupRoles)
-        .addOption(optSourceDir)
+        .addOptionGroup(sourceGroup)
         .addOption(optStateFilename)
         .addOption(optOutputLog)
         .addOption(optUrl)
@@ -112,27 +210,74 @@ public class ProgramState {
         .addOption(optEmailSubject)
         .addOption(optAccountUsernameChanges)
         .addOption(optAccountExpiry)
-        .addOption(optRelationshipExpiry);
+        .addOption(optRelationshipExpiry)
+        .addOption(optUploadCompressed)
+        .addOption(optStreaming)
+        .addOption(optThreads)
+        .addOption(optInputBackend)
+        .addOption(optNoParseCache)
+        .addOption(optParseCacheDir)
+        .addOption(optReadAhead)
+        .addOption(optReadAheadDepth)
+        .addOption(optRowStorage)
+        .addOption(optMaxHeapFraction)
+        .addOption(optLogSamples)
+        .addOption(optStreamLog);
   }
 
+  // The context, if any, the current thread is logging in.  It applies only to its own state.
+  @Nonnull
+  private static final ThreadLocal<LogContext> CURRENT_LOG_CONTEXT = new ThreadLocal<>();
+
   @Nonnull
   private final Map<PropKey, String> properties = new EnumMap<>(PropKey.class);
   @Nonnull
   private final Map<FileKey, File> files = new EnumMap<>(FileKey.class);
+  // The one input file, if any, that is read from standard input.  It has no entry in files.
+  @Nullable
+  private FileKey standardInputKey = null;
   @Nonnull
   private final PrintStream outputLogStream;
+  // Lines may be logged from several threads at once; see LogSink.
+  @Nonnull
+  private final LogSink allLogLines = new LogSink();
+  @Nonnull
+  private final LogSink licenceLogLines = new LogSink();
+  // The phase of each line logged outside a LogContext, and of each phase reserved for one.
   @Nonnull
-  private final Collection<LogLine> allLogLines = new LinkedList<>();
+  private final AtomicLong nextLogPhase = new AtomicLong();
+  // The phases reserved for LogContexts that haven't yet been released.
   @Nonnull
-  private final Collection<LogLine> licenceLogLines = new LinkedList<>();
+  private final AtomicInteger openLogPhases = new AtomicInteger();
+  // Whether lines are written to the output log as they are logged (--stream-log), rather than
+  // all at once by renderLog().  Never true of a child state.
+  private boolean streamingLog = false;
   @Nonnull
   private ProgramMode programMode = ProgramMode.HELP;
-  private boolean fatalErrorEncountered = false;
+  private volatile boolean fatalErrorEncountered = false;
 
   public ProgramState() {
     outputLogStream = System.out;
   }
 
+  public ProgramState(@Nonnull final PrintStream outputLogStream) {
+    this.outputLogStream = outputLogStream;
+  }
+
+  /**
+   * Creates a state with the same configuration as {@code parent}, but which collects its own log
+   * lines so that work done on another thread can be logged without interleaving.  The lines are
+   * passed back to the parent with {@link #mergeLogFrom(ProgramState)}.  The child keeps every
+   * line whatever --log-samples is, so that they are sampled by the parent.
+   */
+  public ProgramState(@Nonnull final ProgramState parent) {
+    this.outputLogStream = parent.outputLogStream;
+    this.properties.putAll(parent.properties);
+    this.files.putAll(parent.files);
+    this.standardInputKey = parent.standardInputKey;
+    this.programMode = parent.programMode;
+  }
+
   @SuppressWarnings({"OverlyLongMethod", "MethodWithMultipleLoops"})
   public ProgramState(
       @Nonnull final String[] programArgs) {
@@ -165,8 +310,12 @@ public class ProgramState {
         showUsage();
         return;
       case CHECK:
+      case QUICKCHECK:
         optionsForMode = checkOptions;
         break;
+      case SAMPLE:
+        optionsForMode = sampleOptions;
+        break;
       case LINT:
         optionsForMode = lintOptions;
         break;
@@ -201,6 +350,12 @@ public class ProgramState {
     for (final PropKey key : PropKey.values()) {
       properties.put(key, args.getOptionValue(key.argName()));
     }
+    // Flags have no value, so their presence is recorded instead.
+    for (final PropKey key : flagOptions) {
+      if (args.hasOption(key.argName())) {
+        properties.put(key, "true");
+      }
+    }
 
     // Set up the defaults for the properties:
     properties.putIfAbsent(PropKey.USERS_FILENAME, "Users.csv");
@@ -209,6 +364,95 @@ public class ProgramState {
     properties.putIfAbsent(PropKey.GROUPS_FILENAME, "Groups.csv");
     properties.putIfAbsent(PropKey.GROUP_ROLES_FILENAME, "GroupRoles.csv");
 
+    final String threads = properties.get(PropKey.THREADS);
+    if ((threads != null) && (parseWholeNumber(threads) < 1)) {
+      outputLogStream = System.err;
+      log("PS.5", ERROR, "--%s must be a whole number of at least 1, not: %s\n",
+          PropKey.THREADS.argName(), threads);
+      setFatalErrorEncountered();
+      return;
+    }
+
+    final String inputBackend = properties.get(PropKey.INPUT_BACKEND);
+    if ((inputBackend != null) && (parseInputBackend(inputBackend) == null)) {
+      outputLogStream = System.err;
+      log("PS.6", ERROR, "--%s must be one of %s, not: %s\n",
+          PropKey.INPUT_BACKEND.argName(),
+          Arrays.toString(InputBackend.values()).toLowerCase(), inputBackend);
+      setFatalErrorEncountered();
+      return;
+    }
+
+    final String readAhead = properties.get(PropKey.READ_AHEAD);
+    if ((readAhead != null) && ((parseWholeNumber(readAhead) < 1)
+                                || (parseWholeNumber(readAhead) > MAX_READ_AHEAD_KIB))) {
+      outputLogStream = System.err;
+      log("PS.7", ERROR, "--%s must be a whole number of KiB from 1 to %d, not: %s\n",
+          PropKey.READ_AHEAD.argName(), MAX_READ_AHEAD_KIB, readAhead);
+      setFatalErrorEncountered();
+      return;
+    }
+
+    final String readAheadDepth = properties.get(PropKey.READ_AHEAD_DEPTH);
+    if ((readAheadDepth != null)
+        && (parseWholeNumber(readAheadDepth) < ReadAheadInputStream.MIN_DEPTH)) {
+      outputLogStream = System.err;
+      log("PS.8", ERROR, "--%s must be a whole number of at least %d, not: %s\n",
+          PropKey.READ_AHEAD_DEPTH.argName(), ReadAheadInputStream.MIN_DEPTH, readAheadDepth);
+      setFatalErrorEncountered();
+      return;
+    }
+
+    final String rowStorage = properties.get(PropKey.ROW_STORAGE);
+    if ((rowStorage != null) && (parseRowStorage(rowStorage) == null)) {
+      outputLogStream = System.err;
+      log("PS.11", ERROR, "--%s must be one of %s, not: %s\n",
+          PropKey.ROW_STORAGE.argName(),
+          Arrays.toString(RowStorage.values()).toLowerCase().replace('_', '-'), rowStorage);
+      setFatalErrorEncountered();
+      return;
+    }
+
+    final String maxHeapFraction = properties.get(PropKey.MAX_HEAP_FRACTION);
+    if ((maxHeapFraction != null) && (parseFraction(maxHeapFraction) <= 0)) {
+      outputLogStream = System.err;
+      log("PS.12", ERROR, "--%s must be a number greater than 0 and no more than 1, not: %s\n",
+          PropKey.MAX_HEAP_FRACTION.argName(), maxHeapFraction);
+      setFatalErrorEncountered();
+      return;
+    }
+
+    final String sampleRows = properties.get(PropKey.SAMPLE_ROWS);
+    if ((sampleRows != null) && (parseWholeNumber(sampleRows) < 1)) {
+      outputLogStream = System.err;
+      log("PS.9", ERROR, "--%s must be a whole number of at least 1, not: %s\n",
+          PropKey.SAMPLE_ROWS.argName(), sampleRows);
+      setFatalErrorEncountered();
+      return;
+    }
+
+    final String sampleMethod = properties.get(PropKey.SAMPLE_METHOD);
+    if ((sampleMethod != null) && (parseSampleMethod(sampleMethod) == null)) {
+      outputLogStream = System.err;
+      log("PS.10", ERROR, "--%s must be one of %s, not: %s\n",
+          PropKey.SAMPLE_METHOD.argName(),
+          Arrays.toString(SampleMethod.values()).toLowerCase(), sampleMethod);
+      setFatalErrorEncountered();
+      return;
+    }
+
+    final String logSamples = properties.get(PropKey.LOG_SAMPLES);
+    if (logSamples != null) {
+      if (parseWholeNumber(logSamples) < 1) {
+        outputLogStream = System.err;
+        log("PS.13", ERROR, "--%s must be a whole number of at least 1, not: %s\n",
+            PropKey.LOG_SAMPLES.argName(), logSamples);
+        setFatalErrorEncountered();
+        return;
+      }
+      allLogLines.setSampleLimit(parseWholeNumber(logSamples));
+    }
+
     // Open all the necessary files:
     for (final FileKey key : FileKey.values()) {
       files.put(key, openFileWithAccessCheck(key));
@@ -217,7 +461,13 @@ public class ProgramState {
     final File outputLogFile = files.get(FileKey.LOG);
     final PrintStream outputStream;
     try {
-      outputStream = (outputLogFile == null) ? System.out : new PrintStream(outputLogFile, "UTF-8");
+      // Flushed by renderLog().
+      outputStream = (outputLogFile == null)
+                     ? System.out
+                     : new PrintStream(
+                         new BufferedOutputStream(
+                             new FileOutputStream(outputLogFile), LOG_BUFFER_SIZE),
+                         false, "UTF-8");
     } catch (FileNotFoundException e) {
       outputLogStream = System.err;
       log("PS.3", ERROR, "Could not open output log file:\n  %s\n", e.getLocalizedMessage());
@@ -232,6 +482,12 @@ public class ProgramState {
     }
 
     outputLogStream = outputStream;
+    if (properties.get(PropKey.STREAM_LOG) != null) {
+      streamingLog = true;
+      outputLogStream.print("Account Feed Utility Output:\n"
+                            + "============================\n");
+      flushLog();
+    }
   }
 
   @Nullable
@@ -253,7 +509,25 @@ public class ProgramState {
       return null;
     }
 
-    final File file = new File(parentDir, filename);
+    if ((fileKey.getAccessType() == AccessType.READ_STREAM) && STANDARD_INPUT.equals(filename)) {
+      if (standardInputKey != null) {
+        log("PS.ofwac.3", ERROR, "Only one file can be read from standard input, but both the %s "
+                                 + "and %s files were given as '%s'.\n",
+            standardInputKey.getFileDescription(), fileKey.getFileDescription(), STANDARD_INPUT);
+        setFatalErrorEncountered();
+        return null;
+      }
+      standardInputKey = fileKey;
+      return null;
+    }
+
+    File file = new File(parentDir, filename);
+    if ((fileKey.getParentPathProp() == PropKey.SOURCE_DIR) && !file.exists()) {
+      final File gzipFile = new File(parentDir, filename + GzipInput.SUFFIX);
+      if (gzipFile.exists()) {
+        file = gzipFile;
+      }
+    }
     if ((fileKey.getAccessType() == AccessType.WRITE_FILE) && !hasAccess(fileKey.getAccessType(),
         file)) {
       try {
@@ -283,6 +557,68 @@ public class ProgramState {
     return file;
   }
 
+  @Contract(pure = true)
+  private static int parseWholeNumber(
+      @Nonnull final String number) {
+
+    try {
+      return Integer.parseInt(number.trim());
+    } catch (NumberFormatException ignored) {
+      return 0;
+    }
+  }
+
+  /**
+   * @return the number, or 0 if it isn't one greater than 0 and no more than 1.
+   */
+  @Contract(pure = true)
+  private static double parseFraction(
+      @Nonnull final String number) {
+
+    try {
+      final double fraction = Double.parseDouble(number.trim());
+      return ((fraction > 0) && (fraction <= 1)) ? fraction : 0;
+    } catch (NumberFormatException ignored) {
+      return 0;
+    }
+  }
+
+  @Nullable
+  @Contract(pure = true)
+  private static InputBackend parseInputBackend(
+      @Nonnull final String inputBackend) {
+
+    try {
+      return InputBackend.valueOf(inputBackend.trim().toUpperCase());
+    } catch (IllegalArgumentException ignored) {
+      return null;
+    }
+  }
+
+  @Nullable
+  @Contract(pure = true)
+  private static RowStorage parseRowStorage(
+      @Nonnull final String rowStorage) {
+
+    try {
+      return RowStorage.valueOf(rowStorage.trim().toUpperCase().replace('-', '_'));
+    } catch (IllegalArgumentException ignored) {
+      return null;
+    }
+  }
+
+  @Nullable
+  @Contract(pure = true)
+  private static SampleMethod parseSampleMethod(
+      @Nonnull final String sampleMethod) {
+
+    try {
+      return SampleMethod.valueOf(sampleMethod.trim().toUpperCase());
+    } catch (IllegalArgumentException ignored) {
+      return null;
+    }
+  }
+
   @Contract(pure = true)
   private static boolean hasAccess(
       @Nonnull final AccessType accessType,
@@ -293,6 +629,8 @@ public class ProgramState {
         return file.isDirectory() && file.canRead();
       case READ_FILE:
         return file.isFile() && file.canRead();
+      case READ_STREAM:
+        return file.exists() && !file.isDirectory() && file.canRead();
       case WRITE_DIR:
         return file.isDirectory() && file.canWrite();
       case WRITE_FILE:
@@ -311,13 +649,37 @@ public class ProgramState {
         + "  check             Load all feed files and verify their syntax and contents.\n"
         + '\n'
         + "    -s --source-dir=<path>    The directory containing a set of 'well-named' files.\n"
+        + "       --source-zip=<path>    A zip archive of those files, read in place (instead\n"
+        + "                              of -s).\n"
         + "    -p --state-file=<path>    Path to the instance-specific 'state' file.\n"
         + "    -o --output-log=<path>    File to log problems to (defaults to stdout).\n"
         + '\n'
+        + "  quickcheck        Load only the key columns of the feed files (UserID, Username,\n"
+        + "                    Email and GroupAlias), and verify the layout of each file and\n"
+        + "                    that the keys are well formed, unique and refer to each other.\n"
+        + "                    UserRelationships.csv is not read.  Takes the same options as\n"
+        + "                    check.\n"
+        + '\n'
+        + "  sample            Verify the header of each feed file, and a sample of its rows read\n"
+        + "                    from across the file without reading the rest, and estimate the\n"
+        + "                    proportion of rows with errors or warnings.  References between\n"
+        + "                    files and duplicates are not checked.  Takes the same -s,\n"
+        + "                    --source-zip, -p and -o options as check, but the files must not\n"
+        + "                    be compressed.\n"
+        + '\n'
+        + "       --sample-rows=<n>                  The number of rows to check in each file\n"
+        + "                                          (defaults to 1000).\n"
+        + "       --sample-method=<random|stratified>\n"
+        + "                                          Whether rows are chosen from anywhere in\n"
+        + "                                          the file (the default), or one from each\n"
+        + "                                          of --sample-rows equal slices of it.\n"
+        + '\n'
         + "  lint              Attempt to fix any correctable syntax errors and make the files\n"
         + "                    ready to upload to a SkillsForge instance.\n"
         + '\n'
         + "    -s --source-dir=<path>    The directory containing a set of 'well-named' files.\n"
+        + "       --source-zip=<path>    A zip archive of those files, read in place (instead\n"
+        + "                              of -s).\n"
         + "    -d --dest-dir=<path>      The directory where linted files are deposited.\n"
         + "    -p --state-file=<path>    Path to the instance-specific 'state' file.\n"
         + "    -o --output-log=<path>    File to log problems to (defaults to stdout).\n"
@@ -325,8 +687,14 @@ public class ProgramState {
         + "  upload            Begin an account sync on the specified SkillsForge instance.\n"
         + '\n'
         + "    -s --source-dir=<path>    The directory containing a set of 'well-named' files.\n"
+        + "       --source-zip=<path>    A zip archive of those files, read in place (instead\n"
+        + "                              of -s).\n"
         + "    -p --state-file=<path>    Path to the instance-specific 'state' file.\n"
-        + "    -o --output-log=<path>    File to log problems to (defaults to stdout).\n\n"
+        + "    -o --output-log=<path>    File to log problems to (defaults to stdout).\n"
+        + "       --upload-compressed    Send gzip-compressed feed files as they are, marked\n"
+        + "                              with Content-Encoding: gzip, rather than inflating\n"
+        + "                              them as they are sent.  Only for a server that\n"
+        + "                              decodes the Content-Encoding of each file it is sent.\n\n"
         + ""
         + "    The following options override any options specified in the state file.\n"
         + "    -u --url=<url>            Address of the SkillsForge account upload application.\n"
@@ -351,6 +719,54 @@ public class ProgramState {
         + "    --user-relationships-filename=<name>  Alternate filename of UserRelationships.csv\n"
         + "    --groups-filename=<name>              Alternate filename of Groups.csv\n"
         + "    --group-roles-filename=<name>         Alternate filename of GroupRoles.csv\n"
+        + "    Any of the feed files may be gzip-compressed.  If a file is not found, the same\n"
+        + "    name ending in .gz (for instance Users.csv.gz) is read instead.  One of them may\n"
+        + "    be given as - to read it from standard input, and any may be a named pipe.\n"
+        + "    --log-samples=<n>                     Log only the first n warnings and errors\n"
+        + "                                          of each code, after a table counting\n"
+        + "                                          every code.\n"
+        + "    --stream-log                          Write each line to the output log as it\n"
+        + "                                          is logged, and the totals at the end,\n"
+        + "                                          rather than holding the log in memory.\n"
+        + "                                          With --max-heap-fraction, duplicated\n"
+        + "                                          relationships are then reported after\n"
+        + "                                          the rest of the relationship checks.\n"
+        + "    --streaming                           Check and build each file's objects in a\n"
+        + "                                          single pass, without holding the parsed\n"
+        + "                                          rows in memory.\n"
+        + "    --threads=<n>                         The number of threads used to read large\n"
+        + "                                          files and to validate the objects built\n"
+        + "                                          from them (defaults to the number of\n"
+        + "                                          processors).\n"
+        + "    --input-backend=<reader|mapped>       Whether files are decoded through a reader\n"
+        + "                                          (the default), or memory-mapped and lexed\n"
+        + "                                          as raw UTF-8.\n"
+        + "    --no-parse-cache                      Always parse the feed files, rather than\n"
+        + "                                          re-using the result of parsing them in an\n"
+        + "                                          earlier run if they have not changed.\n"
+        + "    --parse-cache-dir=<path>              Where parsed feed files are cached\n"
+        + "                                          (defaults to\n"
+        + "                                          ~/.account-feed-utility/parse-cache).\n"
+        + "                                          The cache holds the full contents of the\n"
+        + "                                          parsed feed files (names, email addresses\n"
+        + "                                          and so on), readable only by the user\n"
+        + "                                          running the utility, for up to 7 days\n"
+        + "                                          after they were last used.  Use\n"
+        + "                                          --no-parse-cache to keep nothing on disk.\n"
+        + "    --read-ahead=<KiB>                    Read each file on a separate thread, in\n"
+        + "                                          buffers of this size, so that parsing\n"
+        + "                                          doesn't wait on slow (e.g. network) disks.\n"
+        + "    --read-ahead-depth=<n>                The number of --read-ahead buffers\n"
+        + "                                          (defaults to 2, i.e. double buffering).\n"
+        + "    --row-storage=<heap|off-heap>         Whether the parsed rows are held as Strings\n"
+        + "                                          on the heap (the default), or as bytes in\n"
+        + "                                          direct buffers, out of the garbage\n"
+        + "                                          collector's way, until the input objects\n"
+        + "                                          are built.\n"
+        + "    --max-heap-fraction=<fraction>        Keep the relationships being checked to\n"
+        + "                                          roughly this fraction (e.g. 0.25) of the\n"
+        + "                                          maximum heap, spilling the rest to sorted\n"
+        + "                                          temporary files on disk.\n"
         + '\n');
   }
 
@@ -358,13 +774,164 @@ public class ProgramState {
     this.fatalErrorEncountered = true;
   }
 
+  /**
+   * Appends every line logged to {@code child} to this state's log, and carries over any fatal
+   * error it encountered.
+   */
+  public void mergeLogFrom(@Nonnull final ProgramState child) {
+    child.allLogLines.getLines().forEach(this::appendLogLine);
+    child.licenceLogLines.getLines()
+        .forEach(line -> addLogLine(licenceLogLines, line.getErrorCode(), line.getLevel(),
+            () -> line));
+    if (child.fatalErrorEncountered) {
+      setFatalErrorEncountered();
+    }
+  }
+
+  /**
+   * Removes and returns every line logged to this state so far (but not its licence lines), so
+   * that a child state's lines can be passed on to its parent a few at a time.  No other thread
+   * may be logging to this state at the time.
+   */
+  @Nonnull
+  public List<LogLine> takeLogLines() {
+    return allLogLines.takeLines();
+  }
+
+  public void appendLogLine(@Nonnull final LogLine line) {
+    addLogLine(allLogLines, line.getErrorCode(), line.getLevel(), () -> line);
+  }
+
+  /**
+   * Reserves a phase of the log for {@link #newLogContext}: every line logged in it is placed
+   * after every line logged to this state before it was reserved, and before every line logged
+   * outside it afterwards.  With --stream-log, nothing more is written to the output log until
+   * the phase is released.
+   */
+  public long reserveLogPhase() {
+    openLogPhases.incrementAndGet();
+    return nextLogPhase.getAndIncrement();
+  }
+
+  /**
+   * Marks the end of a phase from {@link #reserveLogPhase()}.  Every thread that logged in it must
+   * have finished doing so.
+   */
+  public void releaseLogPhase() {
+    if ((openLogPhases.decrementAndGet() == 0) && streamingLog) {
+      flushLog();
+    }
+  }
+
+  /**
+   * @param phase from {@link #reserveLogPhase()}.
+   * @param file  the file the lines are about, or null if they aren't about a file.
+   * @param line  the line of the file (or any other position) the lines are about.
+   */
+  @Nonnull
+  @Contract(pure = true)
+  public LogContext newLogContext(
+      final long phase,
+      @Nullable final FileKey file,
+      final long line) {
+
+    return new LogContext(this, phase, file, line);
+  }
+
+  /**
+   * Marks the point in the log that the next line logged by the current thread would take, so
+   * that lines can be logged there later with {@link #inLogContext}: for instance once something
+   * found further on shows there is a problem with the object being worked on now.
+   */
+  @Nonnull
+  public LogContext markLogPosition() {
+    final LogContext context = CURRENT_LOG_CONTEXT.get();
+    return ((context != null) && context.isFor(this))
+           ? context.markSlot()
+           : new LogContext(this, nextLogPhase.getAndIncrement(), null, 0);
+  }
+
+  /**
+   * @param encoded from {@link LogContext#encode()}, for a context of this state.
+   * @throws IllegalArgumentException if {@code encoded} isn't an encoded context.
+   */
+  @Nonnull
+  public LogContext decodeLogContext(@Nonnull final String encoded) {
+    return LogContext.decode(this, encoded);
+  }
+
+  /**
+   * Runs {@code task} on the current thread with every line it logs to this state placed in the
+   * log by {@code context}, rather than after the lines already logged.  This may be used from any
+   * thread.
+   */
+  public <T> T inLogContext(
+      @Nonnull final LogContext context,
+      @Nonnull final Supplier<T> task) {
+
+    final LogContext outer = CURRENT_LOG_CONTEXT.get();
+    CURRENT_LOG_CONTEXT.set(context);
+    try {
+      return task.get();
+    } finally {
+      if (outer == null) {
+        CURRENT_LOG_CONTEXT.remove();
+      } else {
+        CURRENT_LOG_CONTEXT.set(outer);
+      }
+    }
+  }
+
+  public void inLogContext(
+      @Nonnull final LogContext context,
+      @Nonnull final Runnable task) {
+
+    inLogContext(context, () -> {
+      task.run();
+      return null;
+    });
+  }
+
+  /**
+   * @param line called to build the line, only if the sink keeps it.
+   */
+  private void addLogLine(
+      @Nonnull final LogSink sink,
+      @Nullable final String code,
+      @Nonnull final LogLevel lvl,
+      @Nonnull final Supplier<LogLine> line) {
+
+    final LogContext context = CURRENT_LOG_CONTEXT.get();
+    if ((context != null) && context.isFor(this)) {
+      sink.add(context.getPhase(), context.getFileOrder(), context.getLine(),
+          context.nextSequence(), code, lvl, line);
+    } else if (sink.add(nextLogPhase.getAndIncrement(), -1, 0, 0, code, lvl, line)
+               && streamingLog && (sink == allLogLines) && (openLogPhases.get() == 0)
+               && sink.isOwnedByCurrentThread()) {
+      flushLog();
+    }
+  }
+
+  /**
+   * Writes every line kept so far to the output log, and forgets them.  With --stream-log, the
+   * output log is flushed too, so that the lines can be seen straight away and aren't lost if the
+   * program dies.
+   */
+  @SuppressWarnings("resource")
+  private void flushLog() {
+    allLogLines.flush(logLine -> logLine.outputLogLine(outputLogStream));
+    if (streamingLog) {
+      outputLogStream.flush();
+    }
+  }
+
   public final void log(
       @Nullable final String code,
       @Nonnull final LogLevel lvl,
       @Nonnull final String fmt,
       final Object... args) {
 
-    allLogLines.add(new LogLine(code, lvl, fmt, args));
+    addLogLine(allLogLines, code, lvl, () -> new LogLine(code, lvl, fmt, args));
   }
 
   public final void licenceLog(
@@ -373,7 +940,7 @@ public class ProgramState {
       @Nonnull final String fmt,
       final Object... args) {
 
-    licenceLogLines.add(new LogLine(code, lvl, fmt, args));
+    addLogLine(licenceLogLines, code, lvl, () -> new LogLine(code, lvl, fmt, args));
   }
 
   @Nullable
@@ -384,6 +951,32 @@ public class ProgramState {
     return files.get(key);
   }
 
+  /**
+   * @return true if the file was given as {@value #STANDARD_INPUT}, and so is read from standard
+   * input rather than from {@link #getFile(FileKey)}.
+   */
+  @Contract(pure = true, value = "null -> false")
+  public boolean isStandardInput(
+      @Nullable final FileKey key) {
+
+    return (key != null) && (key == standardInputKey);
+  }
+
+  /**
+   * @return true if the file is read from standard input or a named pipe, and so can only be read
+   * once, from start to end.
+   */
+  @Contract(pure = true, value = "null -> false")
+  public boolean isStream(
+      @Nullable final FileKey key) {
+
+    if (isStandardInput(key)) {
+      return true;
+    }
+    final File file = files.get(key);
+    return (file != null) && !file.isFile();
+  }
+
   @Nonnull
   @Contract(pure = true)
   public ProgramMode getProgramMode() {
@@ -395,6 +988,107 @@ public class ProgramState {
     return this.fatalErrorEncountered;
   }
 
+  /**
+   * @return The number of threads that reading and validation may be shared between, as given by
+   * --threads.
+   */
+  @Contract(pure = true)
+  public int getThreadCount() {
+    final String threads = properties.get(PropKey.THREADS);
+    return (threads == null)
+           ? Runtime.getRuntime().availableProcessors()
+           : parseWholeNumber(threads);
+  }
+
+  /**
+   * @return How feed files should be read, as given by --input-backend.
+   */
+  @Nonnull
+  @Contract(pure = true)
+  public InputBackend getInputBackend() {
+    final String inputBackend = properties.get(PropKey.INPUT_BACKEND);
+    final InputBackend backend = (inputBackend == null) ? null : parseInputBackend(inputBackend);
+    return (backend == null) ? InputBackend.READER : backend;
+  }
+
+  /**
+   * @return Where the parsed rows of each feed file are held, as given by --row-storage.
+   */
+  @Nonnull
+  @Contract(pure = true)
+  public RowStorage getRowStorage() {
+    final String rowStorage = properties.get(PropKey.ROW_STORAGE);
+    final RowStorage storage = (rowStorage == null) ? null : parseRowStorage(rowStorage);
+    return (storage == null) ? RowStorage.HEAP : storage;
+  }
+
+  /**
+   * @return Roughly how many bytes of heap the relationships being checked may take before they
+   * are spilled to disk, as given by --max-heap-fraction, or 0 if they are always held in memory.
+   */
+  @Contract(pure = true)
+  public long getHeapBudget() {
+    final String maxHeapFraction = properties.get(PropKey.MAX_HEAP_FRACTION);
+    return (maxHeapFraction == null)
+           ? 0
+           : (long) (parseFraction(maxHeapFraction) * Runtime.getRuntime().maxMemory());
+  }
+
+  /**
+   * @return Where parsed feed files are cached, as given by --parse-cache-dir, or null if
+   * --no-parse-cache was given.
+   */
+  @Nullable
+  @Contract(pure = true)
+  public File getParseCacheDirectory() {
+    if (properties.get(PropKey.NO_PARSE_CACHE) != null) {
+      return null;
+    }
+    final String directory = properties.get(PropKey.PARSE_CACHE_DIR);
+    return (directory == null)
+           ? new File(System.getProperty("user.home"), DEFAULT_PARSE_CACHE_DIR)
+           : new File(directory);
+  }
+
+  /**
+   * @return The size in bytes of the buffers that files are read ahead into, as given by
+   * --read-ahead, or 0 if files should not be read ahead.
+   */
+  @Contract(pure = true)
+  public int getReadAheadBufferSize() {
+    final String readAhead = properties.get(PropKey.READ_AHEAD);
+    return (readAhead == null) ? 0 : (parseWholeNumber(readAhead) * 1024);
+  }
+
+  /**
+   * @return The number of buffers that files are read ahead into, as given by --read-ahead-depth.
+   */
+  @Contract(pure = true)
+  public int getReadAheadDepth() {
+    final String depth = properties.get(PropKey.READ_AHEAD_DEPTH);
+    return (depth == null) ? ReadAheadInputStream.DEFAULT_DEPTH : parseWholeNumber(depth);
+  }
+
+  /**
+   * @return The number of rows of each file to check in SAMPLE mode, as given by --sample-rows.
+   */
+  @Contract(pure = true)
+  public int getSampleRows() {
+    final String rows = properties.get(PropKey.SAMPLE_ROWS);
+    return (rows == null) ? DEFAULT_SAMPLE_ROWS : parseWholeNumber(rows);
+  }
+
+  /**
+   * @return How the rows checked in SAMPLE mode are chosen, as given by --sample-method.
+   */
+  @Nonnull
+  @Contract(pure = true)
+  public SampleMethod getSampleMethod() {
+    final String sampleMethod = properties.get(PropKey.SAMPLE_METHOD);
+    final SampleMethod method = (sampleMethod == null) ? null : parseSampleMethod(sampleMethod);
+    return (method == null) ? SampleMethod.RANDOM : method;
+  }
+
   @Nullable
   @Contract(pure = true, value = "null -> null")
   public String getProperty(
@@ -408,7 +1102,7 @@ public class ProgramState {
       @Nonnull final LogLevel lvl,
       @Nonnull final String str) {
 
-    allLogLines.add(new LogLine(code, lvl, str));
+    addLogLine(allLogLines, code, lvl, () -> new LogLine(code, lvl, str));
   }
 
   public final void log(
@@ -418,27 +1112,85 @@ public class ProgramState {
       @Nonnull final String fmt,
       final Object... args) {
 
-    allLogLines.add(new LogLine(code, lvl, lintable, fmt, args));
+    addLogLine(allLogLines, code, lvl, () -> new LogLine(code, lvl, lintable, fmt, args));
   }
 
+  /**
+   * Prints a table of how many warnings and errors of each code were logged, and how many of them
+   * are shown in the log.
+   */
   @SuppressWarnings("resource")
-  public void renderLog() {
-    outputLogStream.printf("Feed Utility Results: Warnings: [%d], Errors: [%d]\n"
-                           + "=========================================================\n\n",
-        allLogLines.stream().filter(LogLine::isWarning).count(),
-        allLogLines.stream().filter(LogLine::isError).count()
-    );
+  private void renderLogSummary() {
+    final Map<String, long[]> countsByCode = allLogLines.getCountsByCode();
+    if (countsByCode.isEmpty()) {
+      return;
+    }
+    final Map<String, long[]> shownByCode = allLogLines.getShownByCode();
 
-    if (!licenceLogLines.isEmpty()) {
+    outputLogStream.printf("\nLog Summary:\n"
+                           + "============\n"
+                           + "At most %d warnings and errors of each code are shown.\n\n",
+        allLogLines.getSampleLimit());
+    outputLogStream.printf("%-24s %-5s %10s %6s\n", "Code", "Level", "Count", "Shown");
+    countsByCode.forEach((code, counts) -> {
+      final long[] shown = shownByCode.getOrDefault(code, new long[counts.length]);
+      for (final LogLevel level : LogLevel.values()) {
+        if (counts[level.ordinal()] > 0) {
+          outputLogStream.printf("%-24s %-5s %10d %6d\n",
+              code, level.name(), counts[level.ordinal()], shown[level.ordinal()]);
+        }
+      }
+    });
+  }
+
+  @SuppressWarnings("resource")
+  private void renderLicenceLog() {
+    final List<LogLine> licenceLines = licenceLogLines.getLines();
+    if (!licenceLines.isEmpty()) {
       outputLogStream.print("Licencing Information:\n"
                             + "======================\n");
-      licenceLogLines.forEach(logLine -> logLine.outputLogLine(outputLogStream));
+      licenceLines.forEach(logLine -> logLine.outputLogLine(outputLogStream));
+    }
+  }
+
+  @SuppressWarnings("resource")
+  private void renderLogTotals() {
+    outputLogStream.printf("Feed Utility Results: Warnings: [%d], Errors: [%d]\n"
+                           + "=========================================================\n",
+        allLogLines.count(WARN),
+        allLogLines.count(ERROR)
+    );
+  }
+
+  /**
+   * Writes the log to the output log.  With --stream-log, the lines have mostly been written
+   * already, and this writes the rest of them followed by the licencing information, the summary
+   * and the totals; otherwise the totals come first.
+   */
+  @SuppressWarnings("resource")
+  public void renderLog() {
+    if (streamingLog) {
+      flushLog();
+      outputLogStream.print('\n');
+      renderLicenceLog();
+      renderLogSummary();
+      outputLogStream.print('\n');
+      renderLogTotals();
+      outputLogStream.flush();
+      return;
     }
 
-    if (!allLogLines.isEmpty()) {
+    renderLogTotals();
+    outputLogStream.print('\n');
+    renderLicenceLog();
+    renderLogSummary();
+
+    final List<LogLine> logLines = allLogLines.getLines();
+    if (!logLines.isEmpty()) {
       outputLogStream.print("\nAccount Feed Utility Output:\n"
                             + "============================\n");
-      allLogLines.forEach(logLine -> logLine.outputLogLine(outputLogStream));
+      logLines.forEach(logLine -> logLine.outputLogLine(outputLogStream));
     }
+    outputLogStream.flush();
   }
 }
@@ -17,6 +17,7 @@ public enum PropKey {
   GROUPS_FILENAME("groups-filename", "Groups"),
   GROUP_ROLES_FILENAME("group-roles-filename", "GroupRoles"),
   SOURCE_DIR("source-dir", "Source Directory"),
+  SOURCE_ZIP("source-zip", "Source Zip Archive"),
   DEST_DIR("dest-dir", "Destination Directory"),
   STATE_FILENAME("state-filename", "State File"),
   OUTPUT_LOG("output-log", "Output Log"),
@@ -28,7 +29,21 @@ public enum PropKey {
   EMAIL_SUBJECT("email-subject", null),
   USERNAME_CHANGES("allow-username-changes", null),
   ACCOUNT_EXPIRE_DELAY("account-expiry-days", null),
-  RELATIONSHIP_EXPIRE_DELAY("relationship-expiry-days", null);
+  RELATIONSHIP_EXPIRE_DELAY("relationship-expiry-days", null),
+  STREAMING("streaming", null),
+  THREADS("threads", null),
+  INPUT_BACKEND("input-backend", null),
+  NO_PARSE_CACHE("no-parse-cache", null),
+  PARSE_CACHE_DIR("parse-cache-dir", null),
+  READ_AHEAD("read-ahead", null),
+  READ_AHEAD_DEPTH("read-ahead-depth", null),
+  SAMPLE_ROWS("sample-rows", null),
+  SAMPLE_METHOD("sample-method", null),
+  ROW_STORAGE("row-storage", null),
+  MAX_HEAP_FRACTION("max-heap-fraction", null),
+  LOG_SAMPLES("log-samples", null),
+  STREAM_LOG("stream-log", null),
+  UPLOAD_COMPRESSED("upload-compressed", null);
 
   @Nonnull
   private final String argName;
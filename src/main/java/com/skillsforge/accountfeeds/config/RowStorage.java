@@ -0,0 +1,13 @@
+package com.skillsforge.accountfeeds.config;
+
+/**
+ * Where the parsed rows of each feed file are held until the input objects have been built from
+ * them: as Strings on the heap, or as UTF-8 bytes in direct buffers outside it.
+ *
+ * @author agent
+ * @date 17-Oct-2026
+ */
+public enum RowStorage {
+  HEAP,
+  OFF_HEAP
+}
@@ -0,0 +1,13 @@
+package com.skillsforge.accountfeeds.config;
+
+/**
+ * How the rows checked in SAMPLE mode are chosen: from anywhere in the file, or one from each of
+ * a number of equal slices of the file, so that every part of it is represented.
+ *
+ * @author agent
+ * @date 17-Oct-2026
+ */
+public enum SampleMethod {
+  RANDOM,
+  STRATIFIED
+}
@@ -0,0 +1,108 @@
+package com.skillsforge.accountfeeds.input;
+
+import org.jetbrains.annotations.Contract;
+
+import java.nio.ByteBuffer;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Finds the next byte that a CSV lexer has to act on, eight bytes at a time.
+ * <p>
+ * Each word read from the buffer is XORed with the target byte repeated eight times, which turns
+ * any matching byte into zero, and zero bytes are then found with the usual borrow trick.  That
+ * trick can flag a byte above a real zero by mistake, but never one below it, so on a
+ * little-endian word the lowest flagged byte is always the first real match.  The last few bytes
+ * of the buffer, which do not fill a word, are checked one at a time.
+ *
+ * @author agent
+ * @date 17-Oct-2026
+ */
+final class ByteScanner {
+  private static final long ONES = 0x0101010101010101L;
+  private static final long HIGH_BITS = 0x8080808080808080L;
+
+  private static final long COMMAS = ONES * ',';
+  private static final long QUOTES = ONES * '\"';
+  private static final long NEWLINES = ONES * '\n';
+  private static final long RETURNS = ONES * '\r';
+  private static final long HASHES = ONES * '#';
+
+  private ByteScanner() {
+  }
+
+  /**
+   * @param input A buffer whose byte order is little-endian.
+   * @return The index of the first ',', '"', '\n', '\r' or '#' in [from, limit), or limit.
+   */
+  @Contract(pure = true)
+  static int endOfUnquotedRun(
+      @Nonnull final ByteBuffer input,
+      final int from,
+      final int limit) {
+
+    int scan = from;
+    while ((limit - scan) >= Long.BYTES) {
+      final long word = input.getLong(scan);
+      final long found = zeroBytes(word ^ COMMAS) | zeroBytes(word ^ QUOTES)
+                         | zeroBytes(word ^ NEWLINES) | zeroBytes(word ^ RETURNS)
+                         | zeroBytes(word ^ HASHES);
+      if (found != 0) {
+        return scan + firstFlagged(found);
+      }
+      scan += Long.BYTES;
+    }
+    while (scan < limit) {
+      final byte next = input.get(scan);
+      if ((next == ',') || (next == '\"') || (next == '\n') || (next == '\r') || (next == '#')) {
+        break;
+      }
+      scan++;
+    }
+    return scan;
+  }
+
+  /**
+   * @param input A buffer whose byte order is little-endian.
+   * @return The index of the first '"', '\n', '\r' or '#' in [from, limit), or limit.
+   */
+  @Contract(pure = true)
+  static int endOfQuotedRun(
+      @Nonnull final ByteBuffer input,
+      final int from,
+      final int limit) {
+
+    int scan = from;
+    while ((limit - scan) >= Long.BYTES) {
+      final long word = input.getLong(scan);
+      final long found = zeroBytes(word ^ QUOTES) | zeroBytes(word ^ NEWLINES)
+                         | zeroBytes(word ^ RETURNS) | zeroBytes(word ^ HASHES);
+      if (found != 0) {
+        return scan + firstFlagged(found);
+      }
+      scan += Long.BYTES;
+    }
+    while (scan < limit) {
+      final byte next = input.get(scan);
+      if ((next == '\"') || (next == '\n') || (next == '\r') || (next == '#')) {
+        break;
+      }
+      scan++;
+    }
+    return scan;
+  }
+
+  /**
+   * @return A word with the high bit set in (at least) the lowest zero byte of the given word, and
+   * clear in every byte below it.
+   */
+  @Contract(pure = true)
+  private static long zeroBytes(final long word) {
+    return (word - ONES) & ~word & HIGH_BITS;
+  }
+
+  @Contract(pure = true)
+  private static int firstFlagged(final long found) {
+    return Long.numberOfTrailingZeros(found) >>> 3;
+  }
+}
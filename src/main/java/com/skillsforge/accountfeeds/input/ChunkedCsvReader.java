@@ -0,0 +1,409 @@
+package com.skillsforge.accountfeeds.input;
+
+import com.skillsforge.accountfeeds.config.ProgramState;
+
+import org.jetbrains.annotations.Contract;
+
+import java.io.CharArrayReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Reads a large UTF-8 CSV file by lexing byte ranges of it concurrently, producing exactly the same
+ * rows, line numbers and log output as a single {@link CsvReader} reading the whole file.
+ * <p>
+ * The file is split at line starts picked by quote parity: a line holding an even number of
+ * quotation marks is unlikely to fall inside a multi-line quoted field.  That is only a guess, so
+ * each chunk is checked after it has been lexed: its successor's result is only used if the chunk
+ * ended on a newline that finished a row.  Otherwise the two chunks are lexed again as one, and if
+ * that still does not end on a row boundary the rest of the file is read sequentially.
+ * <p>
+ * Chunks are lexed with their parse errors deferred, and both rows and errors are handed on in
+ * file order, renumbered from the lines counted in the chunks before them.
+ *
+ * @author agent
+ * @date 17-Oct-2026
+ */
+public class ChunkedCsvReader {
+  private static final long MIN_CHUNK_SIZE = 4L * 1024 * 1024;
+  private static final long MAX_CHUNK_SIZE = 64L * 1024 * 1024;
+  private static final int CHUNKS_PER_THREAD = 4;
+  private static final int BOUNDARY_SCAN_SIZE = 64 * 1024;
+  private static final int WINDOW_SIZE = 64 * 1024;
+
+  @Nonnull
+  private final File file;
+  @Nonnull
+  private final ProgramState state;
+  @Nonnull
+  private final ForkJoinPool pool;
+  private final long minChunkSize;
+
+  public ChunkedCsvReader(
+      @Nonnull final File file,
+      @Nonnull final ProgramState state,
+      @Nonnull final ForkJoinPool pool) {
+
+    this(file, state, pool, MIN_CHUNK_SIZE);
+  }
+
+  ChunkedCsvReader(
+      @Nonnull final File file,
+      @Nonnull final ProgramState state,
+      @Nonnull final ForkJoinPool pool,
+      final long minChunkSize) {
+
+    this.file = file;
+    this.state = state;
+    this.pool = pool;
+    this.minChunkSize = Long.max(1, minChunkSize);
+  }
+
+  /**
+   * @return Whether a file is large enough that it would be split into more than one chunk.
+   */
+  @Contract(pure = true)
+  public static boolean isWorthSplitting(@Nonnull final File file) {
+    return file.length() >= (MIN_CHUNK_SIZE * 2);
+  }
+
+  /**
+   * Hands each row of the file to the visitor, in order, as {@link CsvReader#readFile(RowVisitor)}
+   * would.
+   */
+  public void readFile(@Nonnull final RowVisitor visitor) throws IOException {
+    try (final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      final long[] bounds = findChunkBounds(channel);
+      if (bounds.length <= 2) {
+        readSequentially(channel, 0, 0, visitor);
+        return;
+      }
+      readChunks(channel, bounds, visitor);
+    }
+  }
+
+  @SuppressWarnings("OverlyLongMethod")
+  private void readChunks(
+      @Nonnull final FileChannel channel,
+      @Nonnull final long[] bounds,
+      @Nonnull final RowVisitor visitor) throws IOException {
+
+    final int chunkCount = bounds.length - 1;
+    final int maxInFlight = pool.getParallelism() * 2;
+    final Deque<ForkJoinTask<LexedChunk>> inFlight = new ArrayDeque<>();
+    int submitted = 0;
+    try {
+      int chunk = 0;
+      int lineOffset = 0;
+      while (chunk < chunkCount) {
+        while ((submitted < chunkCount) && (inFlight.size() < maxInFlight)) {
+          final long start = bounds[submitted];
+          final long end = bounds[submitted + 1];
+          final boolean first = submitted == 0;
+          inFlight.addLast(pool.submit(() -> lexChunk(channel, start, end, first)));
+          submitted++;
+        }
+
+        LexedChunk lexed = await(inFlight.removeFirst());
+        int nextChunk = chunk + 1;
+        if (!lexed.endedOnRowBoundary && (nextChunk < chunkCount)) {
+          // The next chunk was started in the wrong place: lex the pair again as one.
+          inFlight.removeFirst().cancel(false);
+          nextChunk++;
+          lexed = lexChunk(channel, bounds[chunk], bounds[nextChunk], chunk == 0);
+          if (!lexed.endedOnRowBoundary && (nextChunk < chunkCount)) {
+            cancelAll(inFlight);
+            readSequentially(channel, bounds[chunk], lineOffset, visitor);
+            return;
+          }
+        }
+
+        lexed.replay(state, lineOffset, visitor);
+        if (!lexed.readToEnd) {
+          cancelAll(inFlight);
+          return;
+        }
+        lineOffset += lexed.linesRead;
+        chunk = nextChunk;
+      }
+    } finally {
+      cancelAll(inFlight);
+    }
+  }
+
+  /**
+   * Reads the file from the given offset to its end with a single reader, logging as it goes.
+   */
+  private void readSequentially(
+      @Nonnull final FileChannel channel,
+      final long start,
+      final int lineOffset,
+      @Nonnull final RowVisitor visitor) throws IOException {
+
+    channel.position(start);
+    // Closing the reader would close the channel, which belongs to our caller.
+    //noinspection IOResourceOpenedButNotSafelyClosed
+    final CsvReader reader = new CsvReader(
+        new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8),
+        state, WINDOW_SIZE, lineOffset + 1);
+    reader.countByteOffsets(start);
+    reader.readRows(visitor, start == 0);
+  }
+
+  @Nonnull
+  private static LexedChunk lexChunk(
+      @Nonnull final FileChannel channel,
+      final long start,
+      final long end,
+      final boolean first) throws IOException {
+
+    final ByteBuffer bytes = ByteBuffer.allocate(Math.toIntExact(end - start));
+    while (bytes.hasRemaining()) {
+      if (channel.read(bytes, start + bytes.position()) < 0) {
+        break;
+      }
+    }
+    bytes.flip();
+
+    // Chunks start just after a newline, so no multi-byte sequence is ever split between two.
+    final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    final CharBuffer chars = decoder.decode(bytes);
+
+    final LexedChunk lexed = new LexedChunk();
+    try (final CsvReader reader = new CsvReader(
+        new CharArrayReader(chars.array(), chars.arrayOffset() + chars.position(),
+            chars.remaining()),
+        new ProgramState(), WINDOW_SIZE)) {
+
+      reader.deferErrorsTo(lexed.errors);
+      reader.countByteOffsets(start);
+      lexed.readToEnd = reader.readRows(lexed::addRow, first);
+      lexed.endedOnRowBoundary = reader.endedOnRowBoundary();
+      lexed.linesRead = reader.getLineNumber() - 1;
+    }
+    return lexed;
+  }
+
+  /**
+   * Picks the offsets at which chunks start, ending with the length of the file.
+   */
+  @Nonnull
+  private long[] findChunkBounds(@Nonnull final FileChannel channel) throws IOException {
+    final long size = channel.size();
+    final long chunkSize = Long.min(MAX_CHUNK_SIZE, Long.max(minChunkSize,
+        size / ((long) pool.getParallelism() * CHUNKS_PER_THREAD)));
+
+    final List<Long> bounds = new ArrayList<>();
+    bounds.add(0L);
+    for (long split = chunkSize; split < size; split += chunkSize) {
+      final long previous = bounds.get(bounds.size() - 1);
+      final long start = findLikelyRowStart(channel, Long.max(split, previous + 1), size);
+      if (start < 0) {
+        break;
+      }
+      if (start < (split + chunkSize)) {
+        bounds.add(start);
+      }
+    }
+    bounds.add(size);
+
+    final long[] result = new long[bounds.size()];
+    Arrays.setAll(result, index -> bounds.get(index));
+    return result;
+  }
+
+  /**
+   * Finds the start of the first whole line after {@code from} that has an even number of
+   * quotation marks in it.
+   *
+   * @return The offset of the line, or -1 if there is no such line.
+   */
+  private static long findLikelyRowStart(
+      @Nonnull final FileChannel channel,
+      final long from,
+      final long size) throws IOException {
+
+    final ByteBuffer buffer = ByteBuffer.allocate(BOUNDARY_SCAN_SIZE);
+    long position = from;
+    long lineStart = -1;
+    int quotes = 0;
+    while (position < size) {
+      buffer.clear();
+      final int read = channel.read(buffer, position);
+      if (read <= 0) {
+        break;
+      }
+      for (int index = 0; index < read; index++) {
+        final byte next = buffer.get(index);
+        if (next == '\"') {
+          quotes++;
+        } else if (next == '\n') {
+          if ((lineStart >= 0) && ((quotes & 1) == 0)) {
+            return lineStart;
+          }
+          lineStart = position + index + 1;
+          quotes = 0;
+        }
+      }
+      position += read;
+    }
+    return -1;
+  }
+
+  @Nonnull
+  private static LexedChunk await(@Nonnull final ForkJoinTask<LexedChunk> task)
+      throws IOException {
+
+    try {
+      return task.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException(e.getLocalizedMessage());
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException(e.getCause());
+    }
+  }
+
+  private static void cancelAll(@Nonnull final Deque<ForkJoinTask<LexedChunk>> tasks) {
+    tasks.forEach(task -> task.cancel(false));
+    tasks.clear();
+  }
+
+  /**
+   * The rows and deferred errors of one chunk, numbered from the chunk's own first line.
+   */
+  private static final class LexedChunk {
+    @Nonnull
+    private final List<List<String>> rows = new ArrayList<>();
+    @Nonnull
+    private int[] rowLineNums = new int[64];
+    @Nonnull
+    private long[] rowByteOffsets = new long[64];
+    @Nonnull
+    private final List<CsvReader.DeferredError> errors = new ArrayList<>();
+    private boolean readToEnd = false;
+    private boolean endedOnRowBoundary = false;
+    private int linesRead = 0;
+
+    private void addRow(@Nonnull final CsvRow row) {
+      if (rows.size() == rowLineNums.length) {
+        rowLineNums = Arrays.copyOf(rowLineNums, rowLineNums.length * 2);
+        rowByteOffsets = Arrays.copyOf(rowByteOffsets, rowByteOffsets.length * 2);
+      }
+      rowLineNums[rows.size()] = row.getLineNumber();
+      rowByteOffsets[rows.size()] = row.getByteOffset();
+      rows.add(row.toList());
+    }
+
+    private void replay(
+        @Nonnull final ProgramState state,
+        final int lineOffset,
+        @Nonnull final RowVisitor visitor) {
+
+      int error = 0;
+      for (int rowNum = 0; rowNum < rows.size(); rowNum++) {
+        while ((error < errors.size()) && (errors.get(error).getRowsBefore() == rowNum)) {
+          errors.get(error++).log(state, lineOffset);
+        }
+        visitor.visitRow(new ListRow(rows.get(rowNum), rowLineNums[rowNum] + lineOffset,
+            rowByteOffsets[rowNum]));
+      }
+      while (error < errors.size()) {
+        errors.get(error++).log(state, lineOffset);
+      }
+    }
+  }
+
+  /**
+   * A row whose fields have already been copied out of the reader that lexed it.
+   */
+  private static final class ListRow implements CsvRow {
+    @Nonnull
+    private final List<String> fields;
+    private final int lineNum;
+    private final long byteOffset;
+
+    private ListRow(
+        @Nonnull final List<String> fields,
+        final int lineNum,
+        final long byteOffset) {
+
+      this.fields = fields;
+      this.lineNum = lineNum;
+      this.byteOffset = byteOffset;
+    }
+
+    @Override
+    @Contract(pure = true)
+    public int getLineNumber() {
+      return lineNum;
+    }
+
+    @Override
+    @Contract(pure = true)
+    public long getByteOffset() {
+      return byteOffset;
+    }
+
+    @Override
+    @Contract(pure = true)
+    public int size() {
+      return fields.size();
+    }
+
+    @Override
+    @Contract(pure = true)
+    public boolean isEmpty() {
+      return fields.isEmpty();
+    }
+
+    @Override
+    @Nonnull
+    public CharSequence getField(final int index) {
+      return fields.get(index);
+    }
+
+    @Override
+    @Nonnull
+    public String getFieldAsString(final int index) {
+      return fields.get(index);
+    }
+
+    @Override
+    @Nonnull
+    public List<String> toList() {
+      return fields;
+    }
+
+    @Override
+    @Nonnull
+    public String toString() {
+      return fields.toString();
+    }
+  }
+}
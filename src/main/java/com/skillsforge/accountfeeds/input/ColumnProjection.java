@@ -0,0 +1,62 @@
+package com.skillsforge.accountfeeds.input;
+
+import org.jetbrains.annotations.Contract;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Names the columns of a feed file that are actually needed.  Which positions those are is only
+ * known once the header row has been read, so a projection is resolved against each file's
+ * header.  Columns are matched by name, ignoring case (the layout check reports names that are
+ * in the wrong case).
+ *
+ * @author agent
+ * @date 17-Oct-2026
+ */
+public final class ColumnProjection {
+  @Nonnull
+  public static final ColumnProjection ALL = new ColumnProjection(null);
+
+  @Nullable
+  private final List<String> columnNames;
+
+  private ColumnProjection(@Nullable final List<String> columnNames) {
+    this.columnNames = columnNames;
+  }
+
+  @Nonnull
+  @Contract(pure = true)
+  public static ColumnProjection of(@Nonnull final String... columnNames) {
+    return new ColumnProjection(Collections.unmodifiableList(Arrays.asList(columnNames)));
+  }
+
+  /**
+   * @return which of the header's columns to keep, or null if every column (including any beyond
+   * the end of the header) should be kept.
+   */
+  @Nullable
+  @Contract(pure = true)
+  public boolean[] resolve(@Nonnull final List<String> header) {
+    if (columnNames == null) {
+      return null;
+    }
+    final boolean[] keep = new boolean[header.size()];
+    for (int col = 0; col < keep.length; col++) {
+      final String name = header.get(col);
+      keep[col] = columnNames.stream().anyMatch(name::equalsIgnoreCase);
+    }
+    return keep;
+  }
+
+  @Override
+  @Nonnull
+  @Contract(pure = true)
+  public String toString() {
+    return (columnNames == null) ? "[all columns]" : columnNames.toString();
+  }
+}
@@ -3,15 +3,14 @@ package com.skillsforge.accountfeeds.input;
 import com.skillsforge.accountfeeds.config.ProgramState;
 import com.skillsforge.accountfeeds.exceptions.CsvCheckedException;
 
-import org.apache.commons.text.StringEscapeUtils;
 import org.jetbrains.annotations.Contract;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.Reader;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.regex.Pattern;
 
@@ -22,177 +21,817 @@ import static com.skillsforge.accountfeeds.config.LogLevel.ERROR;
 import static com.skillsforge.accountfeeds.config.LogLevel.WARN;
 
 /**
+ * Splits a CSV stream into rows of fields.
+ * <p>
+ * Characters are lexed out of a large window that is filled in bulk from the underlying reader,
+ * and field boundaries are found by index.  Characters which the format discards (carriage
+ * returns, comments, and newlines within quoted fields) are squeezed out by compacting the
+ * current row in place, so each field is always contiguous in the window and its String is
+ * built with a single copy.
+ * <p>
+ * {@link #readFile(RowVisitor)} hands each row to a visitor as views into the window, without
+ * creating any per-row objects; {@link #readFile()} and {@link #parseLine()} copy every field out
+ * into Strings.
+ * <p>
+ * As the window is filled directly from the underlying reader, the {@code read} and
+ * {@code readLine} methods inherited from {@link BufferedReader} must not be mixed with
+ * {@link #parseLine()}.
+ * <p>
+ * When lexing one chunk of a larger file (see {@link ChunkedCsvReader}), parse errors can be
+ * collected rather than logged, so that they may be replayed once the chunk's starting line number
+ * is known.
+ * <p>
+ * The reader can also count how many bytes the characters it consumes took up as UTF-8, so that
+ * each row can report the byte offset it started at in the file (see
+ * {@link #countByteOffsets(long)}).
+ *
  * @author alexw
  * @date 25-Nov-2016
  */
+@SuppressWarnings("ClassWithTooManyFields")
 public class CsvReader extends BufferedReader {
   @Nonnull
   private static final Pattern QUOTE_MATCHER = Pattern.compile("\\A\"(.*)\"\\z");
+
+  private static final int DEFAULT_WINDOW_SIZE = 64 * 1024;
+  private static final int INITIAL_FIELD_CAPACITY = 32;
+  private static final int EOF = -1;
+
+  private static final int END_OF_FILE = 0;
+  private static final int BLANK_ROW = 1;
+  private static final int ROW = 2;
+
   @Nonnull
   private final ProgramState state;
 
-  private int lineNum = 1;
+  private int lineNum;
+  private int rowLineNum;
+  // -1 unless bytes are being counted.  The count is exact as long as the input is well-formed
+  // UTF-8: a malformed sequence is counted as however long its replacement character would be.
+  private long byteOffset = -1;
+  private long rowByteOffset = -1;
+
+  @Nullable
+  private List<DeferredError> deferredErrors = null;
+  @Nullable
+  private ParseError lastError = null;
+  private int lastErrorField = 0;
+
+  // Whether the most recent row was ended by a newline, and whether anything was discarded between
+  // it and the end of input: together these tell whether the input ended on a record boundary.
+  private boolean lastRowEndedOnNewline = false;
+  private boolean discardedAfterLastRow = false;
+
+  // [0, limit) of the window holds characters read from the underlying reader, of which pos is
+  // the next to be lexed.
+  @Nonnull
+  private char[] window;
+  private int pos = 0;
+  private int limit = 0;
+  private boolean endOfInput = false;
+
+  // The row being lexed is compacted into [rowStart, write).  Field offsets are relative to
+  // rowStart, so that they survive the row being shuffled down when the window is refilled.
+  private int rowStart = 0;
+  private int write = 0;
+  private int fieldCount = 0;
+  @Nonnull
+  private int[] fieldStarts = new int[INITIAL_FIELD_CAPACITY];
+  @Nonnull
+  private int[] fieldEnds = new int[INITIAL_FIELD_CAPACITY];
+  @Nonnull
+  private boolean[] fieldQuoted = new boolean[INITIAL_FIELD_CAPACITY];
+  @Nonnull
+  private FieldView[] fieldViews = new FieldView[INITIAL_FIELD_CAPACITY];
+  @Nonnull
+  private final LexedRow row = new LexedRow();
 
   public CsvReader(@Nonnull final Reader reader, @Nonnull final ProgramState state) {
+    this(reader, state, DEFAULT_WINDOW_SIZE);
+  }
+
+  CsvReader(
+      @Nonnull final Reader reader,
+      @Nonnull final ProgramState state,
+      final int windowSize) {
+
+    this(reader, state, windowSize, 1);
+  }
+
+  CsvReader(
+      @Nonnull final Reader reader,
+      @Nonnull final ProgramState state,
+      final int windowSize,
+      final int firstLineNum) {
+
     super(reader);
     this.state = state;
+    this.window = new char[Integer.max(1, windowSize)];
+    this.lineNum = firstLineNum;
+    this.rowLineNum = firstLineNum;
   }
 
   @Nonnull
   @Contract(pure = true)
   public List<List<String>> readFile() throws IOException {
-    final List<List<String>> fullFile = new LinkedList<>();
+    final List<List<String>> fullFile = new ArrayList<>();
+    readFile(csvRow -> fullFile.add(csvRow.toList()));
+    return Collections.unmodifiableList(fullFile);
+  }
 
-    List<String> thisLine = null;
+  public void readFile(@Nonnull final RowVisitor visitor) throws IOException {
+    readRows(visitor, true);
+  }
+
+  /**
+   * Lexes every remaining row, handing each to the visitor.
+   *
+   * @param firstRowErrorEndsInput Whether an error in the very first row should stop the read; a
+   *                               file whose first row cannot be parsed has always been treated as
+   *                               empty, but a chunk taken from the middle of a file must not be.
+   * @return false if reading was stopped by an error in the first row.
+   */
+  boolean readRows(
+      @Nonnull final RowVisitor visitor,
+      final boolean firstRowErrorEndsInput) throws IOException {
+
+    boolean anyRowsRead = false;
+    int rowsVisited = 0;
     do {
+      final int result;
       try {
-        thisLine = parseLine();
+        result = lexRow();
       } catch (CsvCheckedException e) {
-        state.log("CR.rf.1", WARN, "Skipping line %d due to CSV parsing exception: %s", lineNum,
-            e.getLocalizedMessage());
+        if (deferredErrors == null) {
+          state.log("CR.rf.1", WARN, "Skipping line %d due to CSV parsing exception: %s", lineNum,
+              e.getLocalizedMessage());
+        } else if (lastError != null) {
+          deferredErrors.add(new DeferredError(lastError, lineNum, lastErrorField, rowsVisited));
+        }
+        if (!anyRowsRead && firstRowErrorEndsInput) {
+          return false;
+        }
         continue;
       }
-      if (thisLine != null) {
-        fullFile.add(thisLine);
+      if (result == END_OF_FILE) {
+        return true;
       }
-    } while (thisLine != null);
+      anyRowsRead = true;
+      visitor.visitRow(row);
+      rowsVisited++;
+    } while (true);
+  }
 
-    return Collections.unmodifiableList(new ArrayList<>(fullFile));
+  /**
+   * Collects parse errors in the given list instead of logging them.  Errors are only collected
+   * by {@link #readRows(RowVisitor, boolean)}.
+   */
+  void deferErrorsTo(@Nonnull final List<DeferredError> errors) {
+    this.deferredErrors = errors;
+  }
+
+  /**
+   * Starts counting the UTF-8 length of every character consumed, so that each row reports the
+   * byte offset that it starts at.  Must be called before anything is read.
+   *
+   * @param firstByteOffset The offset in the file of the first character the reader will read.
+   */
+  void countByteOffsets(final long firstByteOffset) {
+    this.byteOffset = firstByteOffset;
+  }
+
+  /**
+   * @return The line number that the next row would start on.
+   */
+  @Contract(pure = true)
+  int getLineNumber() {
+    return lineNum;
+  }
+
+  /**
+   * After the input has been read to its end, reports whether it ended exactly where a row was
+   * ended by a newline.  Only then would a reader carrying on into further input start the next
+   * row in the same state as a fresh reader would.
+   */
+  @Contract(pure = true)
+  boolean endedOnRowBoundary() {
+    return lastRowEndedOnNewline && !discardedAfterLastRow;
+  }
+
+  @Nullable
+  public List<String> parseLine() throws IOException, CsvCheckedException {
+    return (lexRow() == END_OF_FILE) ? null : row.toList();
+  }
+
+  @Nonnull
+  private String fieldValue(final int fieldNum) {
+    final int start = fieldStarts[fieldNum];
+    final int length = fieldEnds[fieldNum] - start;
+    if (length == 0) {
+      return "";
+    }
+
+    // Unquoted fields can hold no quotation marks, so they are exactly as they were lexed.
+    if (!fieldQuoted[fieldNum]) {
+      return new String(window, rowStart + start, length);
+    }
+    return quotedFieldValue(new String(window, rowStart + start + 1, length - 2));
+  }
+
+  /**
+   * Works out the value of a quoted field in a single pass, given what was lexed between its
+   * enclosing quotation marks (in which every quotation mark is one of an escaped pair).
+   * <p>
+   * This gives exactly what {@code stripEnclosingQuotes(StringEscapeUtils.unescapeCsv(...))} of
+   * the whole field used to, quirks and all.  unescapeCsv only removes the enclosing quotes (and
+   * collapses pairs) if the content holds a comma, quotation mark or newline; otherwise that is
+   * left to stripEnclosingQuotes, whose pattern doesn't match across line terminators such as
+   * U+2028.  And after pairs have been collapsed, stripEnclosingQuotes removes a second set of
+   * enclosing quotes, so a field of three quotation marks either side of 'a' is read as 'a'.
+   */
+  @Nonnull
+  static String quotedFieldValue(@Nonnull final String content) {
+    final int length = content.length();
+    int firstSpecial = -1;
+    boolean lineTerminator = false;
+    for (int index = 0; index < length; index++) {
+      final char next = content.charAt(index);
+      final boolean newline = (next == '\n') || (next == '\r');
+      if ((firstSpecial < 0) && (newline || (next == ',') || (next == '\"'))) {
+        firstSpecial = index;
+      }
+      if (newline || (next == '\u0085') || (next == '\u2028') || (next == '\u2029')) {
+        lineTerminator = true;
+      }
+    }
+
+    if (firstSpecial < 0) {
+      if (lineTerminator) {
+        return '\"' + content + '\"';
+      }
+      return (length == 0) ? "" : content;
+    }
+
+    final char[] value = new char[length];
+    content.getChars(0, firstSpecial, value, 0);
+    int write = firstSpecial;
+    for (int index = firstSpecial; index < length; index++) {
+      final char next = content.charAt(index);
+      value[write++] = next;
+      if ((next == '\"') && ((index + 1) < length) && (content.charAt(index + 1) == '\"')) {
+        index++;
+      }
+    }
+
+    if (!lineTerminator && (write >= 2) && (value[0] == '\"') && (value[write - 1] == '\"')) {
+      return (write == 2) ? "" : new String(value, 1, write - 2);
+    }
+    return new String(value, 0, write);
   }
 
   @SuppressWarnings({
       "OverlyComplexMethod",
       "OverlyLongMethod",
-      "MethodWithMultipleLoops",
       "NumericCastThatLosesPrecision"
   })
-  @Nullable
-  public List<String> parseLine() throws IOException, CsvCheckedException {
+  private int lexRow() throws IOException, CsvCheckedException {
+
+    rowLineNum = lineNum;
+    rowByteOffset = byteOffset;
+    rowStart = pos;
+    write = pos;
+    fieldCount = 0;
+    discardedAfterLastRow = false;
 
-    final List<String> result = new LinkedList<>();
     CsvStates stateMachine = CsvStates.START_OF_FIELD;
 
     int fieldNum = 1;
+    int fieldStart = 0;
     boolean startOfLine = true;
-    final StringBuilder thisField = new StringBuilder();
     do {
-      int nextRead = this.read();
-      char nextChar = (char) nextRead;
-      if (nextChar == '\r') {
-        continue;
-      }
-      while (nextChar == '#') {
-        this.readLine();
-        nextRead = this.read();
-        nextChar = (char) nextRead;
-      }
-      if ((nextRead == -1) && startOfLine) {
-        return null;
+      final int next = nextLexChar();
+      if ((next == EOF) && startOfLine) {
+        return END_OF_FILE;
       }
+      lastRowEndedOnNewline = next == '\n';
 
       //noinspection SwitchStatementDensity
       switch (stateMachine) {
         case START_OF_FIELD:
-          if ((nextRead == -1) || (nextChar == '\n')) {
+          if ((next == EOF) || (next == '\n')) {
             lineNum++;
-            result.add(thisField.toString());
-            return startOfLine ? Collections.emptyList() : Collections.unmodifiableList(result);
+            if (startOfLine) {
+              return BLANK_ROW;
+            }
+            addField(write - rowStart, false);
+            return ROW;
           }
           startOfLine = false;
 
-          if (nextChar == ',') {
-            result.add("");
-          } else if (nextChar == '\"') {
-            thisField.append('\"');
+          fieldStart = write - rowStart;
+          if (next == ',') {
+            addField(fieldStart, false);
+          } else if (next == '\"') {
+            window[write++] = '\"';
             stateMachine = CsvStates.LEXING_QUOTED_FIELD;
+            copyQuotedRun();
           } else {
-            thisField.append(nextChar);
+            window[write++] = (char) next;
             stateMachine = CsvStates.LEXING_UNQUOTED_FIELD;
+            copyUnquotedRun();
           }
           break;
 
         case LEXING_UNQUOTED_FIELD:
-          if ((nextRead == -1) || (nextChar == '\n')) {
+          if ((next == EOF) || (next == '\n')) {
             lineNum++;
-            result.add(StringEscapeUtils.unescapeCsv(thisField.toString()));
-            return Collections.unmodifiableList(result);
+            addField(fieldStart, false);
+            return ROW;
           }
-          if (nextChar == ',') {
+          if (next == ',') {
             stateMachine = CsvStates.START_OF_FIELD;
-            result.add(StringEscapeUtils.unescapeCsv(thisField.toString()));
-            thisField.setLength(0);
+            addField(fieldStart, false);
             fieldNum++;
-          } else if (nextChar == '\"') {
-            state.log("CR.pl.1", ERROR,
-                "CSV (Line %d, Field %d): Unescaped quotation mark or leading characters "
-                + "before quoted field.\n", lineNum, fieldNum);
-            throw new CsvCheckedException("[ERROR] CSV (Line " + lineNum + ", Field " + fieldNum
-                                          + "): Unescaped quotation mark or leading character "
-                                          + "before quoted field.");
+          } else if (next == '\"') {
+            throw parseError(ParseError.LEADING_CHARACTERS, fieldNum);
           } else {
-            thisField.append(nextChar);
+            window[write++] = (char) next;
+            copyUnquotedRun();
           }
           break;
 
         case LEXING_QUOTED_FIELD:
-          if (nextRead == -1) {
-            state.log("CR.pl.2", ERROR, "CSV (Line %d, Field %d): Unterminated quoted field.",
-                lineNum, fieldNum);
-            throw new CsvCheckedException("[ERROR] CSV (Line " + lineNum + ", Field " + fieldNum
-                                          + "): Unterminated quoted field.");
+          if (next == EOF) {
+            throw parseError(ParseError.UNTERMINATED_FIELD, fieldNum);
           }
-          if (nextChar == '\n') {
+          if (next == '\n') {
+            // Newlines within quoted fields are counted, but not kept.
             lineNum++;
-/*
-            state.log(null, INFO,
-                "CSV (Line %d, Field %d): Quoted field contains newline - was this "
-                + "intentional?",
-                lineNum, fieldNum);
-*/
-          } else if (nextChar == '\"') {
-            thisField.append('\"');
+            copyQuotedRun();
+          } else if (next == '\"') {
+            window[write++] = '\"';
             stateMachine = CsvStates.ENDING_QUOTED_FIELD;
           } else {
-            thisField.append(nextChar);
+            window[write++] = (char) next;
+            copyQuotedRun();
           }
           break;
 
         case ENDING_QUOTED_FIELD:
-          if ((nextRead == -1) || (nextChar == '\n')) {
+          if ((next == EOF) || (next == '\n')) {
             lineNum++;
-            result.add(stripEnclosingQuotes(StringEscapeUtils.unescapeCsv(thisField.toString())));
-            return Collections.unmodifiableList(result);
+            addField(fieldStart, true);
+            return ROW;
           }
-          if (nextChar == ',') {
+          if (next == ',') {
             stateMachine = CsvStates.START_OF_FIELD;
-            result.add(stripEnclosingQuotes(StringEscapeUtils.unescapeCsv(thisField.toString())));
-            thisField.setLength(0);
+            addField(fieldStart, true);
             fieldNum++;
-          } else if (nextChar == '\"') {
-            thisField.append('\"');
+          } else if (next == '\"') {
+            window[write++] = '\"';
             stateMachine = CsvStates.LEXING_QUOTED_FIELD;
+            copyQuotedRun();
           } else {
-            state.log("CR.pl.3", ERROR,
-                "CSV (Line %d, Field %d): Unescaped quotation mark or trailing character "
-                + "after quoted field.",
-                lineNum, fieldNum);
-            throw new CsvCheckedException("[ERROR] CSV (Line " + lineNum + ", Field " + fieldNum
-                                          + "): Unescaped quotation mark or trailing character "
-                                          + "after quoted field.");
+            throw parseError(ParseError.TRAILING_CHARACTERS, fieldNum);
           }
           break;
       }
     } while (true);
   }
 
+  @Nonnull
+  private CsvCheckedException parseError(
+      @Nonnull final ParseError error,
+      final int fieldNum) {
+
+    lastRowEndedOnNewline = false;
+    lastError = error;
+    lastErrorField = fieldNum;
+    if (deferredErrors == null) {
+      error.log(state, lineNum, fieldNum);
+    }
+    return error.toException(lineNum, fieldNum);
+  }
+
+  /**
+   * Returns the next character that the state machine should see: carriage returns are dropped,
+   * and a '#' anywhere discards the remainder of its line.  The character after a comment is
+   * returned as-is, even if it is a carriage return.
+   */
+  private int nextLexChar() throws IOException {
+    int next;
+    do {
+      next = readChar();
+    } while (next == '\r');
+
+    while (next == '#') {
+      skipRestOfLine();
+      next = readChar();
+      discardedAfterLastRow = true;
+    }
+    return next;
+  }
+
+  private int readChar() throws IOException {
+    if ((pos == limit) && !fillWindow()) {
+      return EOF;
+    }
+    final char next = window[pos++];
+    if (byteOffset >= 0) {
+      byteOffset += utf8Length(next);
+    }
+    return next;
+  }
+
+  @Contract(pure = true)
+  private static int utf8Length(final char next) {
+    if (next < 0x80) {
+      return 1;
+    }
+    // Each half of a surrogate pair accounts for half of its four bytes.
+    return ((next < 0x800) || Character.isSurrogate(next)) ? 2 : 3;
+  }
+
+  /**
+   * Consumes the remainder of a line in the same way as {@link BufferedReader#readLine()}: the
+   * line ends at a '\n', a '\r', or a "\r\n" pair.
+   */
+  private void skipRestOfLine() throws IOException {
+    while ((pos < limit) || fillWindow()) {
+      final char[] buf = window;
+      final int end = limit;
+      while (pos < end) {
+        final char next = buf[pos++];
+        if (byteOffset >= 0) {
+          byteOffset += utf8Length(next);
+        }
+        if (next == '\n') {
+          return;
+        }
+        if (next == '\r') {
+          if (((pos < limit) || fillWindow()) && (window[pos] == '\n')) {
+            pos++;
+            if (byteOffset >= 0) {
+              byteOffset++;
+            }
+          }
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * Copies a run of characters which cannot end an unquoted field from the read position to the
+   * write position, stopping at the end of the current window.
+   */
+  private void copyUnquotedRun() {
+    final char[] buf = window;
+    final int end = limit;
+    int scan = pos;
+    while (scan < end) {
+      final char next = buf[scan];
+      if ((next <= ',')
+          && ((next == ',') || (next == '\"') || (next == '\n') || (next == '\r')
+              || (next == '#'))) {
+        break;
+      }
+      scan++;
+    }
+    copyRun(scan);
+  }
+
+  /**
+   * Copies a run of characters which need no special handling inside a quoted field from the
+   * read position to the write position, stopping at the end of the current window.
+   */
+  private void copyQuotedRun() {
+    final char[] buf = window;
+    final int end = limit;
+    int scan = pos;
+    while (scan < end) {
+      final char next = buf[scan];
+      if ((next <= '#') && ((next == '\"') || (next == '\n') || (next == '\r') || (next == '#'))) {
+        break;
+      }
+      scan++;
+    }
+    copyRun(scan);
+  }
+
+  private void copyRun(final int runEnd) {
+    final int length = runEnd - pos;
+    if (byteOffset >= 0) {
+      // The run is about to be moved over, so it has to be counted now.
+      for (int index = pos; index < runEnd; index++) {
+        byteOffset += utf8Length(window[index]);
+      }
+    }
+    if ((write != pos) && (length > 0)) {
+      System.arraycopy(window, pos, window, write, length);
+    }
+    write += length;
+    pos = runEnd;
+  }
+
+  private void addField(final int start, final boolean quoted) {
+    if (fieldCount == fieldStarts.length) {
+      final int newCapacity = fieldCount * 2;
+      fieldStarts = Arrays.copyOf(fieldStarts, newCapacity);
+      fieldEnds = Arrays.copyOf(fieldEnds, newCapacity);
+      fieldQuoted = Arrays.copyOf(fieldQuoted, newCapacity);
+      fieldViews = Arrays.copyOf(fieldViews, newCapacity);
+    }
+    fieldStarts[fieldCount] = start;
+    fieldEnds[fieldCount] = write - rowStart;
+    fieldQuoted[fieldCount] = quoted;
+    fieldCount++;
+  }
+
+  /**
+   * Called once every character in the window has been consumed.  The partially lexed row is
+   * moved to the front of the window (growing it if the row has filled most of it), and the
+   * remainder is filled from the underlying reader.
+   *
+   * @return false if the underlying reader has no more characters.
+   */
+  private boolean fillWindow() throws IOException {
+    if (endOfInput) {
+      return false;
+    }
+
+    final int kept = write - rowStart;
+    if ((kept > 0) && (rowStart > 0)) {
+      System.arraycopy(window, rowStart, window, 0, kept);
+    }
+    rowStart = 0;
+    write = kept;
+    pos = kept;
+    limit = kept;
+    if (kept > (window.length / 2)) {
+      window = Arrays.copyOf(window, Integer.max(window.length * 2, kept + 1));
+    }
+
+    final int read = super.read(window, limit, window.length - limit);
+    if (read < 0) {
+      endOfInput = true;
+      return false;
+    }
+    limit += read;
+    return true;
+  }
+
   public static String stripEnclosingQuotes(@Nonnull final CharSequence quotedString) {
     return QUOTE_MATCHER.matcher(quotedString).replaceAll("$1");
   }
 
+  private final class LexedRow implements CsvRow {
+
+    @Override
+    @Contract(pure = true)
+    public int getLineNumber() {
+      return rowLineNum;
+    }
+
+    @Override
+    @Contract(pure = true)
+    public long getByteOffset() {
+      return rowByteOffset;
+    }
+
+    @Override
+    @Contract(pure = true)
+    public int size() {
+      return fieldCount;
+    }
+
+    @Override
+    @Contract(pure = true)
+    public boolean isEmpty() {
+      return fieldCount == 0;
+    }
+
+    @Override
+    @Nonnull
+    public CharSequence getField(final int index) {
+      checkIndex(index);
+      if (fieldQuoted[index]) {
+        return fieldValue(index);
+      }
+      if (fieldViews[index] == null) {
+        fieldViews[index] = new FieldView(index);
+      }
+      return fieldViews[index];
+    }
+
+    @Override
+    @Nonnull
+    public String getFieldAsString(final int index) {
+      checkIndex(index);
+      return fieldValue(index);
+    }
+
+    @Override
+    @Nonnull
+    public List<String> toList() {
+      if (fieldCount == 0) {
+        return Collections.emptyList();
+      }
+      final List<String> fields = new ArrayList<>(fieldCount);
+      for (int fieldNum = 0; fieldNum < fieldCount; fieldNum++) {
+        fields.add(fieldValue(fieldNum));
+      }
+      return Collections.unmodifiableList(fields);
+    }
+
+    private void checkIndex(final int index) {
+      if ((index < 0) || (index >= fieldCount)) {
+        throw new IndexOutOfBoundsException(
+            "Field " + index + " requested from a row of " + fieldCount + " fields.");
+      }
+    }
+
+    @Override
+    @Nonnull
+    public String toString() {
+      return toList().toString();
+    }
+  }
+
+  /**
+   * A view of an unquoted field of the current row, read straight out of the window.
+   */
+  private final class FieldView implements CharSequence {
+    private final int index;
+
+    private FieldView(final int index) {
+      this.index = index;
+    }
+
+    @Override
+    public int length() {
+      return fieldEnds[index] - fieldStarts[index];
+    }
+
+    @Override
+    public char charAt(final int offset) {
+      if ((offset < 0) || (offset >= length())) {
+        throw new IndexOutOfBoundsException("Offset " + offset + " of " + length());
+      }
+      return window[rowStart + fieldStarts[index] + offset];
+    }
+
+    @Override
+    @Nonnull
+    public CharSequence subSequence(final int start, final int end) {
+      if ((start < 0) || (end > length()) || (start > end)) {
+        throw new IndexOutOfBoundsException("Range " + start + '-' + end + " of " + length());
+      }
+      return new String(window, rowStart + fieldStarts[index] + start, end - start);
+    }
+
+    @Override
+    @Nonnull
+    public String toString() {
+      return new String(window, rowStart + fieldStarts[index], length());
+    }
+  }
+
   private enum CsvStates {
     START_OF_FIELD,
     LEXING_UNQUOTED_FIELD,
     LEXING_QUOTED_FIELD,
     ENDING_QUOTED_FIELD
   }
+
+  /**
+   * The ways in which a row can fail to parse.  The logged message and the exception's message
+   * have always been worded slightly differently.
+   */
+  enum ParseError {
+    LEADING_CHARACTERS("CR.pl.1",
+        "Unescaped quotation mark or leading characters before quoted field.\n",
+        "Unescaped quotation mark or leading character before quoted field."),
+    UNTERMINATED_FIELD("CR.pl.2",
+        "Unterminated quoted field.",
+        "Unterminated quoted field."),
+    TRAILING_CHARACTERS("CR.pl.3",
+        "Unescaped quotation mark or trailing character after quoted field.",
+        "Unescaped quotation mark or trailing character after quoted field.");
+
+    @Nonnull
+    private final String code;
+    @Nonnull
+    private final String logMessage;
+    @Nonnull
+    private final String exceptionMessage;
+
+    ParseError(
+        @Nonnull final String code,
+        @Nonnull final String logMessage,
+        @Nonnull final String exceptionMessage) {
+
+      this.code = code;
+      this.logMessage = logMessage;
+      this.exceptionMessage = exceptionMessage;
+    }
+
+    void log(
+        @Nonnull final ProgramState state,
+        final int lineNum,
+        final int fieldNum) {
+
+      log(state, "Line " + lineNum, fieldNum);
+    }
+
+    /**
+     * @param position Where the row is, such as "Line 5".
+     */
+    void log(
+        @Nonnull final ProgramState state,
+        @Nonnull final String position,
+        final int fieldNum) {
+
+      state.log(code, ERROR, "CSV (%s, Field %d): " + logMessage, position, fieldNum);
+    }
+
+    @Nonnull
+    @Contract(pure = true)
+    CsvCheckedException toException(
+        final int lineNum,
+        final int fieldNum) {
+
+      return toException("Line " + lineNum, fieldNum);
+    }
+
+    @Nonnull
+    @Contract(pure = true)
+    CsvCheckedException toException(
+        @Nonnull final String position,
+        final int fieldNum) {
+
+      return new CsvCheckedException(
+          "[ERROR] CSV (" + position + ", Field " + fieldNum + "): " + exceptionMessage);
+    }
+  }
+
+  /**
+   * A row that failed to parse whilst errors were being deferred, numbered from the line that the
+   * reader started on.
+   */
+  static final class DeferredError {
+    @Nonnull
+    private final ParseError error;
+    private final int lineNum;
+    private final int fieldNum;
+    private final int rowsBefore;
+
+    private DeferredError(
+        @Nonnull final ParseError error,
+        final int lineNum,
+        final int fieldNum,
+        final int rowsBefore) {
+
+      this.error = error;
+      this.lineNum = lineNum;
+      this.fieldNum = fieldNum;
+      this.rowsBefore = rowsBefore;
+    }
+
+    /**
+     * @return The number of rows that were handed to the visitor before this error occurred.
+     */
+    @Contract(pure = true)
+    int getRowsBefore() {
+      return rowsBefore;
+    }
+
+    /**
+     * Logs this error exactly as {@link #readRows(RowVisitor, boolean)} would have, had the reader
+     * started on the line after {@code lineOffset}.
+     */
+    void log(
+        @Nonnull final ProgramState state,
+        final int lineOffset) {
+
+      final int line = lineNum + lineOffset;
+      error.log(state, line, fieldNum);
+      state.log("CR.rf.1", WARN, "Skipping line %d due to CSV parsing exception: %s", line,
+          error.toException(line, fieldNum).getLocalizedMessage());
+    }
+
+    /**
+     * Logs this error for a row read from the middle of a file, whose line number isn't known, by
+     * the byte offset that the row starts at instead.
+     */
+    void logAtByte(
+        @Nonnull final ProgramState state,
+        final long byteOffset) {
+
+      final String position = "Row at byte " + byteOffset;
+      error.log(state, position, fieldNum);
+      state.log("CR.rf.1", WARN, "Skipping the row at byte %d due to CSV parsing exception: %s",
+          byteOffset, error.toException(position, fieldNum).getLocalizedMessage());
+    }
+  }
 }
@@ -0,0 +1,52 @@
+package com.skillsforge.accountfeeds.input;
+
+import org.jetbrains.annotations.Contract;
+
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+/**
+ * A single lexed row of a CSV file, as handed to a {@link RowVisitor}.  Fields are exposed as
+ * views into the reader's buffer, so that callers only pay for Strings they actually keep.
+ *
+ * @author agent
+ * @date 17-Oct-2026
+ */
+public interface CsvRow {
+
+  /**
+   * @return the line the row started on, counted in the same way as the line numbers in the
+   * reader's error messages.
+   */
+  @Contract(pure = true)
+  int getLineNumber();
+
+  /**
+   * @return the offset in bytes from the start of the file that the row starts at, or -1 if the
+   * reader wasn't keeping track of it.
+   */
+  @Contract(pure = true)
+  long getByteOffset();
+
+  @Contract(pure = true)
+  int size();
+
+  @Contract(pure = true)
+  boolean isEmpty();
+
+  /**
+   * @return a view of the field, which is reused once the visitor returns.
+   */
+  @Nonnull
+  CharSequence getField(int index);
+
+  @Nonnull
+  String getFieldAsString(int index);
+
+  /**
+   * @return an unmodifiable copy of every field, as {@link CsvReader#parseLine()} would return.
+   */
+  @Nonnull
+  List<String> toList();
+}
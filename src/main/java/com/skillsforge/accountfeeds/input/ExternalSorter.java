@@ -0,0 +1,336 @@
+package com.skillsforge.accountfeeds.input;
+
+import org.jetbrains.annotations.Contract;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Sorts more records than can be held in memory at once.  Records are held in memory until their
+ * rough size reaches a budget, and are then sorted and written out to a temporary file as a run.
+ * Reading the records back merges the runs.
+ * <p>
+ * The sort is stable: records that compare equal come back in the order they were added, so a
+ * comparator that treats every record as equal keeps them in that order while still keeping no
+ * more than the budget in memory.  Each record is an array of Strings (any of which may be null)
+ * of a fixed width.
+ *
+ * @author agent
+ * @date 17-Oct-2026
+ */
+public final class ExternalSorter implements Closeable {
+  // The most runs that are read from at once.  More are first merged into fewer, longer runs.
+  static final int MAX_FAN_IN = 64;
+  private static final int RUN_BUFFER_SIZE = 1 << 16;
+  // A rough size for an object header plus a reference, used to estimate a record's heap size.
+  private static final int OBJECT_OVERHEAD = 24;
+
+  private final int width;
+  @Nonnull
+  private final Comparator<String[]> order;
+  private final long memoryBudget;
+  @Nonnull
+  private List<String[]> buffer = new ArrayList<>();
+  private long bufferedBytes = 0;
+  @Nonnull
+  private final List<File> runs = new ArrayList<>();
+  private long size = 0;
+  private int runsWritten = 0;
+  private boolean sorted = false;
+
+  /**
+   * @param memoryBudget roughly how many bytes of records to hold in memory before writing them
+   *                     out as a run.
+   */
+  public ExternalSorter(
+      final int width,
+      @Nonnull final Comparator<String[]> order,
+      final long memoryBudget) {
+
+    this.width = width;
+    this.order = order;
+    this.memoryBudget = memoryBudget;
+  }
+
+  public void add(@Nonnull final String[] record) throws IOException {
+    if (sorted) {
+      throw new IllegalStateException("Records cannot be added once they have been read back.");
+    }
+    if (record.length != width) {
+      throw new IllegalArgumentException(
+          "Expected a record of " + width + " fields, but got " + record.length);
+    }
+    buffer.add(record);
+    bufferedBytes += estimateSize(record);
+    size++;
+    if (bufferedBytes >= memoryBudget) {
+      writeRun();
+    }
+  }
+
+  /**
+   * @return the number of records added.
+   */
+  @Contract(pure = true)
+  public long size() {
+    return size;
+  }
+
+  /**
+   * @return the number of runs written to disk, which is 0 if every record fitted in memory.
+   */
+  @Contract(pure = true)
+  public int getRunsWritten() {
+    return runsWritten;
+  }
+
+  /**
+   * Passes every record to {@code consumer} in order.  No more records can be added once this has
+   * been called, but the records can be read back any number of times.
+   */
+  public void forEachSorted(@Nonnull final RecordConsumer consumer) throws IOException {
+    if (!sorted) {
+      sorted = true;
+      buffer.sort(order);
+      if (!runs.isEmpty()) {
+        if (!buffer.isEmpty()) {
+          writeRun();
+        }
+        while (runs.size() > MAX_FAN_IN) {
+          mergePass();
+        }
+      }
+    }
+
+    if (runs.isEmpty()) {
+      for (final String[] record : buffer) {
+        consumer.accept(record);
+      }
+      return;
+    }
+    merge(runs, consumer);
+  }
+
+  /**
+   * Deletes the runs.
+   */
+  @Override
+  public void close() {
+    runs.forEach(File::delete);
+    runs.clear();
+    buffer = new ArrayList<>();
+  }
+
+  @Contract(pure = true)
+  private static long estimateSize(@Nonnull final String[] record) {
+    long bytes = OBJECT_OVERHEAD + (4L * record.length);
+    for (final String field : record) {
+      if (field != null) {
+        bytes += OBJECT_OVERHEAD + 16 + field.length();
+      }
+    }
+    return bytes;
+  }
+
+  private void writeRun() throws IOException {
+    buffer.sort(order);
+    final File run = newRunFile();
+    // Added before it is written, so that close() deletes it even if writing it fails.
+    runs.add(run);
+    try (final RunWriter writer = new RunWriter(run)) {
+      for (final String[] record : buffer) {
+        writer.write(record);
+      }
+    }
+    buffer = new ArrayList<>();
+    bufferedBytes = 0;
+  }
+
+  /**
+   * Merges each group of up to {@link #MAX_FAN_IN} neighbouring runs into one, keeping the merged
+   * runs in the same order as the groups so that the sort stays stable.  Each group is deleted as
+   * soon as it has been merged.
+   */
+  private void mergePass() throws IOException {
+    final List<File> merged = new ArrayList<>();
+    try {
+      while (!runs.isEmpty()) {
+        final List<File> group =
+            new ArrayList<>(runs.subList(0, Integer.min(MAX_FAN_IN, runs.size())));
+        final File run = newRunFile();
+        merged.add(run);
+        try (final RunWriter writer = new RunWriter(run)) {
+          merge(group, writer::write);
+        }
+        group.forEach(File::delete);
+        runs.subList(0, group.size()).clear();
+      }
+    } finally {
+      // Even if the pass failed, so that close() deletes every run left.
+      runs.addAll(merged);
+    }
+  }
+
+  /**
+   * Runs hold the records of the feed, so are made readable only by their owner on POSIX systems.
+   * They are deleted by {@link #mergePass()} and {@link #close()} rather than on exit, since every
+   * file registered to be deleted on exit is remembered until then.
+   */
+  @Nonnull
+  private File newRunFile() throws IOException {
+    final File run = Files.createTempFile("account-feed-run-", ".bin").toFile();
+    runsWritten++;
+    return run;
+  }
+
+  /**
+   * Ties between runs are broken by their position in {@code toMerge}, earliest first.
+   */
+  private void merge(
+      @Nonnull final List<File> toMerge,
+      @Nonnull final RecordConsumer consumer) throws IOException {
+
+    final PriorityQueue<RunReader> heads = new PriorityQueue<>(toMerge.size(),
+        Comparator.<RunReader, String[]>comparing(reader -> reader.head, order)
+            .thenComparingInt(reader -> reader.index));
+    // Every reader opened, whether or not it is in heads, so that all are closed however the
+    // merge ends.  Closing a reader twice does no harm.
+    final List<RunReader> opened = new ArrayList<>(toMerge.size());
+    try {
+      int index = 0;
+      for (final File run : toMerge) {
+        final RunReader reader = new RunReader(run, width, index++);
+        opened.add(reader);
+        if (reader.advance()) {
+          heads.add(reader);
+        } else {
+          reader.close();
+        }
+      }
+      while (!heads.isEmpty()) {
+        final RunReader reader = heads.poll();
+        consumer.accept(reader.head);
+        if (reader.advance()) {
+          heads.add(reader);
+        } else {
+          reader.close();
+        }
+      }
+    } finally {
+      for (final RunReader reader : opened) {
+        try {
+          reader.close();
+        } catch (IOException ignored) {
+          // Nothing was written through it, so nothing is lost.
+        }
+      }
+    }
+  }
+
+  /**
+   * Takes each record in turn.
+   */
+  @FunctionalInterface
+  public interface RecordConsumer {
+    void accept(@Nonnull String[] record) throws IOException;
+  }
+
+  /**
+   * Each field is written as its length in bytes of UTF-8 (or -1 for null) followed by the bytes.
+   */
+  private static final class RunWriter implements Closeable {
+    @Nonnull
+    private final DataOutputStream output;
+
+    private RunWriter(@Nonnull final File run) throws IOException {
+      output = new DataOutputStream(
+          new BufferedOutputStream(new FileOutputStream(run), RUN_BUFFER_SIZE));
+    }
+
+    private void write(@Nonnull final String[] record) throws IOException {
+      for (final String field : record) {
+        if (field == null) {
+          output.writeInt(-1);
+          continue;
+        }
+        final byte[] bytes = field.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      output.close();
+    }
+  }
+
+  private static final class RunReader implements Closeable {
+    @Nonnull
+    private final DataInputStream input;
+    private final int width;
+    private final int index;
+    // The record that will be read next from this run.
+    @Nullable
+    private String[] head = null;
+
+    private RunReader(
+        @Nonnull final File run,
+        final int width,
+        final int index) throws IOException {
+
+      this.input =
+          new DataInputStream(new BufferedInputStream(new FileInputStream(run), RUN_BUFFER_SIZE));
+      this.width = width;
+      this.index = index;
+    }
+
+    /**
+     * @return false if the run has no more records.
+     */
+    private boolean advance() throws IOException {
+      final String[] record = new String[width];
+      for (int field = 0; field < width; field++) {
+        final int length;
+        try {
+          length = input.readInt();
+        } catch (EOFException e) {
+          if (field == 0) {
+            head = null;
+            return false;
+          }
+          throw e;
+        }
+        if (length >= 0) {
+          final byte[] bytes = new byte[length];
+          input.readFully(bytes);
+          record[field] = new String(bytes, StandardCharsets.UTF_8);
+        }
+      }
+      head = record;
+      return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+      input.close();
+    }
+  }
+}
@@ -0,0 +1,89 @@
+package com.skillsforge.accountfeeds.input;
+
+import org.jetbrains.annotations.Contract;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Enumeration;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A set of feed files held in a zip archive (given by --source-zip), read in place rather than
+ * unpacked first.  Entries can be read from several threads at once: each has its own stream and
+ * inflater.
+ *
+ * @author agent
+ * @date 17-Oct-2026
+ */
+public final class FeedArchive implements Closeable {
+  @Nonnull
+  private final File file;
+  @Nonnull
+  private final ZipFile zipFile;
+
+  private FeedArchive(
+      @Nonnull final File file,
+      @Nonnull final ZipFile zipFile) {
+
+    this.file = file;
+    this.zipFile = zipFile;
+  }
+
+  @Nonnull
+  public static FeedArchive open(@Nonnull final File file) throws IOException {
+    return new FeedArchive(file, new ZipFile(file));
+  }
+
+  /**
+   * @return the entry with the given name or, since archives are often made by zipping up a
+   * directory, the first entry with that name in any directory.  Null if there is neither.
+   */
+  @Nullable
+  @Contract(pure = true)
+  public ZipEntry getEntry(@Nonnull final String filename) {
+    final ZipEntry entry = zipFile.getEntry(filename);
+    if ((entry != null) && !entry.isDirectory()) {
+      return entry;
+    }
+    final String suffix = '/' + filename;
+    final Enumeration<? extends ZipEntry> entries = zipFile.entries();
+    while (entries.hasMoreElements()) {
+      final ZipEntry candidate = entries.nextElement();
+      if (!candidate.isDirectory() && candidate.getName().endsWith(suffix)) {
+        return candidate;
+      }
+    }
+    return null;
+  }
+
+  @Nonnull
+  public InputStream getInputStream(@Nonnull final ZipEntry entry) throws IOException {
+    return zipFile.getInputStream(entry);
+  }
+
+  /**
+   * @return how the entry should be named in the log, for instance feed.zip!/Users.csv.
+   */
+  @Nonnull
+  @Contract(pure = true)
+  public String getPath(@Nonnull final ZipEntry entry) {
+    return file.getPath() + "!/" + entry.getName();
+  }
+
+  @Nonnull
+  @Contract(pure = true)
+  public File getFile() {
+    return file;
+  }
+
+  @Override
+  public void close() throws IOException {
+    zipFile.close();
+  }
+}
@@ -0,0 +1,367 @@
+package com.skillsforge.accountfeeds.input;
+
+import com.skillsforge.accountfeeds.config.ProgramState;
+import com.skillsforge.accountfeeds.config.SampleMethod;
+
+import org.jetbrains.annotations.Contract;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import static com.skillsforge.accountfeeds.config.LogLevel.ERROR;
+
+/**
+ * Reads the header and a sample of the rows of a feed file, seeking straight to each sampled row
+ * rather than reading the rest of the file.
+ * <p>
+ * A row is sampled by picking a byte of the file and taking the row that starts after the next
+ * line break, so the row after a long row is more likely to be picked than the row after a short
+ * one.  A line break inside a quoted value can't be told apart from one between rows without
+ * reading the file from the start, so a row picked there is misread from the middle of a value.
+ * <p>
+ * A row whose byte offset is already known (from {@link CsvRow#getByteOffset()}) can also be read
+ * again as it was written in the file, to show in error messages.
+ *
+ * @author agent
+ * @date 17-Oct-2026
+ */
+public final class FeedSampler implements Closeable {
+  // Rows longer than this are reported rather than read.
+  static final int MAX_ROW_BYTES = 1 << 20;
+  private static final int INITIAL_READ_SIZE = 1 << 13;
+  // For a confidence level of 95%.
+  private static final double Z = 1.959964;
+
+  @Nonnull
+  private final RandomAccessFile file;
+  private final long length;
+  @Nonnull
+  private byte[] buffer = new byte[INITIAL_READ_SIZE];
+  // Set once the header has been read.
+  private long dataStart = -1;
+
+  private FeedSampler(@Nonnull final RandomAccessFile file) throws IOException {
+    this.file = file;
+    this.length = file.length();
+  }
+
+  @Nonnull
+  public static FeedSampler open(@Nonnull final File file) throws IOException {
+    return new FeedSampler(new RandomAccessFile(file, "r"));
+  }
+
+  /**
+   * Reads the first row of the file.  Problems parsing it are logged to {@code state}.
+   *
+   * @return the header's fields, which are empty if the file is blank or the header can't be
+   * parsed.
+   */
+  @Nonnull
+  public List<String> readHeader(@Nonnull final ProgramState state) throws IOException {
+    final int headerLength = rowLength(0);
+    if (headerLength < 0) {
+      state.log("FS.rh.1", ERROR, "The header is longer than %d bytes.", MAX_ROW_BYTES);
+      dataStart = length;
+      return Collections.emptyList();
+    }
+    dataStart = headerLength;
+    final List<String> header = parseRow(state, headerLength, -1);
+    return (header == null) ? Collections.emptyList() : header;
+  }
+
+  /**
+   * Reads up to {@code count} distinct rows after the header, in the order they appear in the
+   * file.  Fewer are returned if the same row is picked more than once, or the file has fewer rows.
+   */
+  @Nonnull
+  public List<SampledRow> sample(
+      @Nonnull final ProgramState state,
+      final int count,
+      @Nonnull final SampleMethod method,
+      @Nonnull final Random random) throws IOException {
+
+    if (dataStart < 0) {
+      throw new IllegalStateException("The header must be read before the rows are sampled.");
+    }
+
+    final SortedSet<Long> rowStarts = new TreeSet<>();
+    for (int pick = 0; (pick < count) && (length > 0); pick++) {
+      // A stratified sample picks from the pick'th of count equal slices of the file.
+      final long picked = (method == SampleMethod.STRATIFIED)
+                          ? (((length * pick) / count)
+                             + nextLong(random, Long.max(1, length / count)))
+                          : nextLong(random, length);
+      final long rowStart = nextRowStart(Long.min(picked, length - 1));
+      if ((rowStart >= dataStart) && (rowStart < length)) {
+        rowStarts.add(rowStart);
+      }
+    }
+
+    final List<SampledRow> rows = new ArrayList<>(rowStarts.size());
+    for (final long rowStart : rowStarts) {
+      final ProgramState rowState = new ProgramState(state);
+      final int rowLength = rowLength(rowStart);
+      if (rowLength < 0) {
+        rowState.log("FS.s.1", ERROR, "The row is longer than %d bytes.", MAX_ROW_BYTES);
+        rows.add(new SampledRow(rowStart, MAX_ROW_BYTES, null, rowState));
+        continue;
+      }
+      rows.add(new SampledRow(rowStart, rowLength, parseRow(rowState, rowLength, rowStart),
+          rowState));
+    }
+    return rows;
+  }
+
+  /**
+   * @return the text of the row starting at {@code offset}, exactly as it is in the file but for
+   * its line break, and cut short at {@link #MAX_ROW_BYTES}.
+   */
+  @Nonnull
+  public String readRowText(final long offset) throws IOException {
+    final int rowLength = rowLength(offset);
+    int end = (rowLength < 0) ? Integer.min(MAX_ROW_BYTES, buffer.length) : rowLength;
+    while ((end > 0) && ((buffer[end - 1] == '\n') || (buffer[end - 1] == '\r'))) {
+      end--;
+    }
+    return new String(buffer, 0, end, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * @return the number of bytes after the header.
+   */
+  @Contract(pure = true)
+  public long getDataLength() {
+    return length - Long.max(0, dataStart);
+  }
+
+  /**
+   * @return the lower and upper bounds of the 95% Wilson score interval for the proportion of a
+   * population that has some property, given that {@code hits} of a random sample of
+   * {@code sampleSize} have it.
+   */
+  @Nonnull
+  @Contract(pure = true)
+  public static double[] confidenceInterval(final int hits, final int sampleSize) {
+    if (sampleSize == 0) {
+      return new double[]{0.0, 1.0};
+    }
+    final double n = sampleSize;
+    final double proportion = hits / n;
+    final double zSquared = Z * Z;
+    final double denominator = 1.0 + (zSquared / n);
+    final double centre = (proportion + (zSquared / (2.0 * n))) / denominator;
+    final double halfWidth = (Z / denominator)
+                             * Math.sqrt(((proportion * (1.0 - proportion)) / n)
+                                         + (zSquared / (4.0 * n * n)));
+    return new double[]{Double.max(0.0, centre - halfWidth), Double.min(1.0, centre + halfWidth)};
+  }
+
+  @Override
+  public void close() throws IOException {
+    file.close();
+  }
+
+  /**
+   * @return a uniformly distributed number in [0, bound).
+   */
+  private static long nextLong(
+      @Nonnull final Random random,
+      final long bound) {
+
+    return (long) (random.nextDouble() * bound);
+  }
+
+  /**
+   * @return the offset just after the first line break at or after {@code position}, or the
+   * length of the file if there isn't one.
+   */
+  private long nextRowStart(final long position) throws IOException {
+    int readSize = INITIAL_READ_SIZE;
+    do {
+      final int read = fill(position, readSize);
+      final boolean toEnd = (position + read) >= length;
+      for (int i = 0; i < read; i++) {
+        if (buffer[i] == '\n') {
+          return position + i + 1;
+        }
+        if (buffer[i] == '\r') {
+          if ((i + 1) < read) {
+            return position + i + ((buffer[i + 1] == '\n') ? 2 : 1);
+          }
+          if (toEnd) {
+            return length;
+          }
+          // The \r is the last byte read, so it isn't yet known whether a \n follows it.
+          break;
+        }
+      }
+      if (toEnd) {
+        return length;
+      }
+      readSize *= 2;
+    } while (readSize <= MAX_ROW_BYTES);
+    return length;
+  }
+
+  /**
+   * Finds the end of the row starting at {@code start}: the first line break that isn't inside a
+   * quoted value, or the end of the file.  The row is left at the start of the buffer.
+   *
+   * @return the length of the row in bytes including its line break, or -1 if it is longer than
+   * {@link #MAX_ROW_BYTES}.
+   */
+  private int rowLength(final long start) throws IOException {
+    int readSize = INITIAL_READ_SIZE;
+    do {
+      final int read = fill(start, readSize);
+      final boolean toEnd = (start + read) >= length;
+      boolean quoted = false;
+      for (int i = 0; i < read; i++) {
+        final byte next = buffer[i];
+        if (next == '"') {
+          // An escaped quote ("") toggles this twice.
+          quoted = !quoted;
+        } else if (!quoted && (next == '\n')) {
+          return i + 1;
+        } else if (!quoted && (next == '\r')) {
+          if ((i + 1) < read) {
+            return i + ((buffer[i + 1] == '\n') ? 2 : 1);
+          }
+          if (toEnd) {
+            return i + 1;
+          }
+          break;
+        }
+      }
+      if (toEnd) {
+        return read;
+      }
+      readSize *= 2;
+    } while (readSize <= MAX_ROW_BYTES);
+    return -1;
+  }
+
+  /**
+   * Reads up to {@code size} bytes from {@code position} into the start of the buffer.
+   *
+   * @return the number of bytes read, which is fewer than asked for only at the end of the file.
+   */
+  private int fill(
+      final long position,
+      final int size) throws IOException {
+
+    if (buffer.length < size) {
+      buffer = new byte[size];
+    }
+    file.seek(position);
+    int filled = 0;
+    while (filled < size) {
+      final int read = file.read(buffer, filled, size - filled);
+      if (read < 0) {
+        break;
+      }
+      filled += read;
+    }
+    return filled;
+  }
+
+  /**
+   * Parses the row at the start of the buffer, logging any problems to {@code state}.
+   *
+   * @param rowOffset The offset in the file of a row after the header, whose line number isn't
+   *                  known, so its problems are logged by offset; or -1 for the header, which is
+   *                  line 1.
+   * @return the row's fields, or null if it couldn't be parsed.
+   */
+  @Nullable
+  private List<String> parseRow(
+      @Nonnull final ProgramState state,
+      final int rowLength,
+      final long rowOffset) throws IOException {
+
+    final List<List<String>> parsed = new ArrayList<>(1);
+    final List<CsvReader.DeferredError> errors = new ArrayList<>(1);
+    try (final CsvReader reader = new CsvReader(new InputStreamReader(
+        new ByteArrayInputStream(buffer, 0, rowLength), StandardCharsets.UTF_8), state)) {
+      if (rowOffset >= 0) {
+        reader.deferErrorsTo(errors);
+      }
+      reader.readFile(row -> parsed.add(row.toList()));
+    }
+    errors.forEach(error -> error.logAtByte(state, rowOffset));
+    return parsed.isEmpty() ? null : parsed.get(0);
+  }
+
+  /**
+   * A row read from the middle of a file, along with the state its problems are logged to.
+   */
+  public static final class SampledRow {
+    private final long offset;
+    private final int length;
+    @Nullable
+    private final List<String> fields;
+    @Nonnull
+    private final ProgramState state;
+
+    private SampledRow(
+        final long offset,
+        final int length,
+        @Nullable final List<String> fields,
+        @Nonnull final ProgramState state) {
+
+      this.offset = offset;
+      this.length = length;
+      this.fields = fields;
+      this.state = state;
+    }
+
+    /**
+     * @return the byte offset in the file that the row starts at.
+     */
+    @Contract(pure = true)
+    public long getOffset() {
+      return offset;
+    }
+
+    /**
+     * @return the length of the row in bytes, including its line break.
+     */
+    @Contract(pure = true)
+    public int getLength() {
+      return length;
+    }
+
+    /**
+     * @return the row's fields, or null if it couldn't be read.
+     */
+    @Nullable
+    @Contract(pure = true)
+    public List<String> getFields() {
+      return fields;
+    }
+
+    /**
+     * @return a child state of the one the file was sampled with, holding anything logged about
+     * this row.
+     */
+    @Nonnull
+    @Contract(pure = true)
+    public ProgramState getState() {
+      return state;
+    }
+  }
+}
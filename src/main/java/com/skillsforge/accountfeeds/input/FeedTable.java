@@ -0,0 +1,278 @@
+package com.skillsforge.accountfeeds.input;
+
+import com.skillsforge.accountfeeds.config.RowStorage;
+
+import org.jetbrains.annotations.Contract;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * The rows of one feed file, stored a column at a time.  Each column is a single array of field
+ * values indexed by row number, so the per-row cost is one array slot per field and a width,
+ * rather than a list object, its backing array and a linked list node.
+ * <p>
+ * The first row read is kept apart as the header.  Body rows may have any number of fields
+ * (including none, for blank lines), and are numbered from zero.  Repeated values in a column
+ * share a single String, through a {@link StringPool}.
+ * <p>
+ * A table can be given a {@link ColumnProjection}, in which case only the named columns are
+ * stored: the others read as null, but still count towards each row's width.  The readers decode
+ * fields lazily, so columns that are not kept never become Strings.
+ * <p>
+ * If the reader kept track of where each row started in the file, those byte offsets are kept too,
+ * so that a row can be re-read from the file even once the parsed rows have been released.
+ * <p>
+ * With {@link RowStorage#OFF_HEAP} the fields are held in {@link OffHeapRows} instead of the
+ * column arrays, and only decoded when they are read.  They are still passed through the pool as
+ * they are added, so that what is read back shares the same Strings.
+ *
+ * @author agent
+ * @date 17-Oct-2026
+ */
+public final class FeedTable implements RowVisitor {
+  private static final int INITIAL_CAPACITY = 64;
+
+  @Nonnull
+  private final ColumnProjection projection;
+  @Nonnull
+  private final StringPool pool = new StringPool();
+  @Nullable
+  private List<String> header = null;
+  // Null until the header has been read, or if every column is kept.
+  @Nullable
+  private boolean[] keep = null;
+  @Nonnull
+  private final List<String[]> columns = new ArrayList<>();
+  // Null unless the rows are held off the heap, in which case columns is left empty.
+  @Nullable
+  private final OffHeapRows offHeapRows;
+  // The fields of the row being added, when they are held off the heap.
+  @Nonnull
+  private String[] rowFields = new String[0];
+  @Nonnull
+  private int[] widths = new int[INITIAL_CAPACITY];
+  private int rowCount = 0;
+  // Null unless the reader counted byte offsets.
+  @Nullable
+  private long[] byteOffsets = null;
+  private boolean released = false;
+
+  public FeedTable() {
+    this(ColumnProjection.ALL);
+  }
+
+  public FeedTable(@Nonnull final ColumnProjection projection) {
+    this(projection, RowStorage.HEAP);
+  }
+
+  public FeedTable(
+      @Nonnull final ColumnProjection projection,
+      @Nonnull final RowStorage storage) {
+
+    this.projection = projection;
+    this.offHeapRows = (storage == RowStorage.OFF_HEAP) ? new OffHeapRows() : null;
+  }
+
+  @Override
+  public void visitRow(@Nonnull final CsvRow row) {
+    if (header == null) {
+      header = row.toList();
+      keep = projection.resolve(header);
+      return;
+    }
+    if (released) {
+      throw new IllegalStateException("Rows cannot be added once they have been released.");
+    }
+
+    if (rowCount == widths.length) {
+      grow();
+    }
+    final long byteOffset = row.getByteOffset();
+    if (byteOffset >= 0) {
+      if (byteOffsets == null) {
+        byteOffsets = new long[widths.length];
+        Arrays.fill(byteOffsets, -1);
+      }
+      byteOffsets[rowCount] = byteOffset;
+    }
+    final int width = row.size();
+    if (offHeapRows != null) {
+      if (rowFields.length < width) {
+        rowFields = new String[width];
+      }
+      for (int col = 0; col < width; col++) {
+        rowFields[col] = isKept(col) ? pool.intern(col, row.getFieldAsString(col)) : null;
+      }
+      offHeapRows.addRow(rowFields, width);
+      widths[rowCount] = width;
+      rowCount++;
+      return;
+    }
+    while (columns.size() < width) {
+      columns.add(isKept(columns.size()) ? new String[widths.length] : null);
+    }
+    for (int col = 0; col < width; col++) {
+      final String[] column = columns.get(col);
+      if (column != null) {
+        column[rowCount] = pool.intern(col, row.getFieldAsString(col));
+      }
+    }
+    widths[rowCount] = width;
+    rowCount++;
+  }
+
+  private void grow() {
+    final int capacity = widths.length * 2;
+    widths = Arrays.copyOf(widths, capacity);
+    if (byteOffsets != null) {
+      byteOffsets = Arrays.copyOf(byteOffsets, capacity);
+    }
+    for (int col = 0; col < columns.size(); col++) {
+      final String[] column = columns.get(col);
+      if (column != null) {
+        columns.set(col, Arrays.copyOf(column, capacity));
+      }
+    }
+  }
+
+  @Contract(pure = true)
+  private boolean isKept(final int col) {
+    return (keep == null) || ((col < keep.length) && keep[col]);
+  }
+
+  @Nonnull
+  @Contract(pure = true)
+  public StringPool getStringPool() {
+    return pool;
+  }
+
+  /**
+   * @return the number of bytes of direct memory the rows are held in, which is 0 unless they are
+   * held off the heap.
+   */
+  @Contract(pure = true)
+  public long getOffHeapBytes() {
+    return (offHeapRows == null) ? 0 : offHeapRows.getCapacity();
+  }
+
+  /**
+   * @return true if not even a header row has been read.
+   */
+  @Contract(pure = true)
+  public boolean isEmpty() {
+    return header == null;
+  }
+
+  @Nonnull
+  @Contract(pure = true)
+  public List<String> getHeader() {
+    return (header == null) ? Collections.emptyList() : header;
+  }
+
+  /**
+   * @return the number of rows after the header.
+   */
+  @Contract(pure = true)
+  public int getRowCount() {
+    return rowCount;
+  }
+
+  @Contract(pure = true)
+  public int getWidth(final int row) {
+    checkRow(row);
+    if (released) {
+      throw new IllegalStateException("The rows of this table have been released.");
+    }
+    return widths[row];
+  }
+
+  /**
+   * @return Whether the byte offset at which each row starts in the file is known.
+   */
+  @Contract(pure = true)
+  public boolean hasByteOffsets() {
+    return byteOffsets != null;
+  }
+
+  /**
+   * @return the offset in bytes from the start of the file at which the row starts, or -1 if it
+   * isn't known.
+   */
+  @Contract(pure = true)
+  public long getByteOffset(final int row) {
+    checkRow(row);
+    return (byteOffsets == null) ? -1 : byteOffsets[row];
+  }
+
+  /**
+   * Drops the parsed body rows, once nothing more needs them, so that their fields can be garbage
+   * collected.  The header, the row count and the byte offsets of the rows are kept.
+   */
+  public void releaseRows() {
+    released = true;
+    columns.clear();
+    if (offHeapRows != null) {
+      offHeapRows.release();
+    }
+    widths = new int[0];
+  }
+
+  /**
+   * @return the field, or null if its column was not kept.
+   */
+  @Nullable
+  @Contract(pure = true)
+  public String get(final int row, final int col) {
+    if ((col < 0) || (col >= getWidth(row))) {
+      throw new IndexOutOfBoundsException("Column " + col + " of row " + row);
+    }
+    if (offHeapRows != null) {
+      final String value = offHeapRows.get(row, col);
+      return (value == null) ? null : pool.lookup(col, value);
+    }
+    final String[] column = columns.get(col);
+    return (column == null) ? null : column[row];
+  }
+
+  /**
+   * @return an unmodifiable view of a body row.
+   */
+  @Nonnull
+  @Contract(pure = true)
+  public List<String> getRow(final int row) {
+    checkRow(row);
+    return new RowView(row);
+  }
+
+  private void checkRow(final int row) {
+    if ((row < 0) || (row >= rowCount)) {
+      throw new IndexOutOfBoundsException("Row " + row + " of " + rowCount);
+    }
+  }
+
+  private final class RowView extends AbstractList<String> implements RandomAccess {
+    private final int row;
+
+    private RowView(final int row) {
+      this.row = row;
+    }
+
+    @Override
+    public String get(final int index) {
+      return FeedTable.this.get(row, index);
+    }
+
+    @Override
+    public int size() {
+      return getWidth(row);
+    }
+  }
+}
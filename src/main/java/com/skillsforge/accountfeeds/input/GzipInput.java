@@ -0,0 +1,81 @@
+package com.skillsforge.accountfeeds.input;
+
+import org.jetbrains.annotations.Contract;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Feed files may be gzip-compressed (for instance Users.csv.gz).  They are recognised by the gzip
+ * magic number rather than their name, and inflated as they are read, so they never need to be
+ * decompressed to disk.
+ *
+ * @author agent
+ * @date 17-Oct-2026
+ */
+public final class GzipInput {
+  @Nonnull
+  public static final String SUFFIX = ".gz";
+
+  // Inflating in large blocks keeps the per-call overhead of the Inflater down.
+  private static final int INFLATE_BUFFER_SIZE = 1 << 16;
+  private static final int MAGIC_1 = 0x1f;
+  private static final int MAGIC_2 = 0x8b;
+
+  private GzipInput() {
+  }
+
+  /**
+   * @return true if the file starts with the gzip magic number.  A file that cannot be read is
+   * not gzip-compressed, so that the usual reader reports the problem.
+   */
+  @Contract(pure = true)
+  public static boolean isGzipped(@Nonnull final File file) {
+    try (final InputStream input = new FileInputStream(file)) {
+      return (input.read() == MAGIC_1) && (input.read() == MAGIC_2);
+    } catch (IOException ignored) {
+      return false;
+    }
+  }
+
+  /**
+   * @return a stream of the file's inflated contents.
+   */
+  @Nonnull
+  public static InputStream open(@Nonnull final File file) throws IOException {
+    final InputStream input = new FileInputStream(file);
+    try {
+      return new GZIPInputStream(input, INFLATE_BUFFER_SIZE);
+    } catch (IOException e) {
+      input.close();
+      throw e;
+    }
+  }
+
+  /**
+   * For a stream that can only be read once, so can't be opened again after checking the magic
+   * number.  The first bytes are read into a buffer and put back.
+   *
+   * @return a stream of the input's inflated contents if it is gzip-compressed, or else of the
+   * input as it is.
+   */
+  @Nonnull
+  public static InputStream inflateIfGzipped(@Nonnull final InputStream input) throws IOException {
+    final InputStream buffered = new BufferedInputStream(input, INFLATE_BUFFER_SIZE);
+    try {
+      buffered.mark(2);
+      final boolean gzipped = (buffered.read() == MAGIC_1) && (buffered.read() == MAGIC_2);
+      buffered.reset();
+      return gzipped ? new GZIPInputStream(buffered, INFLATE_BUFFER_SIZE) : buffered;
+    } catch (IOException e) {
+      buffered.close();
+      throw e;
+    }
+  }
+}
@@ -94,7 +94,7 @@ public class Indexes {
       final String groupAlias = group.getGroupAlias();
       if (groupAlias == null) {
         state.log("I.bgi.1", ERROR, "A group with no GroupAlias was encountered: '%s'.",
-            group.toString());
+            group);
       } else {
         if (groupsByAliasUpperCase.containsKey(groupAlias.trim().toUpperCase())) {
           state.log("I.bgi.2", ERROR, "There is more than one group with the GroupAlias '%s'.",
@@ -107,7 +107,7 @@ public class Indexes {
       final String groupName = group.getGroupName();
       if (groupName == null) {
         state.log("I.bgi.3", WARN, "A group with no GroupName was encountered: '%s'.",
-            group.toString());
+            group);
       } else {
         if (groupsByName.containsKey(groupName.trim())) {
           if (orgParams.getTargetVersion() >= 5_010_000_006L) {
@@ -139,7 +139,7 @@ public class Indexes {
       final String userId = user.getUserId();
       if (userId == null) {
         state.log("I.bui.1", ERROR, "A user with no UserID was encountered: '%s'.",
-            user.toString());
+            user);
       } else if (!userId.trim().isEmpty()) {
         if (usersByUserIdLowerCase.containsKey(userId.trim().toLowerCase())) {
           state.log("I.bui.2", ERROR, "There is more than one user with the UserID '%s'.",
@@ -152,7 +152,7 @@ public class Indexes {
       final String username = user.getUsername();
       if (username == null) {
         state.log("I.bui.3", ERROR, "A user with no Username was encountered: '%s'.",
-            user.toString());
+            user);
       } else if (!username.trim().isEmpty()) {
         final String lowerCaseUsername = username.toLowerCase().trim();
         if (!lowerCaseUsername.equals(username.trim())) {
@@ -169,7 +169,7 @@ public class Indexes {
       final String email = user.getEmail();
       if (email == null) {
         state.log("I.bui.5", ERROR, "A user with no Email address was encountered: '%s'.",
-            user.toString());
+            user);
       } else if (!email.trim().isEmpty()) {
         if (usersByEmail.containsKey(email)) {
           state.log("I.bui.6", WARN, "There is more than one user with the email address '%s'.",
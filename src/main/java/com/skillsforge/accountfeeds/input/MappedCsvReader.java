@@ -0,0 +1,567 @@
+package com.skillsforge.accountfeeds.input;
+
+import com.skillsforge.accountfeeds.config.ProgramState;
+import com.skillsforge.accountfeeds.exceptions.CsvCheckedException;
+import com.skillsforge.accountfeeds.input.CsvReader.ParseError;
+
+import org.jetbrains.annotations.Contract;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import static com.skillsforge.accountfeeds.config.LogLevel.WARN;
+
+/**
+ * Splits a memory-mapped UTF-8 CSV file into rows of fields, without decoding the file first.
+ * <p>
+ * Every character that the format gives a meaning to is ASCII, and in UTF-8 an ASCII byte never
+ * forms part of the encoding of another character, so the bytes can be lexed by the same state
+ * machine that {@link CsvReader} runs over characters.  Only field contents are decoded: fields
+ * that are entirely ASCII are widened straight into Strings, and only the rest go through the
+ * UTF-8 decoder.
+ * <p>
+ * The rows, line numbers and log output are the same as those of a {@link CsvReader} reading the
+ * file through a UTF-8 {@link java.io.InputStreamReader}, including where malformed byte sequences
+ * are replaced.
+ *
+ * @author agent
+ * @date 17-Oct-2026
+ */
+@SuppressWarnings("ClassWithTooManyFields")
+public class MappedCsvReader implements Closeable {
+  private static final int INITIAL_ROW_CAPACITY = 1024;
+  private static final int INITIAL_FIELD_CAPACITY = 32;
+  private static final int EOF = -1;
+  private static final int NO_CHAR = -1;
+
+  private static final int END_OF_FILE = 0;
+  private static final int BLANK_ROW = 1;
+  private static final int ROW = 2;
+
+  @Nullable
+  private final FileChannel channel;
+  @Nonnull
+  private final ByteBuffer input;
+  private final int limit;
+  @Nonnull
+  private final ProgramState state;
+
+  private int pos;
+  private int lineNum = 1;
+  private int rowLineNum = 1;
+  private int rowByteOffset = 0;
+
+  // The second half of a surrogate pair whose first half ended the previous row with an error,
+  // and which therefore starts the next row.
+  private int pendingChar = NO_CHAR;
+  private int rowPrefixChar = NO_CHAR;
+  @Nullable
+  private CharsetDecoder decoder = null;
+
+  // The row being lexed is copied into [0, write) of rowBytes, less the bytes that the format
+  // discards.  Wherever bytes were discarded is recorded as a splice, so that fields are decoded
+  // in the same pieces as a decoder reading the whole file would have seen them.
+  @Nonnull
+  private byte[] rowBytes = new byte[INITIAL_ROW_CAPACITY];
+  private int write = 0;
+  @Nonnull
+  private int[] splices = new int[INITIAL_FIELD_CAPACITY];
+  private int spliceCount = 0;
+
+  private int fieldCount = 0;
+  @Nonnull
+  private int[] fieldStarts = new int[INITIAL_FIELD_CAPACITY];
+  @Nonnull
+  private int[] fieldEnds = new int[INITIAL_FIELD_CAPACITY];
+  @Nonnull
+  private boolean[] fieldQuoted = new boolean[INITIAL_FIELD_CAPACITY];
+  @Nonnull
+  private final LexedRow row = new LexedRow();
+
+  MappedCsvReader(
+      @Nonnull final ByteBuffer input,
+      @Nonnull final ProgramState state) {
+
+    this(null, input, state);
+  }
+
+  private MappedCsvReader(
+      @Nullable final FileChannel channel,
+      @Nonnull final ByteBuffer input,
+      @Nonnull final ProgramState state) {
+
+    this.channel = channel;
+    // Little-endian, so that the first byte of a word read by the scanner is its lowest.
+    this.input = input.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    this.state = state;
+    this.pos = input.position();
+    this.limit = input.limit();
+  }
+
+  /**
+   * @return Whether a file is small enough to be mapped in one piece.
+   */
+  @Contract(pure = true)
+  public static boolean canMap(@Nonnull final File file) {
+    return file.length() <= Integer.MAX_VALUE;
+  }
+
+  @Nonnull
+  public static MappedCsvReader open(
+      @Nonnull final File file,
+      @Nonnull final ProgramState state) throws IOException {
+
+    final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+    try {
+      final long size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        throw new IOException("File is too large to be mapped: " + file.getPath());
+      }
+      return new MappedCsvReader(channel, channel.map(FileChannel.MapMode.READ_ONLY, 0, size),
+          state);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  @Nonnull
+  @Contract(pure = true)
+  public List<List<String>> readFile() {
+    final List<List<String>> fullFile = new ArrayList<>();
+    readFile(csvRow -> fullFile.add(csvRow.toList()));
+    return Collections.unmodifiableList(fullFile);
+  }
+
+  public void readFile(@Nonnull final RowVisitor visitor) {
+    boolean anyRowsRead = false;
+    do {
+      final int result;
+      try {
+        result = lexRow();
+      } catch (CsvCheckedException e) {
+        state.log("CR.rf.1", WARN, "Skipping line %d due to CSV parsing exception: %s", lineNum,
+            e.getLocalizedMessage());
+        // A file whose very first row cannot be parsed has always been treated as empty.
+        if (!anyRowsRead) {
+          return;
+        }
+        continue;
+      }
+      if (result == END_OF_FILE) {
+        return;
+      }
+      anyRowsRead = true;
+      visitor.visitRow(row);
+    } while (true);
+  }
+
+  @Nullable
+  public List<String> parseLine() throws CsvCheckedException {
+    return (lexRow() == END_OF_FILE) ? null : row.toList();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (channel != null) {
+      channel.close();
+    }
+  }
+
+  @Nonnull
+  private String fieldValue(final int fieldNum) {
+    final int start = fieldStarts[fieldNum];
+    final int end = fieldEnds[fieldNum];
+    if ((fieldNum == 0) && (rowPrefixChar != NO_CHAR)) {
+      return (char) rowPrefixChar + decode(start, end);
+    }
+    if (start == end) {
+      return "";
+    }
+
+    // Unquoted fields can hold no quotation marks, so they are exactly as they were lexed.
+    return fieldQuoted[fieldNum]
+           ? CsvReader.quotedFieldValue(decode(start + 1, end - 1))
+           : decode(start, end);
+  }
+
+  @Nonnull
+  private String decode(
+      final int start,
+      final int end) {
+
+    boolean ascii = true;
+    for (int index = start; index < end; index++) {
+      if (rowBytes[index] < 0) {
+        ascii = false;
+        break;
+      }
+    }
+    if (ascii) {
+      return new String(rowBytes, start, end - start, StandardCharsets.ISO_8859_1);
+    }
+
+    StringBuilder value = null;
+    int pieceStart = start;
+    for (int splice = 0; splice < spliceCount; splice++) {
+      final int at = splices[splice];
+      if ((at > pieceStart) && (at < end)) {
+        if (value == null) {
+          value = new StringBuilder(end - start);
+        }
+        value.append(new String(rowBytes, pieceStart, at - pieceStart, StandardCharsets.UTF_8));
+        pieceStart = at;
+      }
+    }
+    final String last = new String(rowBytes, pieceStart, end - pieceStart, StandardCharsets.UTF_8);
+    return (value == null) ? last : value.append(last).toString();
+  }
+
+  @SuppressWarnings({"OverlyComplexMethod", "OverlyLongMethod"})
+  private int lexRow() throws CsvCheckedException {
+
+    rowLineNum = lineNum;
+    rowByteOffset = pos;
+    write = 0;
+    spliceCount = 0;
+    fieldCount = 0;
+    rowPrefixChar = pendingChar;
+    pendingChar = NO_CHAR;
+
+    CsvStates stateMachine = CsvStates.START_OF_FIELD;
+
+    int fieldNum = 1;
+    int fieldStart = 0;
+    boolean startOfLine = true;
+    if (rowPrefixChar != NO_CHAR) {
+      startOfLine = false;
+      stateMachine = CsvStates.LEXING_UNQUOTED_FIELD;
+      copyUnquotedRun();
+    }
+    do {
+      final int next = nextLexByte();
+      if ((next == EOF) && startOfLine) {
+        return END_OF_FILE;
+      }
+
+      //noinspection SwitchStatementDensity
+      switch (stateMachine) {
+        case START_OF_FIELD:
+          if ((next == EOF) || (next == '\n')) {
+            lineNum++;
+            if (startOfLine) {
+              return BLANK_ROW;
+            }
+            addField(write, false);
+            return ROW;
+          }
+          startOfLine = false;
+
+          fieldStart = write;
+          if (next == ',') {
+            addField(fieldStart, false);
+          } else if (next == '\"') {
+            append(next);
+            stateMachine = CsvStates.LEXING_QUOTED_FIELD;
+            copyQuotedRun();
+          } else {
+            append(next);
+            stateMachine = CsvStates.LEXING_UNQUOTED_FIELD;
+            copyUnquotedRun();
+          }
+          break;
+
+        case LEXING_UNQUOTED_FIELD:
+          if ((next == EOF) || (next == '\n')) {
+            lineNum++;
+            addField(fieldStart, false);
+            return ROW;
+          }
+          if (next == ',') {
+            stateMachine = CsvStates.START_OF_FIELD;
+            addField(fieldStart, false);
+            fieldNum++;
+          } else if (next == '\"') {
+            throw parseError(ParseError.LEADING_CHARACTERS, fieldNum);
+          } else {
+            append(next);
+            copyUnquotedRun();
+          }
+          break;
+
+        case LEXING_QUOTED_FIELD:
+          if (next == EOF) {
+            throw parseError(ParseError.UNTERMINATED_FIELD, fieldNum);
+          }
+          if (next == '\n') {
+            // Newlines within quoted fields are counted, but not kept.
+            lineNum++;
+            splice();
+            copyQuotedRun();
+          } else if (next == '\"') {
+            append(next);
+            stateMachine = CsvStates.ENDING_QUOTED_FIELD;
+          } else {
+            append(next);
+            copyQuotedRun();
+          }
+          break;
+
+        case ENDING_QUOTED_FIELD:
+          if ((next == EOF) || (next == '\n')) {
+            lineNum++;
+            addField(fieldStart, true);
+            return ROW;
+          }
+          if (next == ',') {
+            stateMachine = CsvStates.START_OF_FIELD;
+            addField(fieldStart, true);
+            fieldNum++;
+          } else if (next == '\"') {
+            append(next);
+            stateMachine = CsvStates.LEXING_QUOTED_FIELD;
+            copyQuotedRun();
+          } else {
+            if (next >= 0x80) {
+              skipRestOfCharacter();
+            }
+            throw parseError(ParseError.TRAILING_CHARACTERS, fieldNum);
+          }
+          break;
+      }
+    } while (true);
+  }
+
+  @Nonnull
+  private CsvCheckedException parseError(
+      @Nonnull final ParseError error,
+      final int fieldNum) {
+
+    error.log(state, lineNum, fieldNum);
+    return error.toException(lineNum, fieldNum);
+  }
+
+  /**
+   * The reader-based parser discards the whole character that a row fails on, so the rest of its
+   * byte sequence must be skipped too, grouped exactly as the decoder would group it.  If the
+   * character was the first half of a surrogate pair, the next row starts with the second half.
+   */
+  private void skipRestOfCharacter() {
+    final int start = pos - 1;
+    final int end = Integer.min(limit, start + 4);
+    final ByteBuffer sequence = input.duplicate();
+    ((Buffer) sequence).limit(end);
+    ((Buffer) sequence).position(start);
+
+    // Malformed input is reported rather than replaced, to learn how many bytes a replacement
+    // character would have stood for.
+    if (decoder == null) {
+      decoder = StandardCharsets.UTF_8.newDecoder();
+    }
+    final CharBuffer decoded = CharBuffer.allocate(2);
+    decoder.reset();
+    final CoderResult result = decoder.decode(sequence, decoded, end == limit);
+    if (decoded.position() == 0) {
+      pos = start + (result.isMalformed() ? result.length() : 1);
+      return;
+    }
+
+    final char first = decoded.get(0);
+    if (Character.isHighSurrogate(first)) {
+      pendingChar = decoded.get(1);
+      pos = start + 4;
+    } else {
+      pos = start + ((first < 0x800) ? 2 : 3);
+    }
+  }
+
+  /**
+   * Returns the next byte that the state machine should see, discarding carriage returns and
+   * comments exactly as {@link CsvReader} does.
+   */
+  private int nextLexByte() {
+    int next = readByte();
+    if ((next == '\r') || (next == '#')) {
+      splice();
+      while (next == '\r') {
+        next = readByte();
+      }
+      while (next == '#') {
+        skipRestOfLine();
+        next = readByte();
+      }
+    }
+    return next;
+  }
+
+  private int readByte() {
+    return (pos < limit) ? (input.get(pos++) & 0xFF) : EOF;
+  }
+
+  /**
+   * Consumes the remainder of a line in the same way as
+   * {@link java.io.BufferedReader#readLine()}: the line ends at a '\n', a '\r', or a "\r\n" pair.
+   */
+  private void skipRestOfLine() {
+    while (pos < limit) {
+      final byte next = input.get(pos++);
+      if (next == '\n') {
+        return;
+      }
+      if (next == '\r') {
+        if ((pos < limit) && (input.get(pos) == '\n')) {
+          pos++;
+        }
+        return;
+      }
+    }
+  }
+
+  /**
+   * Copies a run of bytes which cannot end an unquoted field into the row.
+   */
+  private void copyUnquotedRun() {
+    copyRun(ByteScanner.endOfUnquotedRun(input, pos, limit));
+  }
+
+  /**
+   * Copies a run of bytes which need no special handling inside a quoted field into the row.
+   */
+  private void copyQuotedRun() {
+    copyRun(ByteScanner.endOfQuotedRun(input, pos, limit));
+  }
+
+  private void copyRun(final int runEnd) {
+    final int length = runEnd - pos;
+    if (length == 0) {
+      return;
+    }
+    ensureRowCapacity(length);
+    // Cast, as ByteBuffer only overrides position(int) from Java 9 onwards.
+    ((Buffer) input).position(pos);
+    input.get(rowBytes, write, length);
+    write += length;
+    pos = runEnd;
+  }
+
+  @SuppressWarnings("NumericCastThatLosesPrecision")
+  private void append(final int next) {
+    ensureRowCapacity(1);
+    rowBytes[write++] = (byte) next;
+  }
+
+  private void ensureRowCapacity(final int extra) {
+    if ((write + extra) > rowBytes.length) {
+      rowBytes = Arrays.copyOf(rowBytes, Integer.max(rowBytes.length * 2, write + extra));
+    }
+  }
+
+  private void splice() {
+    if (spliceCount == splices.length) {
+      splices = Arrays.copyOf(splices, spliceCount * 2);
+    }
+    splices[spliceCount++] = write;
+  }
+
+  private void addField(
+      final int start,
+      final boolean quoted) {
+
+    if (fieldCount == fieldStarts.length) {
+      final int newCapacity = fieldCount * 2;
+      fieldStarts = Arrays.copyOf(fieldStarts, newCapacity);
+      fieldEnds = Arrays.copyOf(fieldEnds, newCapacity);
+      fieldQuoted = Arrays.copyOf(fieldQuoted, newCapacity);
+    }
+    fieldStarts[fieldCount] = start;
+    fieldEnds[fieldCount] = write;
+    fieldQuoted[fieldCount] = quoted;
+    fieldCount++;
+  }
+
+  private final class LexedRow implements CsvRow {
+
+    @Override
+    @Contract(pure = true)
+    public int getLineNumber() {
+      return rowLineNum;
+    }
+
+    @Override
+    @Contract(pure = true)
+    public long getByteOffset() {
+      return rowByteOffset;
+    }
+
+    @Override
+    @Contract(pure = true)
+    public int size() {
+      return fieldCount;
+    }
+
+    @Override
+    @Contract(pure = true)
+    public boolean isEmpty() {
+      return fieldCount == 0;
+    }
+
+    @Override
+    @Nonnull
+    public CharSequence getField(final int index) {
+      return getFieldAsString(index);
+    }
+
+    @Override
+    @Nonnull
+    public String getFieldAsString(final int index) {
+      if ((index < 0) || (index >= fieldCount)) {
+        throw new IndexOutOfBoundsException(
+            "Field " + index + " requested from a row of " + fieldCount + " fields.");
+      }
+      return fieldValue(index);
+    }
+
+    @Override
+    @Nonnull
+    public List<String> toList() {
+      if (fieldCount == 0) {
+        return Collections.emptyList();
+      }
+      final List<String> fields = new ArrayList<>(fieldCount);
+      for (int fieldNum = 0; fieldNum < fieldCount; fieldNum++) {
+        fields.add(fieldValue(fieldNum));
+      }
+      return Collections.unmodifiableList(fields);
+    }
+
+    @Override
+    @Nonnull
+    public String toString() {
+      return toList().toString();
+    }
+  }
+
+  private enum CsvStates {
+    START_OF_FIELD,
+    LEXING_UNQUOTED_FIELD,
+    LEXING_QUOTED_FIELD,
+    ENDING_QUOTED_FIELD
+  }
+}
@@ -0,0 +1,239 @@
+package com.skillsforge.accountfeeds.input;
+
+import org.jetbrains.annotations.Contract;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * The body rows of a {@link FeedTable}, held outside the heap as UTF-8 in direct
+ * {@link ByteBuffer} arenas, so that the garbage collector never has to trace or copy them.
+ * <p>
+ * Each row is written as a run of fields, each one a variable-length int followed by that many
+ * bytes of UTF-8.  The int is the field's length plus one, so that a field whose column isn't kept
+ * can be written as a zero.  A row is never split between arenas, so it is found from two ints:
+ * the arena it is in and its offset into it.  A field is found by skipping over those before it,
+ * which is cheap for rows as narrow as a feed's, and is only decoded into a String when it is
+ * asked for.
+ * <p>
+ * Rows are added from one thread, but once they have all been added they can be read from any
+ * number of threads at once.
+ *
+ * @author agent
+ * @date 17-Oct-2026
+ */
+final class OffHeapRows {
+  // Rows longer than this get an arena to themselves.
+  static final int ARENA_SIZE = 1 << 22;
+  private static final int INITIAL_CAPACITY = 64;
+  private static final int MAX_VAR_INT_BYTES = 5;
+
+  @Nonnull
+  private final List<ByteBuffer> arenas = new ArrayList<>();
+  @Nullable
+  private ByteBuffer current = null;
+  @Nonnull
+  private int[] rowArenas = new int[INITIAL_CAPACITY];
+  @Nonnull
+  private int[] rowOffsets = new int[INITIAL_CAPACITY];
+  private int rowCount = 0;
+  // The row being added is encoded here first, so that it can be copied into an arena in one go.
+  @Nonnull
+  private byte[] scratch = new byte[1 << 10];
+
+  /**
+   * Adds a row after the last one added.
+   *
+   * @param fields the row's fields, where a null is a field whose column isn't kept.  Only the
+   *               first {@code width} are read.
+   */
+  void addRow(
+      @Nonnull final String[] fields,
+      final int width) {
+
+    if (rowCount == rowArenas.length) {
+      rowArenas = Arrays.copyOf(rowArenas, rowCount * 2);
+      rowOffsets = Arrays.copyOf(rowOffsets, rowCount * 2);
+    }
+
+    int size = 0;
+    for (int col = 0; col < width; col++) {
+      final String field = fields[col];
+      final int length = (field == null) ? -1 : utf8Length(field);
+      ensureScratch(size + MAX_VAR_INT_BYTES + Integer.max(0, length));
+      size = writeVarInt(length + 1, size);
+      if (field != null) {
+        size = encode(field, size);
+      }
+    }
+
+    ByteBuffer arena = current;
+    if ((arena == null) || (arena.remaining() < size)) {
+      arena = ByteBuffer.allocateDirect(Integer.max(ARENA_SIZE, size));
+      arenas.add(arena);
+      current = arena;
+    }
+    rowArenas[rowCount] = arenas.size() - 1;
+    rowOffsets[rowCount] = arena.position();
+    arena.put(scratch, 0, size);
+    rowCount++;
+  }
+
+  /**
+   * @return the field, or null if its column wasn't kept.  The column must be less than the
+   * width the row was added with.
+   */
+  @Nullable
+  @Contract(pure = true)
+  String get(
+      final int row,
+      final int col) {
+
+    final ByteBuffer arena = arenas.get(rowArenas[row]);
+    int pos = rowOffsets[row];
+    for (int field = 0; ; field++) {
+      int code = 0;
+      int shift = 0;
+      byte next;
+      do {
+        next = arena.get(pos++);
+        code |= (next & 0x7F) << shift;
+        shift += 7;
+      } while (next < 0);
+
+      if (field == col) {
+        return (code == 0) ? null : decode(arena, pos, code - 1);
+      }
+      pos += Integer.max(0, code - 1);
+    }
+  }
+
+  /**
+   * @return the number of bytes of direct memory taken by the arenas.
+   */
+  @Contract(pure = true)
+  long getCapacity() {
+    long capacity = 0;
+    for (final ByteBuffer arena : arenas) {
+      capacity += arena.capacity();
+    }
+    return capacity;
+  }
+
+  /**
+   * Drops every row.  The direct memory is given back once the arenas are garbage collected.
+   */
+  void release() {
+    arenas.clear();
+    current = null;
+    rowArenas = new int[0];
+    rowOffsets = new int[0];
+    scratch = new byte[0];
+  }
+
+  private void ensureScratch(final int size) {
+    if (scratch.length < size) {
+      scratch = Arrays.copyOf(scratch, Integer.max(size, scratch.length * 2));
+    }
+  }
+
+  private int writeVarInt(
+      final int value,
+      final int start) {
+
+    int pos = start;
+    int remaining = value;
+    while ((remaining & ~0x7F) != 0) {
+      scratch[pos++] = (byte) ((remaining & 0x7F) | 0x80);
+      remaining >>>= 7;
+    }
+    scratch[pos++] = (byte) remaining;
+    return pos;
+  }
+
+  /**
+   * Encodes as {@link String#getBytes} would with UTF-8: a surrogate that isn't part of a pair
+   * becomes a '?'.
+   */
+  private int encode(
+      @Nonnull final String value,
+      final int start) {
+
+    int pos = start;
+    final int length = value.length();
+    for (int i = 0; i < length; i++) {
+      final char next = value.charAt(i);
+      if (next < 0x80) {
+        scratch[pos++] = (byte) next;
+      } else if (next < 0x800) {
+        scratch[pos++] = (byte) (0xC0 | (next >> 6));
+        scratch[pos++] = (byte) (0x80 | (next & 0x3F));
+      } else if (isSurrogatePairAt(value, i)) {
+        final int codePoint = Character.toCodePoint(next, value.charAt(++i));
+        scratch[pos++] = (byte) (0xF0 | (codePoint >> 18));
+        scratch[pos++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+        scratch[pos++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+        scratch[pos++] = (byte) (0x80 | (codePoint & 0x3F));
+      } else if (Character.isSurrogate(next)) {
+        scratch[pos++] = (byte) '?';
+      } else {
+        scratch[pos++] = (byte) (0xE0 | (next >> 12));
+        scratch[pos++] = (byte) (0x80 | ((next >> 6) & 0x3F));
+        scratch[pos++] = (byte) (0x80 | (next & 0x3F));
+      }
+    }
+    return pos;
+  }
+
+  @Contract(pure = true)
+  private static int utf8Length(@Nonnull final String value) {
+    int bytes = 0;
+    final int length = value.length();
+    for (int i = 0; i < length; i++) {
+      final char next = value.charAt(i);
+      if (next < 0x80) {
+        bytes++;
+      } else if (next < 0x800) {
+        bytes += 2;
+      } else if (isSurrogatePairAt(value, i)) {
+        bytes += 4;
+        i++;
+      } else {
+        bytes += Character.isSurrogate(next) ? 1 : 3;
+      }
+    }
+    return bytes;
+  }
+
+  @Contract(pure = true)
+  private static boolean isSurrogatePairAt(
+      @Nonnull final String value,
+      final int index) {
+
+    return Character.isHighSurrogate(value.charAt(index)) && ((index + 1) < value.length())
+           && Character.isLowSurrogate(value.charAt(index + 1));
+  }
+
+  @Nonnull
+  private static String decode(
+      @Nonnull final ByteBuffer arena,
+      final int start,
+      final int length) {
+
+    if (length == 0) {
+      return "";
+    }
+    // Absolute reads leave the arena's position alone, so rows can be read from several threads.
+    final byte[] bytes = new byte[length];
+    for (int i = 0; i < length; i++) {
+      bytes[i] = arena.get(start + i);
+    }
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,130 @@
+package com.skillsforge.accountfeeds.input;
+
+import com.skillsforge.accountfeeds.config.FileKey;
+import com.skillsforge.accountfeeds.config.LogContext;
+import com.skillsforge.accountfeeds.config.ProgramState;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Validates input objects on a fork-join pool of --threads threads.
+ * <p>
+ * The objects are split into chunks which are validated on the pool, logging straight to the main
+ * state, each object in a {@link LogContext} of its own.  Then, back on the calling thread and in
+ * the order the objects were given, each result is passed on in the same context.  So the log, and
+ * anything done with the results, is the same as if the objects had been validated one after
+ * another.
+ *
+ * @author agent
+ * @date 17-Oct-2026
+ */
+public final class ParallelValidator implements AutoCloseable {
+  // Large enough that handing a chunk to another thread costs little next to validating it.
+  static final int CHUNK_SIZE = 1 << 11;
+
+  @Nonnull
+  private final ProgramState state;
+  // Null if there is only one thread, in which case everything is validated on the calling thread.
+  @Nullable
+  private final ForkJoinPool pool;
+
+  public ParallelValidator(@Nonnull final ProgramState state) {
+    this.state = state;
+    final int threads = state.getThreadCount();
+    this.pool = (threads > 1) ? new ForkJoinPool(threads) : null;
+  }
+
+  /**
+   * @param file      the file the inputs were read from, in the order they were read.
+   * @param validator given each input and the state it should log to, and returns the validated
+   *                  object, or null if the input isn't valid.
+   * @param results   given each validated object that isn't null, in the order of
+   *                  {@code inputs}.
+   */
+  public <I, O> void validate(
+      @Nonnull final FileKey file,
+      @Nonnull final List<I> inputs,
+      @Nonnull final BiFunction<I, ProgramState, O> validator,
+      @Nonnull final Consumer<O> results) {
+
+    if (pool == null) {
+      for (final I input : inputs) {
+        final O result = validator.apply(input, state);
+        if (result != null) {
+          results.accept(result);
+        }
+      }
+      return;
+    }
+
+    final long phase = state.reserveLogPhase();
+    final List<ForkJoinTask<List<Validated<O>>>> chunks = new ArrayList<>();
+    try {
+      for (int start = 0; start < inputs.size(); start += CHUNK_SIZE) {
+        final int first = start;
+        final List<I> chunk =
+            inputs.subList(start, Integer.min(start + CHUNK_SIZE, inputs.size()));
+        chunks.add(pool.submit(() -> validateChunk(phase, file, first, chunk, validator)));
+      }
+      for (final ForkJoinTask<List<Validated<O>>> chunk : chunks) {
+        for (final Validated<O> validated : chunk.join()) {
+          if (validated.result != null) {
+            state.inLogContext(validated.context, () -> results.accept(validated.result));
+          }
+        }
+      }
+    } finally {
+      // Nothing may still be logging in the phase once it is released.
+      chunks.forEach(ForkJoinTask::quietlyJoin);
+      state.releaseLogPhase();
+    }
+  }
+
+  @Override
+  public void close() {
+    if (pool != null) {
+      pool.shutdown();
+    }
+  }
+
+  @Nonnull
+  private <I, O> List<Validated<O>> validateChunk(
+      final long phase,
+      @Nonnull final FileKey file,
+      final int first,
+      @Nonnull final List<I> chunk,
+      @Nonnull final BiFunction<I, ProgramState, O> validator) {
+
+    final List<Validated<O>> validated = new ArrayList<>(chunk.size());
+    for (int i = 0; i < chunk.size(); i++) {
+      final I input = chunk.get(i);
+      final LogContext context = state.newLogContext(phase, file, first + i);
+      final O result = state.inLogContext(context, () -> validator.apply(input, state));
+      validated.add(new Validated<>(context, result));
+    }
+    return validated;
+  }
+
+  private static final class Validated<O> {
+    @Nonnull
+    private final LogContext context;
+    @Nullable
+    private final O result;
+
+    private Validated(
+        @Nonnull final LogContext context,
+        @Nullable final O result) {
+
+      this.context = context;
+      this.result = result;
+    }
+  }
+}
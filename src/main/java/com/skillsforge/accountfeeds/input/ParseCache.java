@@ -0,0 +1,740 @@
+package com.skillsforge.accountfeeds.input;
+
+import com.skillsforge.accountfeeds.config.LogLevel;
+import com.skillsforge.accountfeeds.config.LogLine;
+import com.skillsforge.accountfeeds.config.ProgramState;
+import com.skillsforge.accountfeeds.config.PropKey;
+
+import org.jetbrains.annotations.Contract;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import static com.skillsforge.accountfeeds.config.LogLevel.ERROR;
+import static com.skillsforge.accountfeeds.config.LogLevel.INFO;
+import static com.skillsforge.accountfeeds.config.LogLevel.WARN;
+
+/**
+ * Keeps the result of parsing each feed file on local disk, so that running check, lint and then
+ * upload over the same files only lexes them once.
+ * <p>
+ * Each source file has one entry, named after a hash of its canonical path.  An entry starts with
+ * the file's size, last-modified time and SHA-256 hash, and is only used while all three still
+ * match.  After that comes everything the reader produced, in the order it produced it: each row
+ * (its line number and fields), and each line the reader logged between rows.  Replaying an entry
+ * therefore hands the visitor the same rows, and the log the same lines, as parsing the file
+ * again would.  Fields are only decoded as they are asked for, so column projections still avoid
+ * building Strings.  The entry ends with a CRC32, which is checked before anything is replayed.
+ * <p>
+ * The cache is best-effort: any problem reading or writing an entry is logged as a warning, and
+ * the file is simply parsed.  Entries that have not been used for a week are deleted.
+ * <p>
+ * An entry holds every field of every row, so on POSIX systems the cache directory (if it is
+ * created here) and its entries can only be read by the user that created them.
+ *
+ * @author agent
+ * @date 17-Oct-2026
+ */
+public final class ParseCache {
+  private static final int MAGIC = 0x41465043;
+  // Bump this whenever a change to the readers would change the rows or log lines they produce.
+  private static final int FORMAT_VERSION = 2;
+  private static final int HASH_LENGTH = 32;
+  private static final int BUFFER_SIZE = 1 << 16;
+  private static final long STALE_AFTER_MILLIS = TimeUnit.DAYS.toMillis(7);
+  @Nonnull
+  private static final String ENTRY_SUFFIX = ".parsed";
+  @Nonnull
+  private static final String TEMP_SUFFIX = ".tmp";
+
+  private static final int RECORD_END = 0;
+  private static final int RECORD_ROW = 1;
+  private static final int RECORD_LOG = 2;
+
+  @Nonnull
+  private final File directory;
+
+  public ParseCache(@Nonnull final File directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * Parses a file into the parse cache, rather than straight into a visitor.
+   */
+  @FunctionalInterface
+  public interface Parser {
+    /**
+     * @param readState The state that the parser must log to.
+     */
+    void parse(@Nonnull ProgramState readState, @Nonnull RowVisitor visitor);
+  }
+
+  /**
+   * Hands every row of the file to the visitor, and logs whatever parsing it logs, either from
+   * this file's cache entry or by calling the parser (and then saving a new entry).
+   */
+  public void readFile(
+      @Nonnull final ProgramState state,
+      @Nonnull final File file,
+      @Nonnull final RowVisitor visitor,
+      @Nonnull final Parser parser) {
+
+    final Key key;
+    final File entry;
+    try {
+      key = Key.of(file);
+      entry = entryFor(file);
+    } catch (IOException e) {
+      state.log("PC.1", WARN, "Could not use the parse cache for %s: %s", file.getPath(),
+          e.getLocalizedMessage());
+      parser.parse(state, visitor);
+      return;
+    }
+
+    boolean valid;
+    try {
+      valid = isValid(entry, key);
+    } catch (IOException e) {
+      state.log("PC.1", WARN, "Could not use the parse cache for %s: %s", file.getPath(),
+          e.getLocalizedMessage());
+      valid = false;
+    }
+
+    if (valid) {
+      state.log(null, INFO, "%s: loaded from the parse cache.", file.getName());
+      try {
+        replay(state, entry, visitor);
+      } catch (IOException e) {
+        // Some rows may already have been handed on, so it is too late to parse the file instead.
+        state.log("PC.3", ERROR, "Could not finish reading %s from the parse cache (%s) - run "
+                                 + "again with --%s.", file.getPath(), e.getLocalizedMessage(),
+            PropKey.NO_PARSE_CACHE.argName());
+        state.setFatalErrorEncountered();
+        return;
+      }
+      //noinspection ResultOfMethodCallIgnored
+      entry.setLastModified(System.currentTimeMillis());
+      return;
+    }
+
+    state.log(null, INFO, "%s: not in the parse cache, or changed since it was cached.",
+        file.getName());
+    parseAndSave(state, file, key, entry, visitor, parser);
+  }
+
+  /**
+   * Deletes entries that have not been written or used for a week, so that caching files from a
+   * new directory every day doesn't fill the disk.
+   */
+  public void deleteStaleEntries() {
+    // Also clears up entries that were never finished, from runs that were killed part-way.
+    final File[] entries = directory.listFiles(
+        (dir, name) -> name.endsWith(ENTRY_SUFFIX) || name.endsWith(TEMP_SUFFIX));
+    if (entries == null) {
+      return;
+    }
+    final long staleBefore = System.currentTimeMillis() - STALE_AFTER_MILLIS;
+    for (final File entry : entries) {
+      if (entry.lastModified() < staleBefore) {
+        //noinspection ResultOfMethodCallIgnored
+        entry.delete();
+      }
+    }
+  }
+
+  @Nonnull
+  private File entryFor(@Nonnull final File file) throws IOException {
+    final byte[] pathHash =
+        sha256().digest(file.getCanonicalPath().getBytes(StandardCharsets.UTF_8));
+    final StringBuilder name = new StringBuilder();
+    for (int i = 0; i < 16; i++) {
+      name.append(String.format("%02x", pathHash[i]));
+    }
+    return new File(directory, name + ENTRY_SUFFIX);
+  }
+
+  @Contract(pure = true)
+  private static boolean isValid(
+      @Nonnull final File entry,
+      @Nonnull final Key key) throws IOException {
+
+    if (!entry.isFile() || (entry.length() < Long.BYTES)) {
+      return false;
+    }
+
+    final long bodyLength = entry.length() - Long.BYTES;
+    try (final DataInputStream input =
+             new DataInputStream(new BufferedInputStream(new FileInputStream(entry)))) {
+      if ((input.readInt() != MAGIC) || (input.readInt() != FORMAT_VERSION)
+          || (input.readLong() != key.size) || (input.readLong() != key.lastModified)) {
+        return false;
+      }
+      final byte[] hash = new byte[HASH_LENGTH];
+      input.readFully(hash);
+      if (!Arrays.equals(hash, key.hash)) {
+        return false;
+      }
+    }
+
+    final CRC32 checksum = new CRC32();
+    try (final DataInputStream input = new DataInputStream(new FileInputStream(entry))) {
+      final byte[] buffer = new byte[BUFFER_SIZE];
+      long remaining = bodyLength;
+      while (remaining > 0) {
+        final int read = input.read(buffer, 0, (int) Long.min(buffer.length, remaining));
+        if (read < 0) {
+          return false;
+        }
+        checksum.update(buffer, 0, read);
+        remaining -= read;
+      }
+      return input.readLong() == checksum.getValue();
+    }
+  }
+
+  private static void replay(
+      @Nonnull final ProgramState state,
+      @Nonnull final File entry,
+      @Nonnull final RowVisitor visitor) throws IOException {
+
+    try (final DataInputStream input = new DataInputStream(
+        new BufferedInputStream(new FileInputStream(entry), BUFFER_SIZE))) {
+
+      input.skipBytes((2 * Integer.BYTES) + (2 * Long.BYTES) + HASH_LENGTH);
+      final CachedRow row = new CachedRow();
+      while (true) {
+        final int record = input.readUnsignedByte();
+        if (record == RECORD_END) {
+          return;
+        }
+        if (record == RECORD_ROW) {
+          row.read(input);
+          visitor.visitRow(row);
+        } else if (record == RECORD_LOG) {
+          state.appendLogLine(readLogLine(input));
+        } else {
+          throw new IOException("Unknown record type " + record + " in " + entry.getPath());
+        }
+      }
+    }
+  }
+
+  private void parseAndSave(
+      @Nonnull final ProgramState state,
+      @Nonnull final File file,
+      @Nonnull final Key key,
+      @Nonnull final File entry,
+      @Nonnull final RowVisitor visitor,
+      @Nonnull final Parser parser) {
+
+    // The parser logs to its own state, so that its lines can be recorded as they are passed on.
+    final ProgramState readState = new ProgramState(state);
+    final Recorder recorder = new Recorder(state, readState, visitor);
+    File tempFile = null;
+    try {
+      createDirectory();
+      // Created readable only by its owner on POSIX systems.
+      tempFile = Files.createTempFile(directory.toPath(), "entry", TEMP_SUFFIX).toFile();
+      recorder.startRecording(tempFile, key);
+    } catch (IOException e) {
+      recorder.stopRecording(e);
+    }
+
+    parser.parse(readState, recorder);
+    recorder.flushLog();
+    state.mergeLogFrom(readState);
+
+    try {
+      // Don't save a file that was modified whilst it was being read, or that couldn't be read.
+      if (recorder.finishRecording() && !readState.hasFatalErrorBeenEncountered()
+          && key.hasSameSizeAndTimeAs(Key.withoutHash(file))) {
+        moveIntoPlace(tempFile, entry);
+        tempFile = null;
+      }
+    } catch (IOException e) {
+      recorder.stopRecording(e);
+    }
+
+    final IOException failure = recorder.getFailure();
+    if (failure != null) {
+      state.log("PC.2", WARN, "Could not save %s to the parse cache: %s", file.getPath(),
+          failure.getLocalizedMessage());
+    }
+    if (tempFile != null) {
+      //noinspection ResultOfMethodCallIgnored
+      tempFile.delete();
+    }
+  }
+
+  private void createDirectory() throws IOException {
+    if (directory.isDirectory()) {
+      return;
+    }
+    if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+      Files.createDirectories(directory.toPath(),
+          PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+    } else {
+      Files.createDirectories(directory.toPath());
+    }
+  }
+
+  private static void moveIntoPlace(
+      @Nonnull final File tempFile,
+      @Nonnull final File entry) throws IOException {
+
+    try {
+      Files.move(tempFile.toPath(), entry.toPath(), StandardCopyOption.ATOMIC_MOVE,
+          StandardCopyOption.REPLACE_EXISTING);
+    } catch (AtomicMoveNotSupportedException ignored) {
+      Files.move(tempFile.toPath(), entry.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  @Nonnull
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      // Every Java platform is required to support SHA-256.
+      throw new AssertionError("SHA-256 is not available.", e);
+    }
+  }
+
+  private static void writeLogLine(
+      @Nonnull final DataOutputStream output,
+      @Nonnull final LogLine line) throws IOException {
+
+    output.writeByte(line.getLevel().ordinal());
+    output.writeBoolean(line.isLintable());
+    final String code = line.getErrorCode();
+    output.writeBoolean(code != null);
+    if (code != null) {
+      writeString(output, code);
+    }
+    writeString(output, line.getErrorString());
+  }
+
+  @Nonnull
+  private static LogLine readLogLine(@Nonnull final DataInputStream input) throws IOException {
+    final int level = input.readUnsignedByte();
+    if (level >= LogLevel.values().length) {
+      throw new IOException("Unknown log level " + level);
+    }
+    final boolean lintable = input.readBoolean();
+    final String code = input.readBoolean() ? readString(input) : null;
+    return new LogLine(code, LogLevel.values()[level], lintable, readString(input));
+  }
+
+  /**
+   * Writes a String as its length in bytes (shifted left, with the bottom bit set if it holds any
+   * non-ASCII characters) and then its bytes.  Non-ASCII characters are written one UTF-16 unit at
+   * a time in one to three bytes, like Java's modified UTF-8, so that any String (even one with a
+   * lone surrogate) comes back exactly as it went in.  A field can be written straight from the
+   * reader's view of it, without building a String.
+   */
+  private static void writeString(
+      @Nonnull final DataOutputStream output,
+      @Nonnull final CharSequence value) throws IOException {
+
+    final int length = value.length();
+    int byteLength = 0;
+    for (int i = 0; i < length; i++) {
+      final char next = value.charAt(i);
+      byteLength += (next < 0x80) ? 1 : ((next < 0x800) ? 2 : 3);
+    }
+    if (byteLength == length) {
+      writeVarInt(output, byteLength << 1);
+      for (int i = 0; i < length; i++) {
+        output.write(value.charAt(i));
+      }
+      return;
+    }
+
+    writeVarInt(output, (byteLength << 1) | 1);
+    for (int i = 0; i < length; i++) {
+      final char next = value.charAt(i);
+      if (next < 0x80) {
+        output.write(next);
+      } else if (next < 0x800) {
+        output.write(0xC0 | (next >> 6));
+        output.write(0x80 | (next & 0x3F));
+      } else {
+        output.write(0xE0 | (next >> 12));
+        output.write(0x80 | ((next >> 6) & 0x3F));
+        output.write(0x80 | (next & 0x3F));
+      }
+    }
+  }
+
+  @Nonnull
+  private static String readString(@Nonnull final DataInputStream input) throws IOException {
+    final int header = readVarInt(input);
+    final byte[] bytes = new byte[header >>> 1];
+    input.readFully(bytes);
+    return decodeString(bytes, 0, bytes.length, (header & 1) != 0);
+  }
+
+  @Nonnull
+  private static String decodeString(
+      @Nonnull final byte[] bytes,
+      final int offset,
+      final int length,
+      final boolean hasNonAscii) {
+
+    if (length == 0) {
+      // As the readers do, so that empty fields are the same String whichever way they were read.
+      return "";
+    }
+    if (!hasNonAscii) {
+      return new String(bytes, offset, length, StandardCharsets.ISO_8859_1);
+    }
+    final char[] chars = new char[length];
+    int charCount = 0;
+    int index = offset;
+    final int end = offset + length;
+    while (index < end) {
+      final int first = bytes[index++] & 0xFF;
+      if (first < 0x80) {
+        chars[charCount++] = (char) first;
+      } else if (first < 0xE0) {
+        chars[charCount++] = (char) (((first & 0x1F) << 6) | (bytes[index++] & 0x3F));
+      } else {
+        chars[charCount++] = (char) (((first & 0x0F) << 12) | ((bytes[index++] & 0x3F) << 6)
+                                     | (bytes[index++] & 0x3F));
+      }
+    }
+    return new String(chars, 0, charCount);
+  }
+
+  private static void writeVarInt(
+      @Nonnull final DataOutputStream output,
+      final int value) throws IOException {
+
+    int rest = value;
+    while ((rest & ~0x7F) != 0) {
+      output.write((rest & 0x7F) | 0x80);
+      rest >>>= 7;
+    }
+    output.write(rest);
+  }
+
+  private static void writeVarLong(
+      @Nonnull final DataOutputStream output,
+      final long value) throws IOException {
+
+    long rest = value;
+    while ((rest & ~0x7FL) != 0) {
+      output.write((int) ((rest & 0x7F) | 0x80));
+      rest >>>= 7;
+    }
+    output.write((int) rest);
+  }
+
+  private static long readVarLong(@Nonnull final DataInputStream input) throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < Long.SIZE; shift += 7) {
+      final int next = input.readUnsignedByte();
+      value |= (long) (next & 0x7F) << shift;
+      if ((next & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Malformed offset in parse cache entry.");
+  }
+
+  private static int readVarInt(@Nonnull final DataInputStream input) throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+      final int next = input.readUnsignedByte();
+      value |= (next & 0x7F) << shift;
+      if ((next & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Malformed length in parse cache entry.");
+  }
+
+  /**
+   * What an entry has to match for it to be used.
+   */
+  private static final class Key {
+    private final long size;
+    private final long lastModified;
+    @Nullable
+    private final byte[] hash;
+
+    private Key(final long size, final long lastModified, @Nullable final byte[] hash) {
+      this.size = size;
+      this.lastModified = lastModified;
+      this.hash = hash;
+    }
+
+    @Nonnull
+    private static Key of(@Nonnull final File file) throws IOException {
+      final Key key = withoutHash(file);
+      final MessageDigest digest = sha256();
+      try (final InputStream input = new FileInputStream(file)) {
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = input.read(buffer)) >= 0) {
+          digest.update(buffer, 0, read);
+        }
+      }
+      return new Key(key.size, key.lastModified, digest.digest());
+    }
+
+    @Nonnull
+    @Contract(pure = true)
+    private static Key withoutHash(@Nonnull final File file) {
+      return new Key(file.length(), file.lastModified(), null);
+    }
+
+    @Contract(pure = true)
+    private boolean hasSameSizeAndTimeAs(@Nonnull final Key other) {
+      return (size == other.size) && (lastModified == other.lastModified);
+    }
+  }
+
+  /**
+   * Passes rows and log lines on as they are produced, and writes them to a new entry.
+   */
+  private static final class Recorder implements RowVisitor {
+    @Nonnull
+    private final ProgramState state;
+    @Nonnull
+    private final ProgramState readState;
+    @Nonnull
+    private final RowVisitor visitor;
+    @Nullable
+    private CRC32 checksum = null;
+    @Nullable
+    private FileOutputStream fileOutput = null;
+    @Nullable
+    private DataOutputStream output = null;
+    @Nullable
+    private IOException failure = null;
+    private long lastByteOffset = 0;
+
+    private Recorder(
+        @Nonnull final ProgramState state,
+        @Nonnull final ProgramState readState,
+        @Nonnull final RowVisitor visitor) {
+
+      this.state = state;
+      this.readState = readState;
+      this.visitor = visitor;
+    }
+
+    private void startRecording(
+        @Nonnull final File tempFile,
+        @Nonnull final Key key) throws IOException {
+
+      checksum = new CRC32();
+      fileOutput = new FileOutputStream(tempFile);
+      // Buffered ahead of the checksum, which is much quicker to update a block at a time than a
+      // byte at a time.
+      output = new DataOutputStream(new BufferedOutputStream(
+          new CheckedOutputStream(fileOutput, checksum), BUFFER_SIZE));
+      output.writeInt(MAGIC);
+      output.writeInt(FORMAT_VERSION);
+      output.writeLong(key.size);
+      output.writeLong(key.lastModified);
+      output.write((key.hash == null) ? new byte[HASH_LENGTH] : key.hash);
+    }
+
+    @Override
+    public void visitRow(@Nonnull final CsvRow row) {
+      flushLog();
+      if (output != null) {
+        try {
+          output.writeByte(RECORD_ROW);
+          writeVarInt(output, row.getLineNumber());
+          // Offsets only ever increase, so each is stored as the distance from the last (and an
+          // offset that wasn't counted, -1, as 0).
+          final long byteOffset = row.getByteOffset() + 1;
+          writeVarLong(output, byteOffset - lastByteOffset);
+          lastByteOffset = byteOffset;
+          final int size = row.size();
+          writeVarInt(output, size);
+          // Written from views of the fields, so that the columns the visitor doesn't keep (in
+          // QUICKCHECK mode) are never built as Strings.
+          for (int col = 0; col < size; col++) {
+            writeString(output, row.getField(col));
+          }
+        } catch (IOException e) {
+          stopRecording(e);
+        }
+      }
+      visitor.visitRow(row);
+    }
+
+    /**
+     * Passes on (and records) whatever the parser has logged since the last row.
+     */
+    private void flushLog() {
+      for (final LogLine line : readState.takeLogLines()) {
+        state.appendLogLine(line);
+        if (output != null) {
+          try {
+            output.writeByte(RECORD_LOG);
+            writeLogLine(output, line);
+          } catch (IOException e) {
+            stopRecording(e);
+          }
+        }
+      }
+    }
+
+    /**
+     * @return true if the whole entry was written.
+     */
+    private boolean finishRecording() throws IOException {
+      if ((output == null) || (fileOutput == null) || (checksum == null)) {
+        return false;
+      }
+      output.writeByte(RECORD_END);
+      output.flush();
+      new DataOutputStream(fileOutput).writeLong(checksum.getValue());
+      fileOutput.close();
+      output = null;
+      return true;
+    }
+
+    private void stopRecording(@Nonnull final IOException e) {
+      if (failure == null) {
+        failure = e;
+      }
+      if (fileOutput != null) {
+        try {
+          fileOutput.close();
+        } catch (IOException ignored) {
+          // Already failing.
+        }
+      }
+      output = null;
+    }
+
+    @Nullable
+    @Contract(pure = true)
+    private IOException getFailure() {
+      return failure;
+    }
+  }
+
+  /**
+   * A row read back from an entry, whose fields are decoded as they are asked for.
+   */
+  private static final class CachedRow implements CsvRow {
+    private int lineNumber = 0;
+    // One more than the offset, as it is recorded.
+    private long byteOffset = 0;
+    private int fieldCount = 0;
+    @Nonnull
+    private byte[] bytes = new byte[BUFFER_SIZE];
+    @Nonnull
+    private int[] offsets = new int[16];
+    @Nonnull
+    private int[] headers = new int[16];
+
+    private void read(@Nonnull final DataInputStream input) throws IOException {
+      lineNumber = readVarInt(input);
+      byteOffset += readVarLong(input);
+      fieldCount = readVarInt(input);
+      if (offsets.length < fieldCount) {
+        offsets = new int[Integer.max(fieldCount, offsets.length * 2)];
+        headers = new int[offsets.length];
+      }
+      int used = 0;
+      for (int field = 0; field < fieldCount; field++) {
+        final int header = readVarInt(input);
+        final int length = header >>> 1;
+        if ((used + length) > bytes.length) {
+          bytes = Arrays.copyOf(bytes, Integer.max(bytes.length * 2, used + length));
+        }
+        input.readFully(bytes, used, length);
+        offsets[field] = used;
+        headers[field] = header;
+        used += length;
+      }
+    }
+
+    @Override
+    @Contract(pure = true)
+    public int getLineNumber() {
+      return lineNumber;
+    }
+
+    @Override
+    @Contract(pure = true)
+    public long getByteOffset() {
+      return byteOffset - 1;
+    }
+
+    @Override
+    @Contract(pure = true)
+    public int size() {
+      return fieldCount;
+    }
+
+    @Override
+    @Contract(pure = true)
+    public boolean isEmpty() {
+      return fieldCount == 0;
+    }
+
+    @Override
+    @Nonnull
+    public CharSequence getField(final int index) {
+      return getFieldAsString(index);
+    }
+
+    @Override
+    @Nonnull
+    public String getFieldAsString(final int index) {
+      if ((index < 0) || (index >= fieldCount)) {
+        throw new IndexOutOfBoundsException(
+            "Field " + index + " requested from a row of " + fieldCount + " fields.");
+      }
+      return decodeString(bytes, offsets[index], headers[index] >>> 1,
+          (headers[index] & 1) != 0);
+    }
+
+    @Override
+    @Nonnull
+    public List<String> toList() {
+      if (fieldCount == 0) {
+        return Collections.emptyList();
+      }
+      final List<String> fields = new ArrayList<>(fieldCount);
+      for (int field = 0; field < fieldCount; field++) {
+        fields.add(getFieldAsString(field));
+      }
+      return Collections.unmodifiableList(fields);
+    }
+  }
+}
@@ -1,9 +1,15 @@
 package com.skillsforge.accountfeeds.input;
 
 import com.skillsforge.accountfeeds.config.FileKey;
+import com.skillsforge.accountfeeds.config.InputBackend;
+import com.skillsforge.accountfeeds.config.LogLevel;
+import com.skillsforge.accountfeeds.config.LogLine;
 import com.skillsforge.accountfeeds.config.OrganisationParameters;
 import com.skillsforge.accountfeeds.config.ProgramMode;
 import com.skillsforge.accountfeeds.config.ProgramState;
+import com.skillsforge.accountfeeds.config.PropKey;
+import com.skillsforge.accountfeeds.config.RowStorage;
+import com.skillsforge.accountfeeds.config.SampleMethod;
 import com.skillsforge.accountfeeds.exceptions.ParamException;
 import com.skillsforge.accountfeeds.inputmodels.InputGroup;
 import com.skillsforge.accountfeeds.inputmodels.InputGroupRole;
@@ -16,18 +22,35 @@ import org.jetbrains.annotations.Contract;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import static com.skillsforge.accountfeeds.config.LogLevel.ERROR;
 import static com.skillsforge.accountfeeds.config.LogLevel.INFO;
@@ -56,6 +79,23 @@ public class ParsedFeedFiles {
   @Nonnull
   private static final String[] GROUP_ROLES_HEADERS_V5 = {"GroupAlias", "RoleAlias"};
 
+  @Nonnull
+  private static final ColumnProjection USERS_KEY_COLUMNS =
+      ColumnProjection.of("UserID", "Username", "Email");
+  @Nonnull
+  private static final ColumnProjection GROUPS_KEY_COLUMNS = ColumnProjection.of("GroupAlias");
+  @Nonnull
+  private static final ColumnProjection USER_GROUPS_KEY_COLUMNS =
+      ColumnProjection.of("UserID", "GroupAlias");
+  @Nonnull
+  private static final ColumnProjection GROUP_ROLES_KEY_COLUMNS = ColumnProjection.of("GroupAlias");
+
+  // How many of the sampled rows with problems in each file have their problems logged.
+  private static final int MAX_SAMPLED_ROWS_LOGGED = 10;
+  // Treats every record as equal, so that spilled records stay in the order they were read.
+  @Nonnull
+  private static final Comparator<String[]> IN_ORDER_READ = (left, right) -> 0;
+
   @Nonnull
   private static final Pattern RE_USERS_METAHEADER_VALID_V5 = Pattern.compile("^[a-zA-Z0-9-_.]+$");
   @Nonnull
@@ -67,58 +107,442 @@ public class ParsedFeedFiles {
   @Nonnull
   private final OrganisationParameters orgParams;
   @Nonnull
-  private final List<List<String>> users = new LinkedList<>();
+  private final FeedTable users;
+  @Nonnull
+  private final FeedTable userGroups;
+  @Nonnull
+  private final FeedTable userRelationships;
+  @Nonnull
+  private final FeedTable groups;
+  @Nonnull
+  private final FeedTable groupRoles;
+  // The tables of the files that are read in the current mode, in the order they are read.
+  @Nonnull
+  private final Map<FileKey, FeedTable> tables = new EnumMap<>(FileKey.class);
+
+  // In QUICKCHECK mode only the key columns are kept, and UserRelationships isn't read at all.
+  private final boolean keyColumnsOnly;
+
+  // In SAMPLE mode nothing is read until checkSamples() is called, and then only a few rows.
+  private final boolean sampling;
+
+  // In streaming mode the tables above are never filled: each file is checked and turned into
+  // input objects as it is read, and these are populated instead, in the order of the file.
+  private final boolean streaming;
+  @Nonnull
+  private final List<InputUser> streamedUsers = new ArrayList<>();
+  @Nonnull
+  private final List<InputUserGroup> streamedUserGroups = new ArrayList<>();
   @Nonnull
-  private final List<List<String>> userGroups = new LinkedList<>();
+  private final List<InputUserRelationship> streamedUserRelationships = new ArrayList<>();
   @Nonnull
-  private final List<List<String>> userRelationships = new LinkedList<>();
+  private final List<InputGroup> streamedGroups = new ArrayList<>();
   @Nonnull
-  private final List<List<String>> groups = new LinkedList<>();
+  private final List<InputGroupRole> streamedGroupRoles = new ArrayList<>();
   @Nonnull
-  private final List<List<String>> groupRoles = new LinkedList<>();
+  private final List<StringPool> streamedPools = new LinkedList<>();
+
+  // With --max-heap-fraction, the fields of each InputUserRelationship are spilled here as it is
+  // built, in the order they were read, rather than the objects being held.  Until then the
+  // parsed rows of the file are held outside the heap.
+  @Nullable
+  private final ExternalSorter spilledUserRelationships;
+  private boolean spillFailed = false;
 
   // This is initialised as part of checkLayout(), so the CHECK phase needs to run before this is
   // accessed.
   @Nonnull
   private String metadataKeyCsvString = "";
 
+  // Only used whilst the files are being read in.
+  @Nullable
+  private final ForkJoinPool pool;
+  // Null if caching was turned off with --no-parse-cache.
+  @Nullable
+  private final ParseCache parseCache;
+  // Only used whilst the files are being read in, and null unless --source-zip was given.
+  @Nullable
+  private final FeedArchive sourceArchive;
+  // Copies of the files read from standard input or a named pipe, made as they are read when the
+  // files are to be uploaded afterwards.
+  @Nonnull
+  private final Map<FileKey, File> spooledFiles = new EnumMap<>(FileKey.class);
+
   public ParsedFeedFiles(
       @Nonnull final ProgramState state,
       @Nonnull final OrganisationParameters orgParams) {
 
     this.state = state;
     this.orgParams = orgParams;
+    this.keyColumnsOnly = state.getProgramMode() == ProgramMode.QUICKCHECK;
+    this.sampling = state.getProgramMode() == ProgramMode.SAMPLE;
+    this.streaming =
+        !keyColumnsOnly && !sampling && (state.getProperty(PropKey.STREAMING) != null);
+    // Half of the budget is left for the relationships once they have been validated.
+    final long heapBudget = state.getHeapBudget();
+    this.spilledUserRelationships = ((heapBudget > 0) && !keyColumnsOnly && !sampling)
+                                    ? new ExternalSorter(USER_RELATIONSHIPS_HEADERS_V5.length,
+                                        IN_ORDER_READ, heapBudget / 2)
+                                    : null;
+
+    final RowStorage storage = state.getRowStorage();
+    users = new FeedTable(keyColumnsOnly ? USERS_KEY_COLUMNS : ColumnProjection.ALL, storage);
+    userGroups =
+        new FeedTable(keyColumnsOnly ? USER_GROUPS_KEY_COLUMNS : ColumnProjection.ALL, storage);
+    userRelationships = new FeedTable(ColumnProjection.ALL,
+        (spilledUserRelationships == null) ? storage : RowStorage.OFF_HEAP);
+    groups = new FeedTable(keyColumnsOnly ? GROUPS_KEY_COLUMNS : ColumnProjection.ALL, storage);
+    groupRoles =
+        new FeedTable(keyColumnsOnly ? GROUP_ROLES_KEY_COLUMNS : ColumnProjection.ALL, storage);
+    tables.put(FileKey.INPUT_USERS, users);
+    tables.put(FileKey.INPUT_USER_GROUPS, userGroups);
+    if (!keyColumnsOnly) {
+      tables.put(FileKey.INPUT_USER_RELATIONSHIPS, userRelationships);
+    }
+    tables.put(FileKey.INPUT_GROUPS, groups);
+    tables.put(FileKey.INPUT_GROUP_ROLES, groupRoles);
+
+    if (sampling) {
+      this.parseCache = null;
+      this.sourceArchive = null;
+      this.pool = null;
+      return;
+    }
+
+    final File parseCacheDirectory = state.getParseCacheDirectory();
+    this.parseCache = (parseCacheDirectory == null) ? null : new ParseCache(parseCacheDirectory);
+    if (parseCache != null) {
+      parseCache.deleteStaleEntries();
+    }
 
-    readInFile(FileKey.INPUT_USERS, users);
-    readInFile(FileKey.INPUT_USER_GROUPS, userGroups);
-    readInFile(FileKey.INPUT_USER_RELATIONSHIPS, userRelationships);
-    readInFile(FileKey.INPUT_GROUPS, groups);
-    readInFile(FileKey.INPUT_GROUP_ROLES, groupRoles);
+    this.sourceArchive = openSourceArchive(state);
+    if (state.getProgramMode() == ProgramMode.UPLOAD) {
+      createSpoolFiles();
+    }
+    final int threads = state.getThreadCount();
+    this.pool = (threads > 1) ? new ForkJoinPool(threads) : null;
+    try {
+      if (streaming) {
+        streamInFiles();
+      } else if (pool == null) {
+        tables.forEach((fileKey, table) -> readInFile(state, fileKey, table));
+      } else {
+        readInFilesConcurrently(pool);
+      }
+    } finally {
+      if (pool != null) {
+        pool.shutdown();
+      }
+      closeSourceArchive();
+    }
   }
 
-  private void readInFile(
-      @Nonnull final FileKey fileKey,
-      @Nonnull final Collection<List<String>> multiList) {
+  @Nullable
+  private static FeedArchive openSourceArchive(@Nonnull final ProgramState state) {
+    final File zipFile = state.getFile(FileKey.SOURCE_ZIP);
+    if (zipFile == null) {
+      return null;
+    }
+    try {
+      return FeedArchive.open(zipFile);
+    } catch (IOException e) {
+      logReadProblem(state, zipFile.getPath(), e);
+      return null;
+    }
+  }
 
-    final File file = state.getFile(fileKey);
-    if (file != null) {
-      try (
-          final CsvReader csvReader = new CsvReader(
-              new InputStreamReader(new FileInputStream(file), UTF8),
-              state
-          )
-      ) {
-
-        multiList.addAll(csvReader.readFile());
+  /**
+   * Made before any file is read, since the files may be read on several threads at once.
+   */
+  private void createSpoolFiles() {
+    for (final FileKey fileKey : tables.keySet()) {
+      if (!state.isStream(fileKey)) {
+        continue;
+      }
+      try {
+        // Created readable only by its owner on POSIX systems, since it holds the whole feed.  It
+        // is still deleted on exit in case deleteSpooledFiles() is never reached.
+        final File spoolFile = Files.createTempFile("account-feed-", ".csv").toFile();
+        spoolFile.deleteOnExit();
+        spooledFiles.put(fileKey, spoolFile);
       } catch (IOException e) {
-        state.log("PFF.rif.1", ERROR, "Problem encountered whilst accessing file: %s: %s.",
-            file.getPath(),
-            e.getLocalizedMessage());
+        state.log("PFF.csf.1", ERROR, "Could not create a temporary file to hold the %s file "
+                                      + "for upload: %s.",
+            fileKey.getFileDescription(), e.getLocalizedMessage());
         state.setFatalErrorEncountered();
       }
     }
   }
 
+  private void closeSourceArchive() {
+    if (sourceArchive == null) {
+      return;
+    }
+    try {
+      sourceArchive.close();
+    } catch (IOException ignored) {
+      // Everything has already been read.
+    }
+  }
+
+  /**
+   * Reads all the files at once.  Each file is logged to its own state, and the logs are merged
+   * back in the same order that they would have been read one after another.
+   */
+  private void readInFilesConcurrently(@Nonnull final ForkJoinPool readPool) {
+    final List<ForkJoinTask<ProgramState>> reads = new LinkedList<>();
+    tables.forEach((fileKey, table) -> reads.add(
+        readPool.submit(() -> readInFile(new ProgramState(state), fileKey, table))));
+
+    for (final ForkJoinTask<ProgramState> read : reads) {
+      state.mergeLogFrom(read.join());
+    }
+  }
+
+  private void streamInFiles() {
+    state.log(null, INFO, "Checking syntax and layout of individual files, and building objects "
+                          + "as they are read:\n");
+
+    streamInFile(FileKey.INPUT_USERS, "Users", "InputUser",
+        this::checkUsersHeader,
+        (header, line) -> new InputUser(state, orgParams, line, getMetadataHeaders(header)),
+        streamedUsers::add, streamedUsers::size);
+    streamInFile(FileKey.INPUT_USER_GROUPS, "UserGroups", "InputUserGroup",
+        header -> checkHeader(header, USER_GROUPS_HEADERS_V5, "UserGroups", false),
+        (header, line) -> new InputUserGroup(state, line),
+        streamedUserGroups::add, streamedUserGroups::size);
+    streamInFile(FileKey.INPUT_USER_RELATIONSHIPS, "UserRelationships", "InputUserRelationship",
+        header -> checkHeader(header, USER_RELATIONSHIPS_HEADERS_V5, "UserRelationships", false),
+        (header, line) -> new InputUserRelationship(state, line),
+        (spilledUserRelationships == null)
+        ? streamedUserRelationships::add
+        : this::spillUserRelationship,
+        (spilledUserRelationships == null)
+        ? streamedUserRelationships::size
+        : spilledUserRelationships::size);
+    streamInFile(FileKey.INPUT_GROUPS, "Groups", "InputGroup",
+        header -> checkHeader(header, GROUPS_HEADERS_V5, "Groups", false),
+        (header, line) -> new InputGroup(state, line, orgParams),
+        streamedGroups::add, streamedGroups::size);
+    streamInFile(FileKey.INPUT_GROUP_ROLES, "GroupRoles", "InputGroupRole",
+        header -> checkHeader(header, GROUP_ROLES_HEADERS_V5, "GroupRoles", false),
+        (header, line) -> new InputGroupRole(state, line),
+        streamedGroupRoles::add, streamedGroupRoles::size);
+
+    logStringPoolSavings(streamedPools);
+  }
+
+  private <T> void streamInFile(
+      @Nonnull final FileKey fileKey,
+      @Nonnull final String fileType,
+      @Nonnull final String modelType,
+      @Nonnull final Consumer<List<String>> headerChecker,
+      @Nonnull final BiFunction<List<String>, List<String>, T> modelBuilder,
+      @Nonnull final Consumer<T> models,
+      @Nonnull final LongSupplier modelCount) {
+
+    final FeedSampler rowSource = openRowSource(fileKey);
+    final StreamingVisitor<T> visitor =
+        new StreamingVisitor<>(fileType, headerChecker, modelBuilder, models, rowSource);
+    try {
+      readInFile(state, fileKey, visitor);
+    } finally {
+      closeRowSource(rowSource);
+    }
+    streamedPools.add(visitor.pool);
+
+    if (visitor.lineNum == 0) {
+      state.log(null, INFO, "%s file: is blank.  No assessment of this file will take place.",
+          fileType);
+      return;
+    }
+    state.log(null, INFO, "Completed checking %s file.", fileType);
+    state.log(null, INFO, "+ Built %d %s object(s).", modelCount.getAsLong(), modelType);
+  }
+
+  @Nonnull
+  private ProgramState readInFile(
+      @Nonnull final ProgramState fileState,
+      @Nonnull final FileKey fileKey,
+      @Nonnull final RowVisitor visitor) {
+
+    if (sourceArchive != null) {
+      readInArchiveEntry(fileState, sourceArchive, fileKey, visitor);
+      return fileState;
+    }
+
+    if (fileState.isStream(fileKey)) {
+      readInStream(fileState, fileKey, spooledFiles.get(fileKey), visitor);
+      return fileState;
+    }
+
+    final File file = fileState.getFile(fileKey);
+    if (file == null) {
+      return fileState;
+    }
+
+    if (parseCache == null) {
+      parseFile(fileState, file, visitor);
+    } else {
+      parseCache.readFile(fileState, file, visitor,
+          (readState, recorder) -> parseFile(readState, file, recorder));
+    }
+    return fileState;
+  }
+
+  /**
+   * Entries are inflated straight into the plain reader.  They are not put in the parse cache,
+   * which works on files.
+   */
+  private static void readInArchiveEntry(
+      @Nonnull final ProgramState fileState,
+      @Nonnull final FeedArchive archive,
+      @Nonnull final FileKey fileKey,
+      @Nonnull final RowVisitor visitor) {
+
+    final String filename = fileState.getProperty(fileKey.getFilePathProp());
+    final ZipEntry entry = (filename == null) ? null : archive.getEntry(filename);
+    if (entry == null) {
+      fileState.log("PFF.rif.2", ERROR, "Could not find the %s file (%s) in %s.",
+          fileKey.getFileDescription(), filename, archive.getFile().getPath());
+      fileState.setFatalErrorEncountered();
+      return;
+    }
+
+    try (
+        final CsvReader csvReader = new CsvReader(
+            new InputStreamReader(readAhead(fileState, archive.getInputStream(entry)), UTF8),
+            fileState
+        )
+    ) {
+
+      csvReader.readFile(visitor);
+    } catch (IOException e) {
+      logReadProblem(fileState, archive.getPath(entry), e);
+    }
+  }
+
+  /**
+   * Standard input and named pipes can only be read once, from start to end, so they always use
+   * the plain reader and are not put in the parse cache.  If {@code spoolFile} is given, what is
+   * read is also copied into it.
+   */
+  private static void readInStream(
+      @Nonnull final ProgramState fileState,
+      @Nonnull final FileKey fileKey,
+      @Nullable final File spoolFile,
+      @Nonnull final RowVisitor visitor) {
+
+    final File file = fileState.getFile(fileKey);
+    final String path = (file == null) ? "standard input" : file.getPath();
+    try (
+        final CsvReader csvReader = new CsvReader(
+            new InputStreamReader(readAhead(fileState,
+                GzipInput.inflateIfGzipped(openStream(file, spoolFile))), UTF8),
+            fileState
+        )
+    ) {
+
+      csvReader.readFile(visitor);
+    } catch (IOException e) {
+      logReadProblem(fileState, path, e);
+    }
+  }
+
+  /**
+   * @return standard input if {@code file} is null, or else the file, copied into
+   * {@code spoolFile} as it is read if that is given.
+   */
+  @Nonnull
+  private static InputStream openStream(
+      @Nullable final File file,
+      @Nullable final File spoolFile) throws IOException {
+
+    final InputStream input = (file == null) ? System.in : new FileInputStream(file);
+    if (spoolFile == null) {
+      return input;
+    }
+    try {
+      return new SpoolingInputStream(input, spoolFile);
+    } catch (IOException e) {
+      input.close();
+      throw e;
+    }
+  }
+
+  private void parseFile(
+      @Nonnull final ProgramState fileState,
+      @Nonnull final File file,
+      @Nonnull final RowVisitor visitor) {
+
+    // Compressed files can only be read from start to end, so they always use the plain reader.
+    final boolean gzipped = GzipInput.isGzipped(file);
+    if (!gzipped && (fileState.getInputBackend() == InputBackend.MAPPED)
+        && MappedCsvReader.canMap(file)) {
+      try (final MappedCsvReader mappedReader = MappedCsvReader.open(file, fileState)) {
+        mappedReader.readFile(visitor);
+      } catch (IOException e) {
+        logReadProblem(fileState, file.getPath(), e);
+      }
+      return;
+    }
+
+    // The chunked reader builds every field of a row as a String before the header has been seen,
+    // so it is not used when only some columns are wanted.
+    if (!gzipped && (pool != null) && !keyColumnsOnly
+        && ChunkedCsvReader.isWorthSplitting(file)) {
+      try {
+        new ChunkedCsvReader(file, fileState, pool).readFile(visitor);
+      } catch (IOException e) {
+        logReadProblem(fileState, file.getPath(), e);
+      }
+      return;
+    }
+
+    try (
+        final CsvReader csvReader = new CsvReader(
+            new InputStreamReader(readAhead(fileState,
+                gzipped ? GzipInput.open(file) : new FileInputStream(file)), UTF8),
+            fileState
+        )
+    ) {
+
+      // Offsets into the inflated content of a compressed file would be no use for re-reading it.
+      if (!gzipped) {
+        csvReader.countByteOffsets(0);
+      }
+      csvReader.readFile(visitor);
+    } catch (IOException e) {
+      logReadProblem(fileState, file.getPath(), e);
+    }
+  }
+
+  /**
+   * @return the input, read on a thread of its own (inflating it there too, if it is compressed)
+   * if --read-ahead was given.
+   */
+  @Nonnull
+  private static InputStream readAhead(
+      @Nonnull final ProgramState fileState,
+      @Nonnull final InputStream input) {
+
+    final int bufferSize = fileState.getReadAheadBufferSize();
+    return (bufferSize == 0)
+           ? input
+           : new ReadAheadInputStream(input, bufferSize, fileState.getReadAheadDepth());
+  }
+
+  private static void logReadProblem(
+      @Nonnull final ProgramState state,
+      @Nonnull final String path,
+      @Nonnull final IOException e) {
+
+    state.log("PFF.rif.1", ERROR, "Problem encountered whilst accessing file: %s: %s.",
+        path,
+        e.getLocalizedMessage());
+    state.setFatalErrorEncountered();
+  }
+
   @Nonnull
   @Contract(pure = true)
   public static List<String> getUsersHeaders() {
@@ -150,30 +574,57 @@ public class ParsedFeedFiles {
   }
 
   public void checkLayout() {
+    if (streaming || sampling) {
+      // Already checked whilst the files were read.
+      return;
+    }
     state.log(null, INFO, "Checking syntax and layout of individual files:\n");
 
     checkUsersLayout();
-    checkGenericLayout(groups, GROUPS_HEADERS_V5, "Groups");
-    checkGenericLayout(userGroups, USER_GROUPS_HEADERS_V5, "UserGroups");
-    checkGenericLayout(userRelationships, USER_RELATIONSHIPS_HEADERS_V5, "UserRelationships");
-    checkGenericLayout(groupRoles, GROUP_ROLES_HEADERS_V5, "GroupRoles");
+    checkGenericLayout(FileKey.INPUT_GROUPS, groups, GROUPS_HEADERS_V5, "Groups");
+    checkGenericLayout(FileKey.INPUT_USER_GROUPS, userGroups, USER_GROUPS_HEADERS_V5,
+        "UserGroups");
+    if (!keyColumnsOnly) {
+      checkGenericLayout(FileKey.INPUT_USER_RELATIONSHIPS, userRelationships,
+          USER_RELATIONSHIPS_HEADERS_V5, "UserRelationships");
+    }
+    checkGenericLayout(FileKey.INPUT_GROUP_ROLES, groupRoles, GROUP_ROLES_HEADERS_V5,
+        "GroupRoles");
+
+    logStringPoolSavings(Arrays.asList(users.getStringPool(), groups.getStringPool(),
+        userGroups.getStringPool(), userRelationships.getStringPool(),
+        groupRoles.getStringPool()));
+    if (state.getRowStorage() == RowStorage.OFF_HEAP) {
+      final long offHeapBytes =
+          tables.values().stream().mapToLong(FeedTable::getOffHeapBytes).sum();
+      state.log(null, INFO, "Held the parsed rows in %d KiB of direct memory, outside the heap.",
+          offHeapBytes / 1024);
+    }
+  }
+
+  private void logStringPoolSavings(@Nonnull final Collection<StringPool> pools) {
+    final long duplicates = pools.stream().mapToLong(StringPool::getDuplicateCount).sum();
+    final long bytesSaved = pools.stream().mapToLong(StringPool::getBytesSaved).sum();
+    state.log(null, INFO, "Shared %d repeated field value(s) between rows, saving roughly %d KiB "
+                          + "of heap.", duplicates, bytesSaved / 1024);
   }
 
   private void checkGenericLayout(
-      @Nonnull final List<List<String>> multiList,
+      @Nonnull final FileKey fileKey,
+      @Nonnull final FeedTable table,
       @Nonnull final String[] headers,
       @Nonnull final String fileType) {
 
-    if (multiList.isEmpty()) {
+    if (table.isEmpty()) {
       state.log(null, INFO, "%s file: is blank.  No assessment of this file will take place.",
           fileType);
       return;
     }
 
-    final List<String> headerLine = multiList.iterator().next();
+    final List<String> headerLine = table.getHeader();
 
     checkHeader(headerLine, headers, fileType, false);
-    checkBody(multiList, headerLine.size(), fileType);
+    checkBody(fileKey, table, headerLine.size(), fileType);
 
     state.log(null, INFO, "Completed checking %s file.", fileType);
   }
@@ -184,7 +635,16 @@ public class ParsedFeedFiles {
       return;
     }
 
-    final List<String> header = users.iterator().next();
+    final List<String> header = users.getHeader();
+    checkUsersHeader(header);
+    checkBody(FileKey.INPUT_USERS, users, header.size(), "Users");
+
+    state.log(null, INFO, "Completed checking Users file.");
+  }
+
+  private void checkUsersHeader(
+      @Nonnull final List<String> header) {
+
     checkHeader(header, USERS_HEADERS_V5, "Users", true);
 
     // There must be at least one metadata column, due to a bug in the sync servlet.
@@ -195,7 +655,7 @@ public class ParsedFeedFiles {
           + " and at least one metadata column.");
     }
 
-    final List<String> metadataHeaders = header.subList(8, header.size());
+    final List<String> metadataHeaders = getMetadataHeaders(header);
     this.metadataKeyCsvString = String.join(",", metadataHeaders);
     state.log(null, INFO, "Users file: Metadata columns are: %s.", metadataHeaders.toString());
 
@@ -218,10 +678,16 @@ public class ParsedFeedFiles {
             headerName);
       }
     }
+  }
 
-    checkBody(users, headerCount, "Users");
+  @Nonnull
+  @Contract(pure = true)
+  private static List<String> getMetadataHeaders(
+      @Nonnull final List<String> header) {
 
-    state.log(null, INFO, "Completed checking Users file.");
+    return (header.size() > USERS_HEADERS_V5.length)
+           ? header.subList(USERS_HEADERS_V5.length, header.size())
+           : Collections.emptyList();
   }
 
   private void checkHeader(
@@ -263,55 +729,387 @@ public class ParsedFeedFiles {
     }
   }
 
-  @SuppressWarnings("MethodWithMultipleLoops")
   private void checkBody(
-      @Nonnull final List<List<String>> multiList,
+      @Nonnull final FileKey fileKey,
+      @Nonnull final FeedTable table,
       final int headerCount,
       @Nonnull final String fileType) {
 
-    int lineNum = 0;
-    for (final List<String> line : multiList) {
-      lineNum++;
-      if (lineNum == 1) {
+    final FeedSampler rowSource = table.hasByteOffsets() ? openRowSource(fileKey) : null;
+    try {
+      // Line numbers count the header as line 1.
+      for (int row = 0; row < table.getRowCount(); row++) {
+        checkBodyLine(state, table.getRow(row), row + 2, headerCount, fileType, rowSource,
+            table.getByteOffset(row));
+      }
+    } finally {
+      closeRowSource(rowSource);
+    }
+  }
+
+  /**
+   * Opens a feed file so that rows can be re-read from it, to show as they were written in error
+   * messages.  Compressed files, zip archive entries and streams can't be read from the middle.
+   *
+   * @return null if the rows of the file can't be re-read.
+   */
+  @Nullable
+  private FeedSampler openRowSource(@Nonnull final FileKey fileKey) {
+    final File file = state.getFile(fileKey);
+    if ((file == null) || (state.getFile(FileKey.SOURCE_ZIP) != null) || state.isStream(fileKey)
+        || GzipInput.isGzipped(file)) {
+      return null;
+    }
+    try {
+      return FeedSampler.open(file);
+    } catch (IOException ignored) {
+      return null;
+    }
+  }
+
+  private static void closeRowSource(@Nullable final FeedSampler rowSource) {
+    if (rowSource == null) {
+      return;
+    }
+    try {
+      rowSource.close();
+    } catch (IOException ignored) {
+      // It was only read from.
+    }
+  }
+
+  /**
+   * @return the row as it was written in the file if it can be re-read, or else its first field.
+   */
+  @Nonnull
+  private static String describeRow(
+      @Nonnull final List<String> line,
+      @Nullable final FeedSampler rowSource,
+      final long byteOffset) {
+
+    if ((rowSource != null) && (byteOffset >= 0)) {
+      try {
+        return rowSource.readRowText(byteOffset);
+      } catch (IOException ignored) {
+        // Fall back to what was parsed.
+      }
+    }
+    return line.get(0);
+  }
+
+  /**
+   * @return "Line N", or if the line number isn't known, where the row starts in the file.
+   */
+  @Nonnull
+  @Contract(pure = true)
+  private static String describePosition(
+      final int lineNum,
+      final long byteOffset) {
+
+    return (lineNum > 0) ? ("Line " + lineNum) : ("Row at byte " + byteOffset);
+  }
+
+  /**
+   * @param lineNum 0 if the line number isn't known, as for a sampled row.
+   */
+  private static void checkBodyLine(
+      @Nonnull final ProgramState lineState,
+      @Nonnull final List<String> line,
+      final int lineNum,
+      final int headerCount,
+      @Nonnull final String fileType,
+      @Nullable final FeedSampler rowSource,
+      final long byteOffset) {
+
+    if (line.isEmpty()) {
+      if (lineState.getProgramMode() != ProgramMode.LINT) {
+        lineState.log("PFF.cb.1", WARN, "%s file: %s is blank.", fileType,
+            describePosition(lineNum, byteOffset));
+      }
+      return;
+    }
+    if (line.size() != headerCount) {
+      lineState.log("PFF.cb.2", ERROR,
+          "%s file: %s has the wrong number of columns - expected %d, "
+          + "but found %d: %s",
+          fileType, describePosition(lineNum, byteOffset), headerCount, line.size(),
+          describeRow(line, rowSource, byteOffset));
+    }
+
+    int colNum = 0;
+    for (final String column : line) {
+      colNum++;
+      // Columns left out of the projection read as null.
+      if ((column != null) && !column.equals(column.trim())) {
+        lineState.log("PFF.cb.3", WARN,
+            "%s file: %s Column %d (%s) begins or ends with whitespace - "
+            + "this will be trimmed when uploaded: %s",
+            fileType, describePosition(lineNum, byteOffset), colNum, column, line.get(0));
+      }
+    }
+  }
+
+  /**
+   * Checks just the columns read in QUICKCHECK mode: that every UserID, Username, Email and
+   * GroupAlias is present, well formed and unique, and that UserGroups and GroupRoles only refer
+   * to users and groups that exist.
+   */
+  public void checkKeyColumns() {
+    state.log(null, INFO, "Checking key columns:\n");
+    final Patterns patterns = orgParams.getPatterns();
+
+    final Set<String> userIds =
+        checkKeyColumn(users, "Users", "UserID", patterns::isValidUserId, ERROR, true);
+    checkKeyColumn(users, "Users", "Username", patterns::isValidUsername, ERROR, true);
+    checkKeyColumn(users, "Users", "Email", patterns::isValidEmail, WARN, false);
+    final Set<String> groupAliases =
+        checkKeyColumn(groups, "Groups", "GroupAlias", patterns::isValidGroupAlias, ERROR, true);
+
+    checkReferences(userGroups, "UserGroups", "UserID", userIds, "Users");
+    checkReferences(userGroups, "UserGroups", "GroupAlias", groupAliases, "Groups");
+    checkReferences(groupRoles, "GroupRoles", "GroupAlias", groupAliases, "Groups");
+
+    state.log(null, INFO, "+ All key columns checked.\n");
+  }
+
+  /**
+   * @param ignoreCase whether values that differ only in case are duplicates, as they are when the
+   *                   objects are indexed.  Values are always trimmed before being compared.
+   * @return every value in the column, lower-cased, for checking references against.
+   */
+  @Nonnull
+  private Set<String> checkKeyColumn(
+      @Nonnull final FeedTable table,
+      @Nonnull final String fileType,
+      @Nonnull final String columnName,
+      @Nonnull final Predicate<String> isValid,
+      @Nonnull final LogLevel duplicateLevel,
+      final boolean ignoreCase) {
+
+    final Set<String> valuesLowerCase = new HashSet<>();
+    final int col = table.getHeader().indexOf(columnName);
+    if (col < 0) {
+      // The layout check has already complained about the header.
+      return valuesLowerCase;
+    }
+
+    final Map<String, Integer> lineNumsByValue = new HashMap<>();
+    for (int row = 0; row < table.getRowCount(); row++) {
+      final int lineNum = row + 2;
+      final int width = table.getWidth(row);
+      if (width == 0) {
         continue;
       }
-      if (line.isEmpty()) {
-        if (state.getProgramMode() != ProgramMode.LINT) {
-          state.log("PFF.cb.1", WARN, "%s file: Line %d is blank.", fileType, lineNum);
-        }
+      final String value = (col < width) ? table.get(row, col) : null;
+      if ((value == null) || value.trim().isEmpty()) {
+        state.log("PFF.ckc.1", ERROR, "%s file: Line %d has no %s.", fileType, lineNum,
+            columnName);
+        continue;
+      }
+      if (!isValid.test(value.trim())) {
+        state.log("PFF.ckc.2", ERROR, "%s file: Line %d has an invalid %s: '%s'.", fileType,
+            lineNum, columnName, value);
+      }
+      final String valueLowerCase = value.trim().toLowerCase();
+      final Integer firstLineNum =
+          lineNumsByValue.putIfAbsent(ignoreCase ? valueLowerCase : value.trim(), lineNum);
+      if (firstLineNum != null) {
+        state.log("PFF.ckc.3", duplicateLevel, "%s file: Line %d has the same %s as line %d: '%s'.",
+            fileType, lineNum, columnName, firstLineNum, value);
+      }
+      valuesLowerCase.add(valueLowerCase);
+    }
+    return valuesLowerCase;
+  }
+
+  private void checkReferences(
+      @Nonnull final FeedTable table,
+      @Nonnull final String fileType,
+      @Nonnull final String columnName,
+      @Nonnull final Set<String> knownValuesLowerCase,
+      @Nonnull final String targetFileType) {
+
+    final int col = table.getHeader().indexOf(columnName);
+    if (col < 0) {
+      return;
+    }
+
+    for (int row = 0; row < table.getRowCount(); row++) {
+      final int lineNum = row + 2;
+      final int width = table.getWidth(row);
+      if (width == 0) {
+        continue;
+      }
+      final String value = (col < width) ? table.get(row, col) : null;
+      if ((value == null) || value.trim().isEmpty()) {
+        state.log("PFF.ckc.1", ERROR, "%s file: Line %d has no %s.", fileType, lineNum,
+            columnName);
         continue;
       }
-      if (line.size() != headerCount) {
-        state.log("PFF.cb.2", ERROR,
-            "%s file: Line %d has the wrong number of columns - expected %d, "
-            + "but found %d: %s",
-            fileType, lineNum, headerCount, line.size(), line.get(0));
-      }
-
-      int colNum = 0;
-      for (final String column : line) {
-        colNum++;
-        if (!column.equals(column.trim())) {
-          state.log("PFF.cb.3", WARN,
-              "%s file: Line %d Column %d (%s) begins or ends with whitespace - "
-              + "this will be trimmed when uploaded: %s",
-              fileType, lineNum, colNum, column, line.get(0));
+      if (!knownValuesLowerCase.contains(value.trim().toLowerCase())) {
+        state.log("PFF.ckc.4", ERROR,
+            "%s file: Line %d refers to the %s '%s', which does not exist in the %s file.",
+            fileType, lineNum, columnName, value, targetFileType);
+      }
+    }
+  }
+
+  /**
+   * Checks the header of each file and a sample of its rows, in SAMPLE mode.  The sampled rows are
+   * checked as they would be by a full check, apart from anything that needs the rest of the feed
+   * (duplicates, and references between files), and the proportion of all the rows in each file
+   * with errors or warnings is estimated from them.
+   */
+  public void checkSamples() {
+    state.log(null, INFO, "Checking the layout of each file, and a sample of its rows:\n");
+    if (state.getFile(FileKey.SOURCE_ZIP) != null) {
+      state.log("PFF.cs.1", ERROR, "Files in a zip archive can only be read from start to end, so "
+                                   + "they cannot be sampled - use check or quickcheck instead.");
+      state.setFatalErrorEncountered();
+      return;
+    }
+
+    final Random random = new Random();
+    sampleFile(FileKey.INPUT_USERS, "Users", this::checkUsersHeader,
+        (rowState, header, line) -> new InputUser(rowState, orgParams, line,
+            getMetadataHeaders(header)).validateAllFields(),
+        random);
+    sampleFile(FileKey.INPUT_USER_GROUPS, "UserGroups",
+        header -> checkHeader(header, USER_GROUPS_HEADERS_V5, "UserGroups", false),
+        (rowState, header, line) -> new InputUserGroup(rowState, line),
+        random);
+    sampleFile(FileKey.INPUT_USER_RELATIONSHIPS, "UserRelationships",
+        header -> checkHeader(header, USER_RELATIONSHIPS_HEADERS_V5, "UserRelationships", false),
+        (rowState, header, line) -> new InputUserRelationship(rowState, line),
+        random);
+    sampleFile(FileKey.INPUT_GROUPS, "Groups",
+        header -> checkHeader(header, GROUPS_HEADERS_V5, "Groups", false),
+        (rowState, header, line) -> new InputGroup(rowState, line, orgParams).validateAllFields(),
+        random);
+    sampleFile(FileKey.INPUT_GROUP_ROLES, "GroupRoles",
+        header -> checkHeader(header, GROUP_ROLES_HEADERS_V5, "GroupRoles", false),
+        (rowState, header, line) -> new InputGroupRole(rowState, line),
+        random);
+
+    state.log(null, INFO, "+ All samples checked.  Rows were found by seeking to line breaks, so "
+                          + "a value containing a line break may have been misread as the start "
+                          + "of a row.  Duplicates, and references between files, were not "
+                          + "checked - use check or quickcheck for those.\n");
+  }
+
+  private void sampleFile(
+      @Nonnull final FileKey fileKey,
+      @Nonnull final String fileType,
+      @Nonnull final Consumer<List<String>> headerChecker,
+      @Nonnull final SampledRowChecker rowChecker,
+      @Nonnull final Random random) {
+
+    if (state.isStream(fileKey)) {
+      state.log("PFF.cs.3", WARN, "%s file: is read from standard input or a pipe, so can only be "
+                                  + "read from start to end and cannot be sampled - use check or "
+                                  + "quickcheck instead.",
+          fileType);
+      return;
+    }
+    final File file = state.getFile(fileKey);
+    if (file == null) {
+      return;
+    }
+    if (GzipInput.isGzipped(file)) {
+      state.log("PFF.cs.2", WARN, "%s file: is compressed, so can only be read from start to end "
+                                  + "and cannot be sampled - use check or quickcheck instead.",
+          fileType);
+      return;
+    }
+
+    final List<String> header;
+    final List<FeedSampler.SampledRow> rows;
+    final long dataLength;
+    try (final FeedSampler sampler = FeedSampler.open(file)) {
+      header = sampler.readHeader(state);
+      if (header.isEmpty()) {
+        state.log(null, INFO, "%s file: is blank.  No assessment of this file will take place.",
+            fileType);
+        return;
+      }
+      headerChecker.accept(header);
+      rows = sampler.sample(state, state.getSampleRows(), state.getSampleMethod(), random);
+      dataLength = sampler.getDataLength();
+    } catch (IOException e) {
+      logReadProblem(state, file.getPath(), e);
+      return;
+    }
+
+    int rowsWithErrors = 0;
+    int rowsWithWarnings = 0;
+    int rowsLogged = 0;
+    long sampledBytes = 0;
+    for (final FeedSampler.SampledRow row : rows) {
+      sampledBytes += row.getLength();
+      final ProgramState rowState = row.getState();
+      final List<String> line = row.getFields();
+      if (line != null) {
+        checkBodyLine(rowState, line, 0, header.size(), fileType, null, row.getOffset());
+        if (!line.isEmpty()) {
+          rowChecker.check(rowState, header, line);
         }
       }
+
+      final List<LogLine> logLines = rowState.takeLogLines();
+      final boolean hasErrors = logLines.stream().anyMatch(LogLine::isError);
+      final boolean hasWarnings = logLines.stream().anyMatch(LogLine::isWarning);
+      rowsWithErrors += hasErrors ? 1 : 0;
+      rowsWithWarnings += hasWarnings ? 1 : 0;
+      if ((hasErrors || hasWarnings) && (rowsLogged < MAX_SAMPLED_ROWS_LOGGED)) {
+        rowsLogged++;
+        state.log(null, INFO, "%s file: The sampled row at byte %d:",
+            fileType, row.getOffset());
+        logLines.forEach(state::appendLogLine);
+      }
+    }
+
+    if (rows.isEmpty()) {
+      state.log(null, INFO, "%s file: has no rows after the header.", fileType);
+    } else if (sampledBytes >= dataLength) {
+      // Every row was picked, so there is nothing to estimate.
+      state.log(null, INFO, "%s file: Checked all %d row(s): %d had errors, and %d had warnings.",
+          fileType, rows.size(), rowsWithErrors, rowsWithWarnings);
+    } else {
+      final long estimatedRows = Math.round((dataLength * (double) rows.size()) / sampledBytes);
+      state.log(null, INFO, "%s file: Checked a %s sample of %d row(s), out of an estimated %d.",
+          fileType, state.getSampleMethod().name().toLowerCase(), rows.size(), estimatedRows);
+      logEstimatedRate(fileType, "errors", rowsWithErrors, rows.size());
+      logEstimatedRate(fileType, "warnings", rowsWithWarnings, rows.size());
     }
+    state.log(null, INFO, "Completed checking %s file.", fileType);
+  }
+
+  private void logEstimatedRate(
+      @Nonnull final String fileType,
+      @Nonnull final String problems,
+      final int sampledRowsWithProblems,
+      final int sampledRows) {
+
+    final double[] interval = FeedSampler.confidenceInterval(sampledRowsWithProblems, sampledRows);
+    state.log(null, INFO, "%s file: %d sampled row(s) had %s - an estimated %.1f%% of all rows "
+                          + "(95%% confidence interval %.1f%% to %.1f%%).",
+        fileType, sampledRowsWithProblems, problems,
+        (100.0 * sampledRowsWithProblems) / sampledRows, 100.0 * interval[0], 100.0 * interval[1]);
   }
 
   @Nonnull
-  public Collection<InputUser> generateUserModels() {
+  public List<InputUser> generateUserModels() {
+    if (streaming) {
+      return streamedUsers;
+    }
     state.log(null, INFO, "Building InputUser objects:");
 
-    final Collection<InputUser> objects = new HashSet<>();
-    final List<String> headerLine = users.iterator().next();
-    final List<String> metadataHeaders = headerLine.subList(8, headerLine.size());
+    final List<InputUser> objects = new ArrayList<>();
+    final List<String> metadataHeaders = getMetadataHeaders(users.getHeader());
 
-    for (final List<String> line : users.subList(1, users.size())) {
-      if (!line.isEmpty()) {
-        objects.add(new InputUser(state, orgParams, line, metadataHeaders));
+    for (int row = 0; row < users.getRowCount(); row++) {
+      if (users.getWidth(row) != 0) {
+        objects.add(new InputUser(state, orgParams, users.getRow(row), metadataHeaders));
       }
     }
 
@@ -320,14 +1118,17 @@ public class ParsedFeedFiles {
   }
 
   @Nonnull
-  public Collection<InputGroup> generateGroupModels() {
+  public List<InputGroup> generateGroupModels() {
+    if (streaming) {
+      return streamedGroups;
+    }
     state.log(null, INFO, "Building InputGroup objects:");
 
-    final Collection<InputGroup> objects = new HashSet<>();
+    final List<InputGroup> objects = new ArrayList<>();
 
-    for (final List<String> line : groups.subList(1, groups.size())) {
-      if (!line.isEmpty()) {
-        objects.add(new InputGroup(state, line, orgParams));
+    for (int row = 0; row < groups.getRowCount(); row++) {
+      if (groups.getWidth(row) != 0) {
+        objects.add(new InputGroup(state, groups.getRow(row), orgParams));
       }
     }
 
@@ -336,14 +1137,17 @@ public class ParsedFeedFiles {
   }
 
   @Nonnull
-  public Collection<InputGroupRole> generateGroupRoleModels() {
+  public List<InputGroupRole> generateGroupRoleModels() {
+    if (streaming) {
+      return streamedGroupRoles;
+    }
     state.log(null, INFO, "Building InputGroupRole objects:");
 
-    final Collection<InputGroupRole> objects = new HashSet<>();
+    final List<InputGroupRole> objects = new ArrayList<>();
 
-    for (final List<String> line : groupRoles.subList(1, groupRoles.size())) {
-      if (!line.isEmpty()) {
-        objects.add(new InputGroupRole(state, line));
+    for (int row = 0; row < groupRoles.getRowCount(); row++) {
+      if (groupRoles.getWidth(row) != 0) {
+        objects.add(new InputGroupRole(state, groupRoles.getRow(row)));
       }
     }
 
@@ -352,14 +1156,17 @@ public class ParsedFeedFiles {
   }
 
   @Nonnull
-  public Collection<InputUserGroup> generateUserGroupModels() {
+  public List<InputUserGroup> generateUserGroupModels() {
+    if (streaming) {
+      return streamedUserGroups;
+    }
     state.log(null, INFO, "Building InputUserGroup objects:");
 
-    final Collection<InputUserGroup> objects = new HashSet<>();
+    final List<InputUserGroup> objects = new ArrayList<>();
 
-    for (final List<String> line : userGroups.subList(1, userGroups.size())) {
-      if (!line.isEmpty()) {
-        objects.add(new InputUserGroup(state, line));
+    for (int row = 0; row < userGroups.getRowCount(); row++) {
+      if (userGroups.getWidth(row) != 0) {
+        objects.add(new InputUserGroup(state, userGroups.getRow(row)));
       }
     }
 
@@ -368,14 +1175,17 @@ public class ParsedFeedFiles {
   }
 
   @Nonnull
-  public Collection<InputUserRelationship> generateUserRelationshipModels() {
+  public List<InputUserRelationship> generateUserRelationshipModels() {
+    if (streaming) {
+      return streamedUserRelationships;
+    }
     state.log(null, INFO, "Building InputUserRelationship objects:");
 
-    final Collection<InputUserRelationship> objects = new HashSet<>();
+    final List<InputUserRelationship> objects = new ArrayList<>();
 
-    for (final List<String> line : userRelationships.subList(1, userRelationships.size())) {
-      if (!line.isEmpty()) {
-        objects.add(new InputUserRelationship(state, line));
+    for (int row = 0; row < userRelationships.getRowCount(); row++) {
+      if (userRelationships.getWidth(row) != 0) {
+        objects.add(new InputUserRelationship(state, userRelationships.getRow(row)));
       }
     }
 
@@ -383,6 +1193,90 @@ public class ParsedFeedFiles {
     return objects;
   }
 
+  /**
+   * Builds the InputUserRelationship objects as {@link #generateUserRelationshipModels()} does,
+   * but spills the fields of each to disk rather than holding on to them, for
+   * --max-heap-fraction.
+   *
+   * @return the fields of each relationship (as given by {@link InputUserRelationship#getFields()})
+   * in the order they were read.  The caller closes it once they have been read back.
+   */
+  @Nonnull
+  public ExternalSorter spillUserRelationshipModels() {
+    if (spilledUserRelationships == null) {
+      throw new IllegalStateException(
+          "UserRelationships are only spilled to disk with --max-heap-fraction.");
+    }
+    if (streaming) {
+      return spilledUserRelationships;
+    }
+    state.log(null, INFO, "Building InputUserRelationship objects:");
+
+    for (int row = 0; row < userRelationships.getRowCount(); row++) {
+      if (userRelationships.getWidth(row) != 0) {
+        spillUserRelationship(new InputUserRelationship(state, userRelationships.getRow(row)));
+      }
+    }
+
+    state.log(null, INFO, "+ Built %d InputUserRelationship object(s).",
+        spilledUserRelationships.size());
+    return spilledUserRelationships;
+  }
+
+  private void spillUserRelationship(@Nonnull final InputUserRelationship relationship) {
+    if ((spilledUserRelationships == null) || spillFailed) {
+      return;
+    }
+    try {
+      spilledUserRelationships.add(relationship.getFields());
+    } catch (IOException e) {
+      state.log("PFF.sur.1", ERROR, "Could not spill the UserRelationships to a temporary file: "
+                                    + "%s.", e.getLocalizedMessage());
+      state.setFatalErrorEncountered();
+      spillFailed = true;
+    }
+  }
+
+  /**
+   * @return the copy made of a file read from standard input or a named pipe, or null if none was
+   * made (because the file isn't a stream, or the mode is not upload).
+   */
+  @Nullable
+  @Contract(pure = true)
+  public File getSpooledFile(@Nonnull final FileKey fileKey) {
+    return spooledFiles.get(fileKey);
+  }
+
+  /**
+   * Deletes the UserRelationships spilled to disk, if the caller of
+   * {@link #spillUserRelationshipModels()} hasn't already, or it was never called.
+   */
+  public void deleteSpilledUserRelationships() {
+    if (spilledUserRelationships != null) {
+      spilledUserRelationships.close();
+    }
+  }
+
+  /**
+   * Deletes the copies made of files read from standard input or a named pipe, once they have been
+   * uploaded or there is no upload to make.
+   */
+  public void deleteSpooledFiles() {
+    for (final File spoolFile : spooledFiles.values()) {
+      // If it can't be deleted now, it will be on exit.
+      //noinspection ResultOfMethodCallIgnored
+      spoolFile.delete();
+    }
+    spooledFiles.clear();
+  }
+
+  /**
+   * Drops the parsed rows of every file, once the input objects have been built from them.
+   */
+  public void releaseRows() {
+    tables.values().forEach(FeedTable::releaseRows);
+  }
+
   @Nonnull
   public String getMetadataKeyCsvString() throws ParamException {
     if (metadataKeyCsvString.isEmpty()) {
@@ -390,4 +1284,68 @@ public class ParsedFeedFiles {
     }
     return metadataKeyCsvString;
   }
+
+  /**
+   * Checks a row sampled in SAMPLE mode, logging its problems to the row's own state.
+   */
+  @FunctionalInterface
+  private interface SampledRowChecker {
+    void check(
+        @Nonnull ProgramState rowState,
+        @Nonnull List<String> header,
+        @Nonnull List<String> line);
+  }
+
+  /**
+   * Checks each row of a file as it is read, and turns it straight into an input object.
+   */
+  private final class StreamingVisitor<T> implements RowVisitor {
+    @Nonnull
+    private final String fileType;
+    @Nonnull
+    private final Consumer<List<String>> headerChecker;
+    @Nonnull
+    private final BiFunction<List<String>, List<String>, T> modelBuilder;
+    @Nonnull
+    private final Consumer<T> models;
+    @Nonnull
+    private final StringPool pool = new StringPool();
+    // Null if the rows of the file can't be re-read.
+    @Nullable
+    private final FeedSampler rowSource;
+    @Nonnull
+    private List<String> header = Collections.emptyList();
+    private int lineNum = 0;
+
+    private StreamingVisitor(
+        @Nonnull final String fileType,
+        @Nonnull final Consumer<List<String>> headerChecker,
+        @Nonnull final BiFunction<List<String>, List<String>, T> modelBuilder,
+        @Nonnull final Consumer<T> models,
+        @Nullable final FeedSampler rowSource) {
+
+      this.fileType = fileType;
+      this.headerChecker = headerChecker;
+      this.modelBuilder = modelBuilder;
+      this.models = models;
+      this.rowSource = rowSource;
+    }
+
+    @Override
+    public void visitRow(@Nonnull final CsvRow row) {
+      lineNum++;
+      final List<String> line = pool.internRow(row);
+      if (lineNum == 1) {
+        header = line;
+        headerChecker.accept(header);
+        return;
+      }
+
+      checkBodyLine(state, line, lineNum, header.size(), fileType, rowSource,
+          row.getByteOffset());
+      if (!line.isEmpty()) {
+        models.accept(modelBuilder.apply(header, line));
+      }
+    }
+  }
 }
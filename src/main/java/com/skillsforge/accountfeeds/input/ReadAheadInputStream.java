@@ -0,0 +1,222 @@
+package com.skillsforge.accountfeeds.input;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Reads a stream on a thread of its own, so that the lexer isn't left waiting whenever it needs
+ * more input (which on a network mount can take a while).  A fixed number of large buffers is
+ * passed back and forth: whilst the lexer works through one, the producer thread fills the
+ * others.  With two buffers, this is double buffering.
+ * <p>
+ * Anything wrapped by this stream (for instance a gzip inflater) is also run on the producer
+ * thread.  An IOException from the wrapped stream is thrown to the reader once it has read
+ * everything before the failure.
+ *
+ * @author agent
+ * @date 17-Oct-2026
+ */
+public final class ReadAheadInputStream extends InputStream {
+  public static final int MIN_DEPTH = 2;
+  public static final int DEFAULT_DEPTH = 2;
+
+  @Nonnull
+  private static final AtomicInteger threadCount = new AtomicInteger(0);
+  // Passed to the reader in place of a chunk once the wrapped stream is exhausted.
+  @Nonnull
+  private static final Chunk END_OF_STREAM = new Chunk(new byte[0], -1, null);
+
+  @Nonnull
+  private final InputStream source;
+  @Nonnull
+  private final BlockingQueue<byte[]> emptyBuffers;
+  @Nonnull
+  private final BlockingQueue<Chunk> filledChunks;
+  @Nonnull
+  private final Thread producer;
+  private volatile boolean closed = false;
+
+  // The buffer being read from, owned by the reader until the next chunk is taken.
+  @Nullable
+  private byte[] current = null;
+  private int position = 0;
+  private int limit = 0;
+  private boolean finished = false;
+
+  /**
+   * @param bufferSize The size of each buffer, in bytes.
+   * @param depth      How many buffers there are, at least {@link #MIN_DEPTH}.
+   */
+  public ReadAheadInputStream(
+      @Nonnull final InputStream source,
+      final int bufferSize,
+      final int depth) {
+
+    if ((bufferSize < 1) || (depth < MIN_DEPTH)) {
+      throw new IllegalArgumentException(
+          "Read-ahead needs buffers of at least 1 byte, and at least " + MIN_DEPTH + " of them.");
+    }
+    this.source = source;
+    emptyBuffers = new ArrayBlockingQueue<>(depth);
+    for (int buffer = 0; buffer < depth; buffer++) {
+      emptyBuffers.add(new byte[bufferSize]);
+    }
+    filledChunks = new ArrayBlockingQueue<>(depth + 1);
+
+    producer = new Thread(this::produce, "read-ahead-" + threadCount.incrementAndGet());
+    producer.setDaemon(true);
+    producer.start();
+  }
+
+  private void produce() {
+    try {
+      while (!closed) {
+        final byte[] buffer = emptyBuffers.take();
+        int length = 0;
+        IOException failure = null;
+        try {
+          while (length < buffer.length) {
+            final int read = source.read(buffer, length, buffer.length - length);
+            if (read < 0) {
+              break;
+            }
+            length += read;
+          }
+        } catch (IOException e) {
+          failure = e;
+        }
+
+        // The queue has room for every buffer and one more chunk, so these never block.
+        if (length > 0) {
+          filledChunks.put(new Chunk(buffer, length, null));
+        }
+        if (failure != null) {
+          filledChunks.put(new Chunk(new byte[0], -1, failure));
+          return;
+        }
+        if (length < buffer.length) {
+          filledChunks.put(END_OF_STREAM);
+          return;
+        }
+      }
+    } catch (InterruptedException ignored) {
+      // Only interrupted by close(), so nobody is waiting for the rest.
+    }
+  }
+
+  @Override
+  public int read() throws IOException {
+    if ((position == limit) && !nextChunk()) {
+      return -1;
+    }
+    //noinspection ConstantConditions
+    return current[position++] & 0xff;
+  }
+
+  @Override
+  public int read(
+      @Nonnull final byte[] bytes,
+      final int offset,
+      final int length) throws IOException {
+
+    if ((offset < 0) || (length < 0) || (length > (bytes.length - offset))) {
+      throw new IndexOutOfBoundsException();
+    }
+    if (length == 0) {
+      return 0;
+    }
+    if ((position == limit) && !nextChunk()) {
+      return -1;
+    }
+    final int count = Integer.min(length, limit - position);
+    //noinspection ConstantConditions
+    System.arraycopy(current, position, bytes, offset, count);
+    position += count;
+    return count;
+  }
+
+  @Override
+  public int available() {
+    return limit - position;
+  }
+
+  /**
+   * Hands the current buffer back to the producer, and waits for the next one.
+   *
+   * @return false at the end of the stream.
+   */
+  private boolean nextChunk() throws IOException {
+    if (finished) {
+      return false;
+    }
+    if (current != null) {
+      emptyBuffers.add(current);
+      current = null;
+    }
+
+    final Chunk chunk;
+    try {
+      chunk = filledChunks.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted whilst waiting for the input to be read.");
+    }
+    if (chunk.failure != null) {
+      finished = true;
+      throw chunk.failure;
+    }
+    if (chunk == END_OF_STREAM) {
+      finished = true;
+      return false;
+    }
+    current = chunk.buffer;
+    position = 0;
+    limit = chunk.length;
+    return true;
+  }
+
+  /**
+   * Stops the producer thread (after any read it is part-way through), then closes the wrapped
+   * stream.
+   */
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    producer.interrupt();
+    try {
+      producer.join();
+    } catch (InterruptedException ignored) {
+      Thread.currentThread().interrupt();
+    } finally {
+      source.close();
+    }
+  }
+
+  private static final class Chunk {
+    @Nonnull
+    private final byte[] buffer;
+    private final int length;
+    @Nullable
+    private final IOException failure;
+
+    private Chunk(
+        @Nonnull final byte[] buffer,
+        final int length,
+        @Nullable final IOException failure) {
+
+      this.buffer = buffer;
+      this.length = length;
+      this.failure = failure;
+    }
+  }
+}
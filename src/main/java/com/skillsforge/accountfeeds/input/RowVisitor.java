@@ -0,0 +1,20 @@
+package com.skillsforge.accountfeeds.input;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Receives each row of a CSV file from {@link CsvReader#readFile(RowVisitor)} as soon as it has
+ * been lexed.
+ *
+ * @author agent
+ * @date 17-Oct-2026
+ */
+@FunctionalInterface
+public interface RowVisitor {
+
+  /**
+   * The row (and any field views obtained from it) is only valid until this method returns, so
+   * implementations must copy out whatever they intend to keep.
+   */
+  void visitRow(@Nonnull CsvRow row);
+}
@@ -0,0 +1,87 @@
+package com.skillsforge.accountfeeds.input;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Copies everything read from a stream that can only be read once (standard input, or a named
+ * pipe) into a file, so that it can be sent on afterwards.  The rest of the stream is copied over
+ * when it is closed, so the file is complete even if reading stopped early.
+ *
+ * @author agent
+ * @date 17-Oct-2026
+ */
+public final class SpoolingInputStream extends FilterInputStream {
+  private static final int SPOOL_BUFFER_SIZE = 1 << 16;
+
+  @Nonnull
+  private final OutputStream spool;
+  private boolean closed = false;
+
+  public SpoolingInputStream(
+      @Nonnull final InputStream input,
+      @Nonnull final File spoolFile) throws IOException {
+
+    super(input);
+    this.spool = new BufferedOutputStream(new FileOutputStream(spoolFile), SPOOL_BUFFER_SIZE);
+  }
+
+  @Override
+  public int read() throws IOException {
+    final int read = super.read();
+    if (read >= 0) {
+      spool.write(read);
+    }
+    return read;
+  }
+
+  @Override
+  public int read(
+      @Nonnull final byte[] b,
+      final int off,
+      final int len) throws IOException {
+
+    final int read = super.read(b, off, len);
+    if (read > 0) {
+      spool.write(b, off, read);
+    }
+    return read;
+  }
+
+  @Override
+  public long skip(final long n) throws IOException {
+    // Skipped bytes must still be copied.
+    final byte[] skipped = new byte[(int) Long.min(n, SPOOL_BUFFER_SIZE)];
+    final int read = read(skipped, 0, skipped.length);
+    return Long.max(0, read);
+  }
+
+  @Override
+  public boolean markSupported() {
+    return false;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try (final OutputStream toClose = spool) {
+      final byte[] buffer = new byte[SPOOL_BUFFER_SIZE];
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        toClose.write(buffer, 0, read);
+      }
+    } finally {
+      super.close();
+    }
+  }
+}
@@ -0,0 +1,149 @@
+package com.skillsforge.accountfeeds.input;
+
+import org.jetbrains.annotations.Contract;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Hands back one shared String for each repeated value in a column of a feed file, so that
+ * columns such as GroupAlias, RoleAlias, the Delete flags and most metadata only hold a String per
+ * distinct value rather than one per row.
+ * <p>
+ * Each column has its own pool, which holds at most {@link #MAX_ENTRIES_PER_COLUMN} values.  Pools
+ * watch how often they are hit: once a column has shown itself to be mostly distinct values (such
+ * as UserID or Email), its pool is thrown away and later values from that column are passed
+ * straight through.
+ *
+ * @author agent
+ * @date 17-Oct-2026
+ */
+public final class StringPool {
+  private static final int MAX_ENTRIES_PER_COLUMN = 4096;
+  // Number of values between checks on whether a column's pool is paying its way.
+  private static final int WINDOW = 1024;
+
+  @Nonnull
+  private final List<ColumnPool> columns = new ArrayList<>();
+  private long duplicateCount = 0;
+  private long bytesSaved = 0;
+
+  /**
+   * @return the pooled String equal to value, or value itself if there isn't one.
+   */
+  @Nonnull
+  public String intern(final int column, @Nonnull final String value) {
+    while (columns.size() <= column) {
+      columns.add(new ColumnPool());
+    }
+    final String pooled = columns.get(column).intern(value);
+    if (pooled != value) {
+      duplicateCount++;
+      bytesSaved += estimateSize(value);
+    }
+    return pooled;
+  }
+
+  /**
+   * Unlike {@link #intern(int, String)}, this neither adds to the pool nor counts towards its
+   * statistics, so once nothing more is being interned it can be called from any number of threads
+   * at once.
+   *
+   * @return the pooled String equal to value, or value itself if there isn't one.
+   */
+  @Nonnull
+  @Contract(pure = true)
+  public String lookup(final int column, @Nonnull final String value) {
+    return (column < columns.size()) ? columns.get(column).lookup(value) : value;
+  }
+
+  /**
+   * @return an unmodifiable copy of every field in the row, as {@link CsvRow#toList()} would
+   * return, but with each field pooled.
+   */
+  @Nonnull
+  public List<String> internRow(@Nonnull final CsvRow row) {
+    final int size = row.size();
+    if (size == 0) {
+      return Collections.emptyList();
+    }
+    final List<String> fields = new ArrayList<>(size);
+    for (int col = 0; col < size; col++) {
+      fields.add(intern(col, row.getFieldAsString(col)));
+    }
+    return Collections.unmodifiableList(fields);
+  }
+
+  /**
+   * @return the number of values that were replaced with an existing String.
+   */
+  @Contract(pure = true)
+  public long getDuplicateCount() {
+    return duplicateCount;
+  }
+
+  /**
+   * @return a rough count of the heap bytes taken by the Strings that were replaced.
+   */
+  @Contract(pure = true)
+  public long getBytesSaved() {
+    return bytesSaved;
+  }
+
+  /**
+   * Assumes a compact (one byte per character) String: a 24 byte String object plus a byte array
+   * with a 16 byte header, padded to 8 bytes.  This under-estimates Strings with wider characters,
+   * and Java 8's two byte chars.
+   */
+  @Contract(pure = true)
+  private static long estimateSize(@Nonnull final String value) {
+    return 24 + (((16 + value.length()) + 7) & ~7);
+  }
+
+  private static final class ColumnPool {
+    @Nullable
+    private Map<String, String> entries = new HashMap<>();
+    private int windowCount = 0;
+    private int windowHits = 0;
+
+    @Nonnull
+    private String intern(@Nonnull final String value) {
+      if (entries == null) {
+        return value;
+      }
+
+      String pooled = entries.get(value);
+      if (pooled == null) {
+        if (entries.size() < MAX_ENTRIES_PER_COLUMN) {
+          entries.put(value, value);
+        }
+        pooled = value;
+      } else {
+        windowHits++;
+      }
+
+      windowCount++;
+      if (windowCount == WINDOW) {
+        // Give up on columns where fewer than half the values are repeats.
+        if (windowHits < (WINDOW / 2)) {
+          entries = null;
+        }
+        windowCount = 0;
+        windowHits = 0;
+      }
+      return pooled;
+    }
+
+    @Nonnull
+    @Contract(pure = true)
+    private String lookup(@Nonnull final String value) {
+      return (entries == null) ? value : entries.getOrDefault(value, value);
+    }
+  }
+}
@@ -56,25 +56,25 @@ public final class CommonMethods {
     if ((oGroupAlias == null) || oGroupAlias.trim().isEmpty()) {
       state.log("CM.vga.1",
           ERROR, "The GroupAlias column is blank - it must be filled with a GroupAlias: %s",
-          inputObject.toString());
+          inputObject);
       return null;
     }
     if (!oGroupAlias.trim().equals(oGroupAlias)) {
       state.log("CM.vga.2", ERROR, true,
           "[WARNING-LINTABLE] The GroupAlias will be trimmed of whitespace when "
-          + "uploaded: %s", inputObject.toString());
+          + "uploaded: %s", inputObject);
     }
     final InputGroup group = indexes.getGroupByAliasIgnoreCase(oGroupAlias);
     if (group == null) {
       state.log("CM.vga.3", ERROR, "The GroupAlias (%s) does not exist in the Groups file: %s",
-          oGroupAlias, inputObject.toString());
+          oGroupAlias, inputObject);
       return null;
     }
     if (indexes.groupAliasHasMismatchedCase(oGroupAlias)) {
       state.log("CM.vga.4", ERROR, true,
           "[ERROR-LINTABLE] The GroupAlias (%s) is different in case to its "
           + "definition in the Groups file: %s.  Will proceed with spelling from Groups file.",
-          oGroupAlias, inputObject.toString());
+          oGroupAlias, inputObject);
       return group.getGroupAlias();
     }
     return oGroupAlias.trim();
@@ -92,25 +92,25 @@ public final class CommonMethods {
     if ((oUserId == null) || oUserId.trim().isEmpty()) {
       state.log("CM.vui.1",
           ERROR, "The %sUserID column is blank - it must contain a UserID: %s",
-          desc, inputObject.toString());
+          desc, inputObject);
       return null;
     }
     if (!oUserId.trim().equals(oUserId)) {
       state.log("CM.vui.2", WARN, true,
           "The %sUserID will be trimmed of whitespace when uploaded: %s"
-          + ".\n", desc, inputObject.toString());
+          + ".\n", desc, inputObject);
     }
     final InputUser user = indexes.getUserByUserIdIgnoreCase(oUserId);
     if (user == null) {
       state.log("CM.vui.3", ERROR, "The %sUserID (%s) does not exist in the Users file: %s",
-          desc, oUserId, inputObject.toString());
+          desc, oUserId, inputObject);
       return null;
     }
     if (indexes.userIdHasMismatchedCase(oUserId)) {
       state.log("CM.vui.4", ERROR, true,
           "The %sUserID (%s) is different in case to its "
           + "definition in the Users file: %s.  Will proceed with spelling from Users file.",
-          desc, oUserId, inputObject.toString());
+          desc, oUserId, inputObject);
       return user.getUserId();
     }
     return oUserId.trim();
@@ -127,13 +127,13 @@ public final class CommonMethods {
     if ((field == null) || field.trim().isEmpty()) {
       state.log("CM.vtf.1", ERROR, true,
           "'%s' not specified - must be true or false: %s",
-          name, inputObject.toString());
+          name, inputObject);
       return "false"; // Default when not specified
     }
     if (!"true".equalsIgnoreCase(field) && !"false".equalsIgnoreCase(field)) {
       state.log("CM.vtf.1", ERROR, true,
           "'%s' invalid - must be true or false.  Will "
-          + "proceed as if false: %s", name, inputObject.toString());
+          + "proceed as if false: %s", name, inputObject);
       return "false"; // Default if invalid
     } else {
       return "true".equalsIgnoreCase(field) ? "true" : "false";
@@ -150,18 +150,18 @@ public final class CommonMethods {
       @Nonnull final Object inputObject) {
 
     if ((field == null) || field.trim().isEmpty()) {
-      state.log("CM.vm.1", ERROR, "%s is blank: %s", name, inputObject.toString());
+      state.log("CM.vm.1", ERROR, "%s is blank: %s", name, inputObject);
       return null;
     }
     if (!matcher.apply(field)) {
       state.log("CM.vm.2", ERROR, "%s (%s) has invalid characters or is badly formatted: %s",
-          name, field, inputObject.toString());
+          name, field, inputObject);
       return null;
     }
     if (!field.trim().equals(field)) {
       state.log("CM.vm.3", WARN, true,
           "%s (%s) is surrounded by whitespace which will be"
-          + " trimmed when uploaded: %s", name, field, inputObject.toString());
+          + " trimmed when uploaded: %s", name, field, inputObject);
     }
     return field.trim();
   }
@@ -178,7 +178,7 @@ public final class CommonMethods {
 
     if ((field == null) || field.trim().isEmpty()) {
       if (warnIfMissing) {
-        state.log("CM.vnm.1", WARN, "%s is blank: %s.", name, inputObject.toString());
+        state.log("CM.vnm.1", WARN, "%s is blank: %s.", name, inputObject);
       }
       return "";
     }
@@ -186,16 +186,16 @@ public final class CommonMethods {
       state.log("CM.vnm.2", WARN, true,
           "%s (%s) has invalid characters or is badly formatted: %s"
           + "  Will proceed using a blank %s.",
-          name, field, inputObject.toString(), name);
+          name, field, inputObject, name);
       if (warnIfMissing) {
-        state.log("CM.vnm.3", WARN, "%s has been made blank: %s", name, inputObject.toString());
+        state.log("CM.vnm.3", WARN, "%s has been made blank: %s", name, inputObject);
       }
       return "";
     }
     if (!field.trim().equals(field)) {
       state.log("CM.vnm.4", WARN, true,
           "%s (%s) is surrounded by whitespace which will be"
-          + " trimmed when uploaded: %s.", name, field, inputObject.toString());
+          + " trimmed when uploaded: %s.", name, field, inputObject);
     }
     return field.trim();
   }
@@ -1,5 +1,6 @@
 package com.skillsforge.accountfeeds.inputmodels;
 
+import com.skillsforge.accountfeeds.config.LogArgument;
 import com.skillsforge.accountfeeds.config.OrganisationParameters;
 import com.skillsforge.accountfeeds.config.ProgramState;
 import com.skillsforge.accountfeeds.input.Patterns;
@@ -19,7 +20,7 @@ import static com.skillsforge.accountfeeds.config.LogLevel.WARN;
  * @author aw1459
  * @date 27-May-2017
  */
-public class InputGroup {
+public class InputGroup implements LogArgument {
   @SuppressWarnings("FieldNotUsedInToString")
   @Nonnull
   private final ProgramState state;
@@ -84,28 +85,39 @@ public class InputGroup {
   @Nullable
   @Contract(pure = true)
   public OutputGroup validateAllFields() {
+    return validateAllFields(state);
+  }
+
+  /**
+   * As {@link #validateAllFields()}, but logging to {@code logState}.
+   */
+  @Nullable
+  @Contract(pure = true)
+  public OutputGroup validateAllFields(
+      @Nonnull final ProgramState logState) {
+
     final Patterns patterns = orgParams.getPatterns();
     final String oGroupAlias =
         CommonMethods.validateMandatory(groupAlias, patterns::isValidGroupAlias, "GroupAlias",
-            state, this);
+            logState, this);
     final String oGroupName =
-        CommonMethods.validateNonMandatory(groupName, patterns::isAlwaysValid, "GroupName", state,
-            this, true);
+        CommonMethods.validateNonMandatory(groupName, patterns::isAlwaysValid, "GroupName",
+            logState, this, true);
     final String oGroupDescription =
         CommonMethods.validateNonMandatory(groupDescription, patterns::isAlwaysValid,
-            "GroupDescription", state, this, false);
+            "GroupDescription", logState, this, false);
     final String oDelete =
-        CommonMethods.validateTrueFalse(delete, state, this, "Delete");
+        CommonMethods.validateTrueFalse(delete, logState, this, "Delete");
 
     if (oGroupAlias == null) {
       return null;
     }
 
     if ("true".equals(oDelete)) {
-      state.log("IG.vaf.1", WARN,
+      logState.log("IG.vaf.1", WARN,
           "The 'Delete' field is set to true - deletion of groups has not yet "
           + "been implemented, and this will likely not have the desired effect: %s",
-          this.toString());
+          this);
     }
 
     return new OutputGroup(oGroupAlias, oGroupName, oGroupDescription, "true".equals(oDelete));
@@ -1,5 +1,6 @@
 package com.skillsforge.accountfeeds.inputmodels;
 
+import com.skillsforge.accountfeeds.config.LogArgument;
 import com.skillsforge.accountfeeds.config.ProgramState;
 import com.skillsforge.accountfeeds.input.Indexes;
 import com.skillsforge.accountfeeds.outputmodels.OutputGroupRole;
@@ -17,7 +18,7 @@ import static com.skillsforge.accountfeeds.config.LogLevel.ERROR;
  * @author aw1459
  * @date 27-May-2017
  */
-public class InputGroupRole {
+public class InputGroupRole implements LogArgument {
   @SuppressWarnings("FieldNotUsedInToString")
   @Nonnull
   private final ProgramState state;
@@ -58,8 +59,21 @@ public class InputGroupRole {
   public OutputGroupRole validateAllFields(
       @Nonnull final Indexes indexes) {
 
-    final String oGroupAlias = CommonMethods.validateGroupAlias(groupAlias, indexes, state, this);
-    final String oRoleAlias = validateGroupRole(roleAlias, indexes);
+    return validateAllFields(state, indexes);
+  }
+
+  /**
+   * As {@link #validateAllFields(Indexes)}, but logging to {@code logState}.
+   */
+  @Nullable
+  @Contract(pure = true)
+  public OutputGroupRole validateAllFields(
+      @Nonnull final ProgramState logState,
+      @Nonnull final Indexes indexes) {
+
+    final String oGroupAlias =
+        CommonMethods.validateGroupAlias(groupAlias, indexes, logState, this);
+    final String oRoleAlias = validateGroupRole(logState, roleAlias, indexes);
 
     if ((oGroupAlias == null) || (oRoleAlias == null)) {
       return null;
@@ -69,26 +83,27 @@ public class InputGroupRole {
   }
 
   @Nullable
-  @Contract(pure = true, value = "null,_ -> null")
+  @Contract(pure = true, value = "_,null,_ -> null")
   private String validateGroupRole(
+      @Nonnull final ProgramState logState,
       @Nullable final String oRoleAlias,
       @Nonnull final Indexes indexes) {
 
     if (oRoleAlias == null) {
-      state.log("IGR.vgr.1", ERROR, "The role alias column is blank - this must be filled with a "
-                                    + "valid group-role: %s", this.toString());
+      logState.log("IGR.vgr.1", ERROR, "The role alias column is blank - this must be filled with "
+                                       + "a valid group-role: %s", this);
       return null;
     }
     if (!indexes.rolesForGroupsContainsIgnoreCase(oRoleAlias)) {
-      state.log("IGR.vgr.2", ERROR, "The role alias column (%s) is not a valid group-role: %s",
-          oRoleAlias, this.toString());
+      logState.log("IGR.vgr.2", ERROR, "The role alias column (%s) is not a valid group-role: %s",
+          oRoleAlias, this);
       return null;
     }
     if (indexes.rolesForGroupsHasMismatchedCase(oRoleAlias)) {
-      state.log("IGR.vgr.3", ERROR, "The role alias column (%s) is different in case from the "
-                                    + "defined group-role.  Will attempt to proceed with the "
-                                    + "defined role spelling: %s",
-          oRoleAlias, this.toString());
+      logState.log("IGR.vgr.3", ERROR, "The role alias column (%s) is different in case from the "
+                                       + "defined group-role.  Will attempt to proceed with the "
+                                       + "defined role spelling: %s",
+          oRoleAlias, this);
       return indexes.correctGroupRoleCase(oRoleAlias);
     }
     return oRoleAlias;
@@ -1,5 +1,6 @@
 package com.skillsforge.accountfeeds.inputmodels;
 
+import com.skillsforge.accountfeeds.config.LogArgument;
 import com.skillsforge.accountfeeds.config.OrganisationParameters;
 import com.skillsforge.accountfeeds.config.ProgramState;
 import com.skillsforge.accountfeeds.input.Patterns;
@@ -23,7 +24,7 @@ import static com.skillsforge.accountfeeds.config.LogLevel.WARN;
  * @date 27-May-2017
  */
 @SuppressWarnings("ClassWithTooManyFields")
-public class InputUser {
+public class InputUser implements LogArgument {
   @SuppressWarnings("FieldNotUsedInToString")
   @Nonnull
   private final ProgramState state;
@@ -116,31 +117,45 @@ public class InputUser {
   @Nullable
   @Contract(pure = true)
   public OutputUser validateAllFields() {
+    return validateAllFields(state);
+  }
+
+  /**
+   * Validates as {@link #validateAllFields()} does, but logs any problems to {@code logState}
+   * rather than the state this was built with.  This may be called on any thread: the validator
+   * runs it on its worker threads, all logging to the same state, each inside the LogContext of
+   * the user being validated.
+   */
+  @Nullable
+  @Contract(pure = true)
+  public OutputUser validateAllFields(
+      @Nonnull final ProgramState logState) {
+
     final Patterns patterns = orgParams.getPatterns();
     final String oUserId =
-        CommonMethods.validateMandatory(userId, patterns::isValidUserId, "UserID", state, this);
+        CommonMethods.validateMandatory(userId, patterns::isValidUserId, "UserID", logState, this);
     final String oUsername =
-        CommonMethods.validateMandatory(username, patterns::isValidUsername, "Username", state,
+        CommonMethods.validateMandatory(username, patterns::isValidUsername, "Username", logState,
             this);
     final String oEmail =
-        CommonMethods.validateMandatory(email, patterns::isValidEmail, "Email", state, this);
+        CommonMethods.validateMandatory(email, patterns::isValidEmail, "Email", logState, this);
     final String oTitle =
-        CommonMethods.validateNonMandatory(title, patterns::isValidName, "Title", state, this,
+        CommonMethods.validateNonMandatory(title, patterns::isValidName, "Title", logState, this,
             true);
     final String oForename =
-        CommonMethods.validateNonMandatory(forename, patterns::isValidName, "Forename", state, this,
-            true);
+        CommonMethods.validateNonMandatory(forename, patterns::isValidName, "Forename", logState,
+            this, true);
     final String oSurname =
-        CommonMethods.validateMandatory(surname, patterns::isValidName, "Surname", state, this);
+        CommonMethods.validateMandatory(surname, patterns::isValidName, "Surname", logState, this);
     final String oDisabled =
-        CommonMethods.validateTrueFalse(disabled, state, this, "Disabled");
+        CommonMethods.validateTrueFalse(disabled, logState, this, "Disabled");
     final String oArchived =
-        CommonMethods.validateTrueFalse(archived, state, this, "Archived");
+        CommonMethods.validateTrueFalse(archived, logState, this, "Archived");
 
     metaData.forEach((key, value) -> {
       final Pattern pattern = orgParams.getMetadataPattern(key);
       if ((pattern != null) && !pattern.matcher(value).matches()) {
-        state.log("IU.vaf.1", WARN,
+        logState.log("IU.vaf.1", WARN,
             "User '%s' has unexpected or badly formatted metadata: '%s' -> '%s'.",
             oUserId, key, value);
       }
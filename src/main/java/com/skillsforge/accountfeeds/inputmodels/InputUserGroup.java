@@ -1,5 +1,6 @@
 package com.skillsforge.accountfeeds.inputmodels;
 
+import com.skillsforge.accountfeeds.config.LogArgument;
 import com.skillsforge.accountfeeds.config.ProgramState;
 import com.skillsforge.accountfeeds.input.Indexes;
 import com.skillsforge.accountfeeds.outputmodels.OutputUserGroup;
@@ -17,7 +18,7 @@ import static com.skillsforge.accountfeeds.config.LogLevel.ERROR;
  * @author aw1459
  * @date 27-May-2017
  */
-public class InputUserGroup {
+public class InputUserGroup implements LogArgument {
   @SuppressWarnings("FieldNotUsedInToString")
   @Nonnull
   private final ProgramState state;
@@ -59,8 +60,20 @@ public class InputUserGroup {
   public OutputUserGroup validateAllFields(
       @Nonnull final Indexes indexes) {
 
-    final String oUserId = CommonMethods.validateUserId(userId, indexes, state, this, "");
-    final String oGroupAlias = CommonMethods.validateGroupAlias(groupAlias, indexes, state, this);
+    return validateAllFields(state, indexes);
+  }
+
+  /**
+   * As {@link #validateAllFields(Indexes)}, but logging to {@code logState}.
+   */
+  @Nullable
+  public OutputUserGroup validateAllFields(
+      @Nonnull final ProgramState logState,
+      @Nonnull final Indexes indexes) {
+
+    final String oUserId = CommonMethods.validateUserId(userId, indexes, logState, this, "");
+    final String oGroupAlias =
+        CommonMethods.validateGroupAlias(groupAlias, indexes, logState, this);
     if ((oUserId == null) || (oGroupAlias == null)) {
       return null;
     }
@@ -1,5 +1,6 @@
 package com.skillsforge.accountfeeds.inputmodels;
 
+import com.skillsforge.accountfeeds.config.LogArgument;
 import com.skillsforge.accountfeeds.config.ProgramState;
 import com.skillsforge.accountfeeds.input.Indexes;
 import com.skillsforge.accountfeeds.outputmodels.OutputUserRelationship;
@@ -17,7 +18,7 @@ import static com.skillsforge.accountfeeds.config.LogLevel.ERROR;
  * @author aw1459
  * @date 27-May-2017
  */
-public class InputUserRelationship {
+public class InputUserRelationship implements LogArgument {
   @SuppressWarnings("FieldNotUsedInToString")
   @Nonnull
   private final ProgramState state;
@@ -64,18 +65,55 @@ public class InputUserRelationship {
     }
   }
 
+  /**
+   * Re-creates a relationship from the fields returned by {@link #getFields()}, without checking
+   * its CSV line again, since that was done when it was first built.
+   */
+  public InputUserRelationship(
+      @Nonnull final ProgramState state,
+      @Nonnull final String[] fields) {
+
+    this.state = state;
+    userIdLeft = fields[0];
+    userIdRight = fields[1];
+    roleAliasLeft = fields[2];
+    roleAliasRight = fields[3];
+    delete = fields[4];
+  }
+
+  /**
+   * @return the fields of the relationship, in the order of the CSV columns.
+   */
+  @Nonnull
+  @Contract(pure = true)
+  public String[] getFields() {
+    return new String[]{userIdLeft, userIdRight, roleAliasLeft, roleAliasRight, delete};
+  }
+
+  @Nullable
+  @Contract(pure = true)
+  public OutputUserRelationship validateAllFields(
+      @Nonnull final Indexes indexes) {
+
+    return validateAllFields(state, indexes);
+  }
+
+  /**
+   * As {@link #validateAllFields(Indexes)}, but logging to {@code logState}.
+   */
   @Nullable
   @Contract(pure = true)
   public OutputUserRelationship validateAllFields(
+      @Nonnull final ProgramState logState,
       @Nonnull final Indexes indexes) {
 
     final String oDelete =
-        CommonMethods.validateTrueFalse(delete, state, this, "Delete");
+        CommonMethods.validateTrueFalse(delete, logState, this, "Delete");
     final String oUserIdLeft =
-        CommonMethods.validateUserId(userIdLeft, indexes, state, this, "holder/left ");
+        CommonMethods.validateUserId(userIdLeft, indexes, logState, this, "holder/left ");
     final String oUserIdRight =
-        CommonMethods.validateUserId(userIdRight, indexes, state, this, "subject/right ");
-    final String oRoleAlias = validateHolderRole(roleAliasLeft, indexes);
+        CommonMethods.validateUserId(userIdRight, indexes, logState, this, "subject/right ");
+    final String oRoleAlias = validateHolderRole(logState, roleAliasLeft, indexes);
 
     //noinspection OverlyComplexBooleanExpression
     if ((oUserIdLeft == null)
@@ -85,10 +123,10 @@ public class InputUserRelationship {
     }
 
     if (oUserIdLeft.equalsIgnoreCase(oUserIdRight)) {
-      state.log("IUR.vaf.1",
+      logState.log("IUR.vaf.1",
           ERROR, "The holder/left and subject/right UserID columns held the same value "
                  + "- you cannot hold a relationship over yourself: %s\n",
-          this.toString());
+          this);
       return null;
     }
 
@@ -101,28 +139,29 @@ public class InputUserRelationship {
   }
 
   @Nullable
-  @Contract(pure = true, value = "null,_ -> null")
+  @Contract(pure = true, value = "_,null,_ -> null")
   private String validateHolderRole(
+      @Nonnull final ProgramState logState,
       @Nullable final String oRoleAlias,
       @Nonnull final Indexes indexes) {
 
     if ((oRoleAlias == null) || oRoleAlias.trim().isEmpty()) {
-      state.log("IUR.vhr.1", ERROR,
+      logState.log("IUR.vhr.1", ERROR,
           "The (left) role alias column is blank - this must be filled with a "
-          + "valid relationship-role: %s", this.toString());
+          + "valid relationship-role: %s", this);
       return null;
     }
     if (!indexes.rolesForRelationshipsContainsIgnoreCase(oRoleAlias)) {
-      state.log("IUR.vhr.2", ERROR,
+      logState.log("IUR.vhr.2", ERROR,
           "The (left) role alias column (%s) is not a valid relationship-role: %s",
-          oRoleAlias, this.toString());
+          oRoleAlias, this);
       return null;
     }
     if (indexes.rolesForRelationshipsHasMismatchedCase(oRoleAlias)) {
-      state.log("IUR.vhr.3", ERROR, true,
+      logState.log("IUR.vhr.3", ERROR, true,
           "The left role alias column (%s) is different in case from the"
           + " defined relationship-role.  Will attempt to proceed with the defined role "
-          + "spelling: %s", oRoleAlias, this.toString());
+          + "spelling: %s", oRoleAlias, this);
       return indexes.correctRelationshipRoleCase(oRoleAlias);
     }
     return oRoleAlias;
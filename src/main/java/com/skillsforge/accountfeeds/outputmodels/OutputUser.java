@@ -62,6 +62,8 @@ public class OutputUser {
   @Nonnull
   private final Map<String, Set<String>> userRelationshipsHeldOverOtherUsers = new HashMap<>();
   @Nonnull
+  private final Set<String> relationshipRolesHeld = new HashSet<>();
+  @Nonnull
   private final Map<String, Set<String>> userRelationshipsThisUserIsASubjectOf = new HashMap<>();
 
   public OutputUser(
@@ -129,9 +131,7 @@ public class OutputUser {
       if (userRelationshipsHeldOverOtherUsers
           .get(rel.getRoleAliasLeft())
           .contains(rel.getUserIdRight())) {
-        state.log("OU.arhoau.1", WARN,
-            "UserRelationship mapping is specified more than once: '%s'-[%s]->'%s'",
-            userId, rel.getRoleAliasLeft(), rel.getUserIdRight());
+        logDuplicateRelationship(state, rel);
         return;
       }
     } else {
@@ -139,6 +139,27 @@ public class OutputUser {
     }
     userRelationshipsHeldOverOtherUsers.get(rel.getRoleAliasLeft()).add(rel.getUserIdRight());
     userRelationshipsHeld.add(rel);
+    relationshipRolesHeld.add(rel.getRoleAliasLeft());
+  }
+
+  /**
+   * Records only that this user holds a relationship through the given role, for when the
+   * relationships themselves are kept elsewhere (spilled to disk) rather than on the user.
+   */
+  public void addRelationshipRoleHeld(@Nonnull final String roleAlias) {
+    relationshipRolesHeld.add(roleAlias);
+  }
+
+  /**
+   * Logs that a relationship held by its (left) user duplicates one that user already holds.
+   */
+  public static void logDuplicateRelationship(
+      @Nonnull final ProgramState state,
+      @Nonnull final OutputUserRelationship rel) {
+
+    state.log("OU.arhoau.1", WARN,
+        "UserRelationship mapping is specified more than once: '%s'-[%s]->'%s'",
+        rel.getUserIdLeft(), rel.getRoleAliasLeft(), rel.getUserIdRight());
   }
 
   public void addRelationshipThisUserIsASubjectOf(
@@ -199,6 +220,12 @@ public class OutputUser {
     return userRelationshipsHeld.stream();
   }
 
+  @Nonnull
+  @Contract(pure = true)
+  public Stream<String> getRelationshipRolesHeld() {
+    return relationshipRolesHeld.stream();
+  }
+
   @Nonnull
   @Contract(pure = true)
   public Stream<OutputUserRelationship> getRelationshipsSubject() {
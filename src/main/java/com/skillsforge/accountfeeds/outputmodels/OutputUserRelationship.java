@@ -17,6 +17,20 @@ public class OutputUserRelationship {
   @Nonnull
   public static final Comparator<? super OutputUserRelationship> CSV_SORTER =
       (left, right) -> left.getSortString().compareToIgnoreCase(right.getSortString());
+  /**
+   * Orders the records returned by {@link #toRecord()} as {@link #CSV_SORTER} orders the
+   * relationships, then by holder, role and subject, so that a mapping specified more than once
+   * always sorts next to itself.
+   */
+  @Nonnull
+  public static final Comparator<String[]> RECORD_SORTER =
+      Comparator.<String[], String>comparing(record -> record[0] + record[2] + record[1],
+          String::compareToIgnoreCase)
+          .thenComparing(record -> record[0])
+          .thenComparing(record -> record[2])
+          .thenComparing(record -> record[1]);
+  // The number of fields in a record returned by toRecord().
+  public static final int RECORD_WIDTH = 5;
 
   @Nonnull
   private final String userIdLeft;
@@ -60,6 +74,36 @@ public class OutputUserRelationship {
     return roleAliasLeft;
   }
 
+  /**
+   * @return whether both relationships map the same holder, through the same role, to the same
+   * subject.
+   */
+  @Contract(pure = true)
+  public boolean isSameMapping(@Nonnull final OutputUserRelationship other) {
+    return userIdLeft.equals(other.userIdLeft)
+           && roleAliasLeft.equals(other.roleAliasLeft)
+           && userIdRight.equals(other.userIdRight);
+  }
+
+  /**
+   * @return the fields of the relationship, in the order of the CSV columns, so that it can be
+   * spilled to disk and re-created with {@link #fromRecord}.
+   */
+  @Nonnull
+  @Contract(pure = true)
+  public String[] toRecord() {
+    return new String[]{
+        userIdLeft, userIdRight, roleAliasLeft, roleAliasRight, Boolean.toString(delete)
+    };
+  }
+
+  @Nonnull
+  @Contract(pure = true)
+  public static OutputUserRelationship fromRecord(@Nonnull final String[] record) {
+    return new OutputUserRelationship(record[0], record[1], record[2], record[3],
+        Boolean.parseBoolean(record[4]));
+  }
+
   @Override
   @Contract(pure = true)
   public String toString() {
@@ -0,0 +1,94 @@
+package com.skillsforge.accountfeeds.config;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.skillsforge.accountfeeds.config.LogLevel.INFO;
+
+/**
+ * @author agent
+ * @date 17-Oct-2026
+ */
+public class LogContextUnitTest {
+
+  @Test
+  public void testLinesLoggedOnManyThreadsAreRenderedInContextOrder() throws Exception {
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    final ProgramState state = new ProgramState(new PrintStream(output, true, "UTF-8"));
+
+    state.log(null, INFO, "before");
+    final long phase = state.reserveLogPhase();
+    state.log(null, INFO, "after");
+
+    // Rows are logged last first, each on whichever thread picks it up.
+    final ExecutorService threads = Executors.newFixedThreadPool(4);
+    try {
+      final List<Future<?>> rows = new ArrayList<>();
+      for (int row = 99; row >= 0; row--) {
+        final LogContext context = state.newLogContext(phase, FileKey.INPUT_USERS, row);
+        final int thisRow = row;
+        rows.add(threads.submit(() -> state.inLogContext(context, () -> {
+          state.log(null, INFO, "row %d first", thisRow);
+          state.log(null, INFO, "row %d second", thisRow);
+        })));
+      }
+      for (final Future<?> row : rows) {
+        row.get();
+      }
+    } finally {
+      threads.shutdown();
+    }
+    state.renderLog();
+
+    final StringBuilder expected = new StringBuilder("before\n");
+    for (int row = 0; row < 100; row++) {
+      expected.append(String.format("row %d first\nrow %d second\n", row, row));
+    }
+    expected.append("after\n");
+    Assert.assertEquals(messages(output), expected.toString());
+  }
+
+  @Test
+  public void testLinesLoggedAtAMarkedPositionAreRenderedThere() throws Exception {
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    final ProgramState state = new ProgramState(new PrintStream(output, true, "UTF-8"));
+
+    state.log(null, INFO, "before");
+    final LogContext outside = state.markLogPosition();
+    final LogContext row = state.newLogContext(state.reserveLogPhase(), FileKey.INPUT_USERS, 3);
+    final String[] inside = new String[1];
+    state.inLogContext(row, () -> {
+      state.log(null, INFO, "row first");
+      inside[0] = state.markLogPosition().encode();
+      state.log(null, INFO, "row second");
+    });
+    state.log(null, INFO, "after");
+
+    // A marked position can be read back from its encoded form, as when it has been spilled.
+    state.inLogContext(state.decodeLogContext(inside[0]), () -> {
+      state.log(null, INFO, "inside one");
+      state.log(null, INFO, "inside two");
+    });
+    state.inLogContext(outside, () -> state.log(null, INFO, "outside"));
+    state.renderLog();
+
+    Assert.assertEquals(messages(output),
+        "before\noutside\nrow first\ninside one\ninside two\nrow second\nafter\n");
+  }
+
+  private static String messages(final ByteArrayOutputStream output)
+      throws UnsupportedEncodingException {
+
+    final String log = output.toString("UTF-8");
+    return log.substring(log.indexOf("before")).replace("[INFO] ", "");
+  }
+}
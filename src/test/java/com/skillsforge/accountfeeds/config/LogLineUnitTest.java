@@ -0,0 +1,32 @@
+package com.skillsforge.accountfeeds.config;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * @author agent
+ * @date 17-Oct-2026
+ */
+public class LogLineUnitTest {
+
+  @Test
+  public void testArgumentsThatMayChangeAreFormattedAsLogged() {
+    final StringBuilder mutable = new StringBuilder("before");
+    final int[] formatted = {0};
+    final LogArgument counted = new LogArgument() {
+      @Override
+      public String toString() {
+        formatted[0]++;
+        return "row";
+      }
+    };
+
+    final LogLine line = new LogLine("T.1", LogLevel.WARN, "%s %s %d", mutable, counted, 7);
+    mutable.append(" and after");
+    Assert.assertEquals(formatted[0], 0);
+
+    Assert.assertEquals(line.getErrorString(), "before row 7");
+    Assert.assertEquals(line.getErrorString(), "before row 7");
+    Assert.assertEquals(formatted[0], 1);
+  }
+}
@@ -0,0 +1,72 @@
+package com.skillsforge.accountfeeds.config;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static com.skillsforge.accountfeeds.config.LogLevel.INFO;
+import static com.skillsforge.accountfeeds.config.LogLevel.WARN;
+
+/**
+ * @author agent
+ * @date 17-Oct-2026
+ */
+public class LogSinkUnitTest {
+
+  @Test
+  public void testOnlyTheFirstSamplesOfEachCodeAreKept() throws Exception {
+    final LogSink sink = new LogSink();
+    sink.setSampleLimit(3);
+    sink.add(0, -1, 0, 0, null, INFO, () -> new LogLine(null, INFO, "start"));
+
+    // Rows are logged last first, each on whichever thread picks it up.
+    final ExecutorService threads = Executors.newFixedThreadPool(4);
+    try {
+      final List<Future<?>> rows = new ArrayList<>();
+      for (int row = 99; row >= 0; row--) {
+        final int thisRow = row;
+        rows.add(threads.submit(() -> {
+          sink.add(1, 0, thisRow, 0, "T.1", WARN, () -> new LogLine("T.1", WARN, "a%d", thisRow));
+          sink.add(1, 0, thisRow, 1, "T.2", WARN, () -> new LogLine("T.2", WARN, "b%d", thisRow));
+        }));
+      }
+      for (final Future<?> row : rows) {
+        row.get();
+      }
+    } finally {
+      threads.shutdown();
+    }
+
+    final String kept = sink.getLines().stream()
+        .map(LogLine::getErrorString)
+        .collect(Collectors.joining(","));
+    Assert.assertEquals(kept, "start,a0,b0,a1,b1,a2,b2");
+    Assert.assertEquals(sink.count(WARN), 200);
+    Assert.assertEquals(sink.getCountsByCode().get("T.1")[WARN.ordinal()], 100);
+  }
+
+  @Test
+  public void testFlushedSamplesCountTowardsTheLimit() {
+    final LogSink sink = new LogSink();
+    sink.setSampleLimit(2);
+    final List<String> written = new ArrayList<>();
+    for (int row = 0; row < 4; row++) {
+      final int thisRow = row;
+      sink.add(row, -1, 0, 0, "T.1", WARN, () -> new LogLine("T.1", WARN, "a%d", thisRow));
+      sink.add(row, -1, 0, 1, null, INFO, () -> new LogLine(null, INFO, "i%d", thisRow));
+      sink.flush(line -> written.add(line.getErrorString()));
+    }
+
+    Assert.assertEquals(written.toString(), "[a0, i0, a1, i1, i2, i3]");
+    Assert.assertTrue(sink.getLines().isEmpty());
+    Assert.assertEquals(sink.count(WARN), 4);
+    Assert.assertEquals(sink.count(INFO), 4);
+    Assert.assertEquals(sink.getShownByCode().get("T.1")[WARN.ordinal()], 2);
+  }
+}
@@ -0,0 +1,57 @@
+package com.skillsforge.accountfeeds.input;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+/**
+ * Checks the word-at-a-time scans against a byte-at-a-time search, from every starting offset.
+ *
+ * @author agent
+ * @date 17-Oct-2026
+ */
+public class ByteScannerUnitTest {
+
+  private static final byte[] ALPHABET = {
+      'a', 'Z', ' ', '+', '-', '!', '$', ',', '\"', '\n', '\r', '#', 0, 1, 0x7F,
+      (byte) 0x80, (byte) 0x81, (byte) 0xAC, (byte) 0xC3, (byte) 0xFF
+  };
+
+  @Test
+  public void testScansMatchByteAtATimeSearch() {
+    final Random random = new Random(20170714L);
+    for (int iteration = 0; iteration < 2000; iteration++) {
+      final byte[] bytes = new byte[random.nextInt(40)];
+      // Mostly ordinary bytes, so that runs often span several words.
+      for (int i = 0; i < bytes.length; i++) {
+        bytes[i] = ALPHABET[(random.nextInt(4) == 0)
+                            ? random.nextInt(ALPHABET.length)
+                            : random.nextInt(7)];
+      }
+      final ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+
+      for (int from = 0; from <= bytes.length; from++) {
+        Assert.assertEquals(ByteScanner.endOfUnquotedRun(buffer, from, bytes.length),
+            naiveScan(bytes, from, ",\"\n\r#"));
+        Assert.assertEquals(ByteScanner.endOfQuotedRun(buffer, from, bytes.length),
+            naiveScan(bytes, from, "\"\n\r#"));
+      }
+    }
+  }
+
+  private static int naiveScan(
+      final byte[] bytes,
+      final int from,
+      final String targets) {
+
+    for (int index = from; index < bytes.length; index++) {
+      if (targets.indexOf(bytes[index]) >= 0) {
+        return index;
+      }
+    }
+    return bytes.length;
+  }
+}
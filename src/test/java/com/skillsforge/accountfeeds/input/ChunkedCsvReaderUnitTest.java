@@ -0,0 +1,133 @@
+package com.skillsforge.accountfeeds.input;
+
+import com.skillsforge.accountfeeds.config.ProgramState;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Checks that {@link ChunkedCsvReader} hands on the same rows, line numbers and log output as a
+ * single {@link CsvReader}, however the file happens to be split.
+ *
+ * @author agent
+ * @date 17-Oct-2026
+ */
+public class ChunkedCsvReaderUnitTest {
+
+  private static final long[] CHUNK_SIZES = {1, 5, 16, 100, 4096};
+
+  private static final String[] FUZZ_TOKENS = {
+      "a", "bc", "\u00e9", " ", ",", ",", "\"", "\"\"", "\n", "\n", "\r\n", "#x", "\u2028"
+  };
+
+  private ForkJoinPool pool;
+  private File file;
+
+  @BeforeClass
+  public void setUp() throws IOException {
+    pool = new ForkJoinPool(3);
+    file = File.createTempFile("chunked", ".csv");
+    file.deleteOnExit();
+  }
+
+  @AfterClass
+  public void tearDown() {
+    pool.shutdown();
+    //noinspection ResultOfMethodCallIgnored
+    file.delete();
+  }
+
+  @Test
+  public void testFixtureMatchesSequentialReader() throws IOException {
+    assertMatchesSequential(CsvReaderUnitTest.initStrings().toString());
+  }
+
+  @Test
+  public void testMultiLineFieldsAcrossChunks() throws IOException {
+    final StringBuilder input = new StringBuilder("UserID,Notes,Email\n");
+    for (int row = 0; row < 200; row++) {
+      input.append("u").append(row).append(',');
+      if ((row % 7) == 0) {
+        input.append("\"first\n\nsecond \"\"quoted\"\"\nthird\"");
+      } else if ((row % 11) == 0) {
+        input.append("\"bad\"x");
+      } else if ((row % 13) == 0) {
+        input.append("# comment\n");
+      } else {
+        input.append("plain ").append(row);
+      }
+      input.append(",u").append(row).append("@example.com\r\n");
+    }
+    assertMatchesSequential(input.toString());
+  }
+
+  @Test
+  public void testFirstRowErrorStillEndsFile() throws IOException {
+    assertMatchesSequential("a\"b,c\nd,e\nf,g\nh,i\n");
+    assertMatchesSequential("#\n\"a\"b,c\nd,e\nf,g\nh,i\n");
+  }
+
+  @Test
+  public void testRandomInputMatchesSequentialReader() throws IOException {
+    final Random random = new Random(20170611L);
+    for (int iteration = 0; iteration < 300; iteration++) {
+      final int length = random.nextInt(120);
+      final StringBuilder input = new StringBuilder();
+      for (int i = 0; i < length; i++) {
+        input.append(FUZZ_TOKENS[random.nextInt(FUZZ_TOKENS.length)]);
+      }
+      assertMatchesSequential(input.toString());
+    }
+  }
+
+  private void assertMatchesSequential(@Nonnull final String input) throws IOException {
+    Files.write(file.toPath(), input.getBytes(StandardCharsets.UTF_8));
+
+    final ByteArrayOutputStream expectedLog = new ByteArrayOutputStream();
+    final ProgramState expectedState =
+        new ProgramState(new PrintStream(expectedLog, true, "UTF-8"));
+    final StringBuilder expected = new StringBuilder();
+    try (final CsvReader reader = new CsvReader(
+        new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8),
+        expectedState)) {
+      reader.readFile(row -> expected.append(row.getLineNumber()).append(": ")
+          .append(row.toList()).append('\n'));
+    }
+    expectedState.renderLog();
+
+    for (final long chunkSize : CHUNK_SIZES) {
+      final ByteArrayOutputStream log = new ByteArrayOutputStream();
+      final ProgramState state = new ProgramState(new PrintStream(log, true, "UTF-8"));
+      final StringBuilder actual = new StringBuilder();
+      new ChunkedCsvReader(file, state, pool, chunkSize).readFile(
+          row -> actual.append(row.getLineNumber()).append(": ")
+              .append(row.toList()).append('\n'));
+      state.renderLog();
+
+      Assert.assertEquals(actual.toString(), expected.toString(),
+          "Rows differed (chunk size " + chunkSize + ") for: " + escape(input));
+      Assert.assertEquals(log.toString("UTF-8"), expectedLog.toString("UTF-8"),
+          "Log differed (chunk size " + chunkSize + ") for: " + escape(input));
+    }
+  }
+
+  @Nonnull
+  private static String escape(@Nonnull final String input) {
+    return input.replace("\r", "\\r").replace("\n", "\\n");
+  }
+}
@@ -0,0 +1,161 @@
+package com.skillsforge.accountfeeds.input;
+
+import com.skillsforge.accountfeeds.config.ProgramState;
+import com.skillsforge.accountfeeds.exceptions.CsvCheckedException;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+/**
+ * A rough micro-benchmark of the CSV lexers over a synthetic Users file, comparing
+ * {@link CsvReader#parseLine()} with {@link MappedCsvReader#parseLine()}, and the word-at-a-time
+ * delimiter scan with a byte-at-a-time one.  Not run as part of the test suite: run its main
+ * method with the test classpath, optionally passing the number of rows to generate and the width
+ * of an extra free-text column (wider fields favour the word-at-a-time scan).
+ *
+ * @author agent
+ * @date 17-Oct-2026
+ */
+@SuppressWarnings({"UseOfSystemOutOrSystemErr", "CallToSystemGC"})
+public final class CsvLexerBenchmark {
+  private static final int WARM_UP_ROUNDS = 5;
+  private static final int TIMED_ROUNDS = 10;
+
+  private CsvLexerBenchmark() {
+  }
+
+  public static void main(final String[] args) throws IOException, CsvCheckedException {
+    final int rows = (args.length > 0) ? Integer.parseInt(args[0]) : 200_000;
+    final int notesWidth = (args.length > 1) ? Integer.parseInt(args[1]) : 0;
+    final File file = File.createTempFile("benchmark", ".csv");
+    file.deleteOnExit();
+    Files.write(file.toPath(), generateUsers(rows, notesWidth).getBytes(StandardCharsets.UTF_8));
+    final byte[] bytes = Files.readAllBytes(file.toPath());
+    System.out.printf("%d rows, %d bytes%n", rows, bytes.length);
+
+    long checksum = 0;
+    for (int round = 0; round < (WARM_UP_ROUNDS + TIMED_ROUNDS); round++) {
+      final boolean timed = round >= WARM_UP_ROUNDS;
+      System.gc();
+
+      long start = System.nanoTime();
+      checksum += parseWithCsvReader(file);
+      final long csvReaderNanos = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      checksum += parseWithMappedCsvReader(file);
+      final long mappedNanos = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      checksum += scanByteAtATime(bytes);
+      final long byteScanNanos = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      checksum += scanWordAtATime(bytes);
+      final long wordScanNanos = System.nanoTime() - start;
+
+      if (timed) {
+        System.out.printf("CsvReader.parseLine %6.1f ms   MappedCsvReader.parseLine %6.1f ms   "
+                          + "byte scan %5.1f ms   word scan %5.1f ms%n",
+            csvReaderNanos / 1e6, mappedNanos / 1e6, byteScanNanos / 1e6, wordScanNanos / 1e6);
+      }
+    }
+    System.out.printf("(checksum %d)%n", checksum);
+  }
+
+  private static long parseWithCsvReader(@Nonnull final File file)
+      throws IOException, CsvCheckedException {
+
+    long fields = 0;
+    try (final CsvReader reader = new CsvReader(
+        new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8),
+        new ProgramState())) {
+      List<String> row;
+      while ((row = reader.parseLine()) != null) {
+        fields += row.size();
+      }
+    }
+    return fields;
+  }
+
+  private static long parseWithMappedCsvReader(@Nonnull final File file)
+      throws IOException, CsvCheckedException {
+
+    long fields = 0;
+    try (final MappedCsvReader reader = MappedCsvReader.open(file, new ProgramState())) {
+      List<String> row;
+      while ((row = reader.parseLine()) != null) {
+        fields += row.size();
+      }
+    }
+    return fields;
+  }
+
+  private static long scanByteAtATime(@Nonnull final byte[] bytes) {
+    final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    long delimiters = 0;
+    int index = endOfRunByteAtATime(buffer, 0, bytes.length);
+    while (index < bytes.length) {
+      delimiters++;
+      index = endOfRunByteAtATime(buffer, index + 1, bytes.length);
+    }
+    return delimiters;
+  }
+
+  private static int endOfRunByteAtATime(
+      @Nonnull final ByteBuffer buffer,
+      final int from,
+      final int limit) {
+
+    int index = from;
+    while (index < limit) {
+      final byte next = buffer.get(index);
+      if ((next == ',') || (next == '\"') || (next == '\n') || (next == '\r') || (next == '#')) {
+        break;
+      }
+      index++;
+    }
+    return index;
+  }
+
+  private static long scanWordAtATime(@Nonnull final byte[] bytes) {
+    final ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    long delimiters = 0;
+    int index = ByteScanner.endOfUnquotedRun(buffer, 0, bytes.length);
+    while (index < bytes.length) {
+      delimiters++;
+      index = ByteScanner.endOfUnquotedRun(buffer, index + 1, bytes.length);
+    }
+    return delimiters;
+  }
+
+  @Nonnull
+  private static String generateUsers(final int rows, final int notesWidth) {
+    final StringBuilder notes = new StringBuilder(notesWidth);
+    while (notes.length() < notesWidth) {
+      notes.append("Lorem ipsum dolor sit amet. ");
+    }
+    notes.setLength(notesWidth);
+
+    final StringBuilder csv = new StringBuilder(rows * (120 + notesWidth));
+    csv.append("UserID,Username,Email,Title,Forename,Surname,Disabled,Archived,Department,"
+               + "Notes\r\n");
+    for (int row = 0; row < rows; row++) {
+      csv.append(String.format("%09d", row)).append(",user").append(row).append(",user")
+          .append(row).append("@example.ac.uk,Dr,Forename").append(row % 97)
+          .append(",Surname").append(row % 89).append(",false,false,")
+          .append(((row % 10) == 0) ? "\"Computer Science, Research\"" : "Mathematics")
+          .append(',').append(notes).append("\r\n");
+    }
+    return csv.toString();
+  }
+}
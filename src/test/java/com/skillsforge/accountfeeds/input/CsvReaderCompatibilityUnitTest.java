@@ -0,0 +1,261 @@
+package com.skillsforge.accountfeeds.input;
+
+import com.skillsforge.accountfeeds.config.ProgramState;
+import com.skillsforge.accountfeeds.exceptions.CsvCheckedException;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Checks that {@link CsvReader} produces exactly the same rows, exceptions and log output as the
+ * original character-at-a-time parser, including whilst rows straddle window refills.
+ *
+ * @author agent
+ * @date 17-Oct-2026
+ */
+public class CsvReaderCompatibilityUnitTest {
+
+  private static final int[] WINDOW_SIZES = {1, 2, 3, 7, 64, 64 * 1024};
+
+  private static final String[] EDGE_CASES = {
+      "",
+      "\n",
+      "a",
+      "a,",
+      ",",
+      "a,b\r\nc,d\r\n",
+      "a\rb,c\n",
+      "\r\n\r\n",
+      "abc#comment\ndef\n",
+      "\"quoted#comment\nrest\",x\n",
+      "#a\r\n#b\rc\n",
+      "#a\r\rb\n",
+      "#a\n\rb\n",
+      "##\n#\n",
+      "a,b#\n",
+      "ab\"cd,ef\n",
+      "\"ab\"cd,ef\n",
+      "\"unterminated,field\n",
+      "\"multi\nline\",field\nnext\n",
+      "\"\"\n",
+      "\"\"\"\"\n",
+      "\"\"\"a\"\"\"\n",
+      "\"a,b\",\"c\"\"d\"\n",
+      "\"line\u2028sep\",\"x\"\"\u2028\"\"\"\n",
+      "\"\"\"a\u0085b\"\"\"\n",
+      "\"a\"\r,b\n",
+      "\"a\"\r\n",
+      "a,\"b\n\n\nc\",d\n\"e",
+      "\uD801\uDF22,\u00e9\n",
+      "\uFFFF,x\n",
+  };
+
+  private static final char[] FUZZ_ALPHABET =
+      {'a', 'b', ' ', ',', ',', '"', '"', '\n', '\n', '\r', '#', '\u00e9', '\u2028'};
+
+  @Test
+  public void testFixtureMatchesLegacyParser() throws IOException {
+    assertMatchesLegacy(CsvReaderUnitTest.initStrings().toString());
+  }
+
+  @Test
+  public void testEdgeCasesMatchLegacyParser() throws IOException {
+    for (final String input : EDGE_CASES) {
+      assertMatchesLegacy(input);
+    }
+  }
+
+  @Test
+  public void testRandomInputMatchesLegacyParser() throws IOException {
+    final Random random = new Random(20161125L);
+    for (int iteration = 0; iteration < 3000; iteration++) {
+      final int length = random.nextInt(48);
+      final StringBuilder input = new StringBuilder(length);
+      for (int i = 0; i < length; i++) {
+        input.append(FUZZ_ALPHABET[random.nextInt(FUZZ_ALPHABET.length)]);
+      }
+      assertMatchesLegacy(input.toString());
+    }
+  }
+
+  @Test
+  public void testLongRowsGrowTheWindow() throws IOException {
+    final StringBuilder input = new StringBuilder();
+    for (int row = 0; row < 50; row++) {
+      for (int col = 0; col < 40; col++) {
+        input.append((col == 0) ? "" : ",").append("\"field ").append(row).append("\"\"")
+            .append(col).append("\"");
+      }
+      input.append("\r\n");
+    }
+    assertMatchesLegacy(input.toString());
+  }
+
+  @Test
+  public void testRowVisitorMatchesReadFile() throws IOException {
+    final Random random = new Random(20170528L);
+    for (int iteration = 0; iteration < 1000; iteration++) {
+      final StringBuilder input = new StringBuilder();
+      final int length = random.nextInt(48);
+      for (int i = 0; i < length; i++) {
+        input.append(FUZZ_ALPHABET[random.nextInt(FUZZ_ALPHABET.length)]);
+      }
+
+      for (final int windowSize : WINDOW_SIZES) {
+        final List<List<String>> expected;
+        try (final CsvReader reader =
+                 new CsvReader(new StringReader(input.toString()), new ProgramState(),
+                     windowSize)) {
+          expected = reader.readFile();
+        }
+
+        final List<List<String>> visited = new ArrayList<>();
+        try (final CsvReader reader =
+                 new CsvReader(new StringReader(input.toString()), new ProgramState(),
+                     windowSize)) {
+          reader.readFile(row -> {
+            final List<String> fields = new ArrayList<>();
+            for (int i = 0; i < row.size(); i++) {
+              final CharSequence view = row.getField(i);
+              Assert.assertEquals(view.toString(), row.getFieldAsString(i));
+              Assert.assertEquals(view.length(), row.getFieldAsString(i).length());
+              fields.add(view.toString());
+            }
+            Assert.assertEquals(row.isEmpty(), fields.isEmpty());
+            visited.add(fields);
+          });
+        }
+
+        Assert.assertEquals(visited, expected,
+            "Visited rows differed (window " + windowSize + ") for: " + escape(input.toString()));
+      }
+    }
+  }
+
+  @Test
+  public void testRowVisitorReportsStartingLineNumbers() throws IOException {
+    final List<Integer> lineNumbers = new ArrayList<>();
+    try (final CsvReader reader =
+             new CsvReader(new StringReader("a\n\n\"b\nc\",d\n# comment\ne\n"),
+                 new ProgramState())) {
+      reader.readFile(row -> lineNumbers.add(row.getLineNumber()));
+    }
+    Assert.assertEquals(lineNumbers, Arrays.asList(1, 2, 3, 5));
+  }
+
+  private static void assertMatchesLegacy(@Nonnull final String input) throws IOException {
+    final String expectedLines = legacyParseLineTranscript(input);
+    final String expectedFile = legacyReadFileTranscript(input);
+
+    for (final int windowSize : WINDOW_SIZES) {
+      Assert.assertEquals(parseLineTranscript(input, windowSize), expectedLines,
+          "parseLine() differed (window " + windowSize + ") for: " + escape(input));
+      Assert.assertEquals(readFileTranscript(input, windowSize), expectedFile,
+          "readFile() differed (window " + windowSize + ") for: " + escape(input));
+    }
+  }
+
+  @Nonnull
+  private static String parseLineTranscript(
+      @Nonnull final String input,
+      final int windowSize) throws IOException {
+
+    final ByteArrayOutputStream log = new ByteArrayOutputStream();
+    final ProgramState state = new ProgramState(new PrintStream(log, true, "UTF-8"));
+    final StringBuilder transcript = new StringBuilder();
+    try (final CsvReader reader = new CsvReader(new StringReader(input), state, windowSize)) {
+      List<String> row = null;
+      boolean moreRows = true;
+      while (moreRows) {
+        try {
+          row = reader.parseLine();
+        } catch (CsvCheckedException e) {
+          transcript.append("! ").append(e.getMessage()).append('\n');
+          continue;
+        }
+        transcript.append(row).append('\n');
+        moreRows = row != null;
+      }
+    }
+    state.renderLog();
+    return transcript + "---\n" + toUtf8(log);
+  }
+
+  @Nonnull
+  private static String legacyParseLineTranscript(@Nonnull final String input)
+      throws IOException {
+
+    final ByteArrayOutputStream log = new ByteArrayOutputStream();
+    final ProgramState state = new ProgramState(new PrintStream(log, true, "UTF-8"));
+    final StringBuilder transcript = new StringBuilder();
+    try (final LegacyCsvReader reader = new LegacyCsvReader(new StringReader(input), state)) {
+      List<String> row = null;
+      boolean moreRows = true;
+      while (moreRows) {
+        try {
+          row = reader.parseLine();
+        } catch (CsvCheckedException e) {
+          transcript.append("! ").append(e.getMessage()).append('\n');
+          continue;
+        }
+        transcript.append(row).append('\n');
+        moreRows = row != null;
+      }
+    }
+    state.renderLog();
+    return transcript + "---\n" + toUtf8(log);
+  }
+
+  @Nonnull
+  private static String readFileTranscript(
+      @Nonnull final String input,
+      final int windowSize) throws IOException {
+
+    final ByteArrayOutputStream log = new ByteArrayOutputStream();
+    final ProgramState state = new ProgramState(new PrintStream(log, true, "UTF-8"));
+    final List<List<String>> rows;
+    try (final CsvReader reader = new CsvReader(new StringReader(input), state, windowSize)) {
+      rows = reader.readFile();
+    }
+    state.renderLog();
+    return rows + "\n---\n" + toUtf8(log);
+  }
+
+  @Nonnull
+  private static String legacyReadFileTranscript(@Nonnull final String input)
+      throws IOException {
+
+    final ByteArrayOutputStream log = new ByteArrayOutputStream();
+    final ProgramState state = new ProgramState(new PrintStream(log, true, "UTF-8"));
+    final List<List<String>> rows;
+    try (final LegacyCsvReader reader = new LegacyCsvReader(new StringReader(input), state)) {
+      rows = reader.readFile();
+    }
+    state.renderLog();
+    return rows + "\n---\n" + toUtf8(log);
+  }
+
+  @Nonnull
+  private static String toUtf8(@Nonnull final ByteArrayOutputStream stream)
+      throws UnsupportedEncodingException {
+
+    return stream.toString("UTF-8");
+  }
+
+  @Nonnull
+  private static String escape(@Nonnull final String input) {
+    return input.replace("\r", "\\r").replace("\n", "\\n");
+  }
+}
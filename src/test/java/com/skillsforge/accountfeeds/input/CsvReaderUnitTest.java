@@ -30,6 +30,17 @@ public class CsvReaderUnitTest {
         "Couldn't unquote string correctly.");
   }
 
+  @Test
+  public void testQuotedFieldValue() {
+    Assert.assertEquals(CsvReader.quotedFieldValue("DPT_PO"), "DPT_PO");
+    Assert.assertEquals(CsvReader.quotedFieldValue(""), "");
+    Assert.assertEquals(CsvReader.quotedFieldValue("a,\"\"b\"\""), "a,\"b\"");
+    // The quirks of the old unescapeCsv and stripEnclosingQuotes pipeline:
+    Assert.assertEquals(CsvReader.quotedFieldValue("\"\"a\"\""), "a");
+    Assert.assertEquals(CsvReader.quotedFieldValue("a\u2028b"), "\"a\u2028b\"");
+    Assert.assertEquals(CsvReader.quotedFieldValue("\"\"a\u2028b\"\""), "\"a\u2028b\"");
+  }
+
   @Test
   public void testReadFile() throws IOException {
     final StringBuilder stringBuilder = initStrings();
@@ -55,7 +66,7 @@ public class CsvReaderUnitTest {
   }
 
   @Nonnull
-  private static StringBuilder initStrings() {
+  static StringBuilder initStrings() {
     final StringBuilder stringBuilder = new StringBuilder();
     stringBuilder.append("1,2,3,4,5\n");
     stringBuilder.append("single-value\n");
@@ -0,0 +1,68 @@
+package com.skillsforge.accountfeeds.input;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nonnull;
+
+/**
+ * @author agent
+ * @date 17-Oct-2026
+ */
+public class ExternalSorterUnitTest {
+
+  private static final Comparator<String[]> BY_KEY = Comparator.comparing(record -> record[0]);
+
+  @Test
+  public void testSpilledRecordsMergeStably() throws IOException {
+    final Random random = new Random(20171017L);
+    final List<String[]> expected = new ArrayList<>();
+    final List<String[]> actual = new ArrayList<>();
+
+    // A tiny budget writes a run for every few records, so the runs are merged in several passes.
+    try (final ExternalSorter sorter = new ExternalSorter(3, BY_KEY, 400)) {
+      for (int i = 0; i < 5000; i++) {
+        final String[] record = {"k" + random.nextInt(50), Integer.toString(i),
+            (i % 7 == 0) ? null : "Zoë ☃ " + i};
+        expected.add(record);
+        sorter.add(record);
+      }
+      Assert.assertTrue(sorter.getRunsWritten() > (ExternalSorter.MAX_FAN_IN * 2));
+
+      sorter.forEachSorted(actual::add);
+      // The records can be read back again once they have been merged.
+      final List<String[]> again = new ArrayList<>();
+      sorter.forEachSorted(again::add);
+      Assert.assertEquals(render(again), render(actual));
+    }
+
+    expected.sort(BY_KEY);
+    Assert.assertEquals(actual.size(), expected.size());
+    Assert.assertEquals(render(actual), render(expected));
+  }
+
+  @Test
+  public void testRecordsWithinBudgetAreNotSpilled() throws IOException {
+    final List<String> actual = new ArrayList<>();
+    try (final ExternalSorter sorter = new ExternalSorter(1, (left, right) -> 0, 1 << 20)) {
+      sorter.add(new String[]{"b"});
+      sorter.add(new String[]{"a"});
+      sorter.forEachSorted(record -> actual.add(record[0]));
+      Assert.assertEquals(sorter.getRunsWritten(), 0);
+    }
+    Assert.assertEquals(actual.toString(), "[b, a]");
+  }
+
+  @Nonnull
+  private static String render(@Nonnull final List<String[]> records) {
+    return records.stream().map(Arrays::toString).collect(Collectors.joining("\n"));
+  }
+}
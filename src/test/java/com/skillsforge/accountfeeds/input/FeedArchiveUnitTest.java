@@ -0,0 +1,36 @@
+package com.skillsforge.accountfeeds.input;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * @author agent
+ * @date 17-Oct-2026
+ */
+public class FeedArchiveUnitTest {
+
+  @Test
+  public void testEntriesFoundAtTopLevelOrInADirectory() throws IOException {
+    final File zipFile = File.createTempFile("feed", ".zip");
+    zipFile.deleteOnExit();
+    try (final ZipOutputStream output = new ZipOutputStream(new FileOutputStream(zipFile))) {
+      output.putNextEntry(new ZipEntry("Users.csv"));
+      output.putNextEntry(new ZipEntry("feed/"));
+      output.putNextEntry(new ZipEntry("feed/Groups.csv"));
+      output.putNextEntry(new ZipEntry("feed/OldGroups.csv"));
+    }
+
+    try (final FeedArchive archive = FeedArchive.open(zipFile)) {
+      Assert.assertEquals(archive.getEntry("Users.csv").getName(), "Users.csv");
+      Assert.assertEquals(archive.getEntry("Groups.csv").getName(), "feed/Groups.csv");
+      Assert.assertNull(archive.getEntry("feed"));
+      Assert.assertNull(archive.getEntry("UserGroups.csv"));
+    }
+  }
+}
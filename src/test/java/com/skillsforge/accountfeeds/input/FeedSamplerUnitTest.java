@@ -0,0 +1,93 @@
+package com.skillsforge.accountfeeds.input;
+
+import com.skillsforge.accountfeeds.config.ProgramState;
+import com.skillsforge.accountfeeds.config.SampleMethod;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/**
+ * @author agent
+ * @date 17-Oct-2026
+ */
+public class FeedSamplerUnitTest {
+
+  private static final String INPUT = "GroupAlias,RoleAlias\r\n"
+                                      + "g1,r1\r\n"
+                                      + "g2,\"r2\r\nsecond line\"\r\n"
+                                      + "\r\n"
+                                      + "g3,\"r3 \"\"quoted\"\"\"\r\n"
+                                      + "g4,r4";
+
+  @Test
+  public void testEveryRowIsFoundWhenEveryByteIsPicked() throws IOException {
+    final File file = File.createTempFile("GroupRoles", ".csv");
+    file.deleteOnExit();
+    final byte[] bytes = INPUT.getBytes(StandardCharsets.UTF_8);
+    Files.write(file.toPath(), bytes);
+
+    try (final FeedSampler sampler = FeedSampler.open(file)) {
+      final ProgramState state = new ProgramState();
+      Assert.assertEquals(sampler.readHeader(state), Arrays.asList("GroupAlias", "RoleAlias"));
+
+      // One pick from each byte of the file reaches every row.  The row with a quoted line break
+      // is read as a whole when it is picked, but a pick just before that line break is misread
+      // as a row starting in the middle of the value.
+      final List<FeedSampler.SampledRow> rows =
+          sampler.sample(state, bytes.length, SampleMethod.STRATIFIED, new Random(1));
+      final List<List<String>> fields =
+          rows.stream().map(FeedSampler.SampledRow::getFields).collect(Collectors.toList());
+      final List<List<String>> expected;
+      try (final CsvReader reader = new CsvReader(new StringReader(INPUT), new ProgramState())) {
+        expected = reader.readFile();
+      }
+      Assert.assertEquals(fields.size(), 6);
+      Assert.assertEquals(fields.get(0), expected.get(1));
+      Assert.assertEquals(fields.get(1), expected.get(2));
+      Assert.assertEquals(fields.get(3), Arrays.asList());
+      Assert.assertEquals(fields.get(4), Arrays.asList("g3", "r3 \"quoted\""));
+      Assert.assertEquals(fields.get(5), expected.get(5));
+      Assert.assertEquals(rows.get(0).getOffset(), 22L);
+    }
+  }
+
+  @Test
+  public void testRandomSampleOnlyReturnsRows() throws IOException {
+    final File file = File.createTempFile("GroupRoles", ".csv");
+    file.deleteOnExit();
+    Files.write(file.toPath(), INPUT.getBytes(StandardCharsets.UTF_8));
+
+    try (final FeedSampler sampler = FeedSampler.open(file)) {
+      final ProgramState state = new ProgramState();
+      sampler.readHeader(state);
+      final List<FeedSampler.SampledRow> rows =
+          sampler.sample(state, 3, SampleMethod.RANDOM, new Random(2));
+      Assert.assertTrue(!rows.isEmpty() && (rows.size() <= 3));
+      for (final FeedSampler.SampledRow row : rows) {
+        Assert.assertNotNull(row.getFields());
+        Assert.assertTrue(row.getState().takeLogLines().isEmpty());
+      }
+    }
+  }
+
+  @Test
+  public void testConfidenceInterval() {
+    final double[] none = FeedSampler.confidenceInterval(0, 10);
+    Assert.assertEquals(none[0], 0.0, 1e-4);
+    Assert.assertEquals(none[1], 0.2775, 1e-4);
+
+    final double[] half = FeedSampler.confidenceInterval(5, 10);
+    Assert.assertEquals(half[0], 0.2366, 1e-4);
+    Assert.assertEquals(half[1], 0.7634, 1e-4);
+  }
+}
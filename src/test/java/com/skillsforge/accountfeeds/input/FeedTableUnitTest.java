@@ -0,0 +1,120 @@
+package com.skillsforge.accountfeeds.input;
+
+import com.skillsforge.accountfeeds.config.ProgramState;
+import com.skillsforge.accountfeeds.config.RowStorage;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+/**
+ * @author agent
+ * @date 17-Oct-2026
+ */
+public class FeedTableUnitTest {
+
+  @Test
+  public void testRowsMatchReadFile() throws IOException {
+    final StringBuilder input = CsvReaderUnitTest.initStrings();
+    // Enough rows to make the table grow a few times, some of them wider than the rest.
+    for (int row = 0; row < 300; row++) {
+      input.append(row).append(",b");
+      if ((row % 17) == 0) {
+        input.append(",c,d,e,f,g,h");
+      }
+      input.append('\n');
+    }
+
+    final List<List<String>> expected = readAll(input.toString());
+    final FeedTable table = new FeedTable();
+    try (final CsvReader reader =
+             new CsvReader(new StringReader(input.toString()), new ProgramState())) {
+      reader.readFile(table);
+    }
+
+    Assert.assertFalse(table.isEmpty());
+    Assert.assertEquals(table.getHeader(), expected.get(0));
+    Assert.assertEquals(table.getRowCount(), expected.size() - 1);
+    for (int row = 0; row < table.getRowCount(); row++) {
+      Assert.assertEquals(table.getRow(row), expected.get(row + 1), "Row " + row);
+      Assert.assertEquals(table.getWidth(row), expected.get(row + 1).size(), "Row " + row);
+    }
+  }
+
+  @Test
+  public void testOffHeapRowsMatchHeapRows() throws IOException {
+    final StringBuilder input = CsvReaderUnitTest.initStrings();
+    input.append("Zoë,\"☃ \"\"x\"\"\",😀,,\ud83d\n\n");
+    // Long enough to need more than one arena, with a field that spans one on its own.
+    final char[] longField = new char[OffHeapRows.ARENA_SIZE + 1];
+    Arrays.fill(longField, 'é');
+    input.append(longField).append(",a\n");
+    for (int row = 0; row < 2000; row++) {
+      input.append(row).append(",é,").append(row % 7).append('\n');
+    }
+
+    final FeedTable heap = new FeedTable(ColumnProjection.of("UserID"), RowStorage.HEAP);
+    final FeedTable offHeap = new FeedTable(ColumnProjection.of("UserID"), RowStorage.OFF_HEAP);
+    for (final FeedTable table : Arrays.asList(heap, offHeap)) {
+      try (final CsvReader reader =
+               new CsvReader(new StringReader("UserID,b,c\n" + input), new ProgramState())) {
+        reader.readFile(table);
+      }
+    }
+
+    Assert.assertEquals(offHeap.getRowCount(), heap.getRowCount());
+    for (int row = 0; row < heap.getRowCount(); row++) {
+      Assert.assertEquals(offHeap.getRow(row), heap.getRow(row), "Row " + row);
+    }
+    Assert.assertTrue(offHeap.getOffHeapBytes() > OffHeapRows.ARENA_SIZE);
+    Assert.assertEquals(heap.getOffHeapBytes(), 0L);
+  }
+
+  @Test
+  public void testEmptyTable() {
+    final FeedTable table = new FeedTable();
+    Assert.assertTrue(table.isEmpty());
+    Assert.assertEquals(table.getHeader(), Collections.emptyList());
+    Assert.assertEquals(table.getRowCount(), 0);
+  }
+
+  @Test
+  public void testProjectionKeepsNamedColumnsOnly() throws IOException {
+    final FeedTable table = new FeedTable(ColumnProjection.of("UserID", "Email"));
+    try (final CsvReader reader = new CsvReader(
+        new StringReader("UserID,Forename,email\nu1,Alex,a@b\n\nu2\nu3,Jo,c@d,extra\n"),
+        new ProgramState())) {
+      reader.readFile(table);
+    }
+
+    Assert.assertEquals(table.getHeader(), Arrays.asList("UserID", "Forename", "email"));
+    Assert.assertEquals(table.getRow(0), Arrays.asList("u1", null, "a@b"));
+    Assert.assertEquals(table.getWidth(1), 0);
+    Assert.assertEquals(table.getRow(2), Collections.singletonList("u2"));
+    Assert.assertEquals(table.getRow(3), Arrays.asList("u3", null, "c@d", null));
+  }
+
+  @Test(expectedExceptions = IndexOutOfBoundsException.class)
+  public void testFieldBeyondRowWidth() throws IOException {
+    final FeedTable table = new FeedTable();
+    try (final CsvReader reader =
+             new CsvReader(new StringReader("a,b,c\n1,2,3\n4\n"), new ProgramState())) {
+      reader.readFile(table);
+    }
+    table.get(1, 1);
+  }
+
+  @Nonnull
+  private static List<List<String>> readAll(@Nonnull final String input) throws IOException {
+    try (final CsvReader reader = new CsvReader(new StringReader(input), new ProgramState())) {
+      return reader.readFile();
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package com.skillsforge.accountfeeds.input;
+
+import com.skillsforge.accountfeeds.config.ProgramState;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * @author agent
+ * @date 17-Oct-2026
+ */
+public class GzipInputUnitTest {
+
+  @Test
+  public void testCompressedFileReadsAsPlain() throws IOException {
+    final String input = CsvReaderUnitTest.initStrings().toString();
+    final File plainFile = File.createTempFile("Users", ".csv");
+    final File gzipFile = File.createTempFile("Users", ".csv.gz");
+    plainFile.deleteOnExit();
+    gzipFile.deleteOnExit();
+    Files.write(plainFile.toPath(), input.getBytes(StandardCharsets.UTF_8));
+    try (final OutputStream output = new GZIPOutputStream(new FileOutputStream(gzipFile))) {
+      output.write(input.getBytes(StandardCharsets.UTF_8));
+    }
+
+    Assert.assertFalse(GzipInput.isGzipped(plainFile));
+    Assert.assertTrue(GzipInput.isGzipped(gzipFile));
+
+    final List<List<String>> expected;
+    try (final CsvReader reader = new CsvReader(new StringReader(input), new ProgramState())) {
+      expected = reader.readFile();
+    }
+    try (final CsvReader reader = new CsvReader(
+        new InputStreamReader(GzipInput.open(gzipFile), StandardCharsets.UTF_8),
+        new ProgramState())) {
+      Assert.assertEquals(reader.readFile(), expected);
+    }
+  }
+
+  @Test
+  public void testStreamIsInflatedOnlyIfCompressed() throws IOException {
+    final byte[] plain = "UserID\n\u001f1\n".getBytes(StandardCharsets.UTF_8);
+    final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    try (final OutputStream output = new GZIPOutputStream(compressed)) {
+      output.write(plain);
+    }
+
+    Assert.assertEquals(readAll(GzipInput.inflateIfGzipped(new ByteArrayInputStream(plain))),
+        plain);
+    Assert.assertEquals(readAll(GzipInput.inflateIfGzipped(
+        new ByteArrayInputStream(compressed.toByteArray()))), plain);
+    Assert.assertEquals(readAll(GzipInput.inflateIfGzipped(new ByteArrayInputStream(new byte[0]))),
+        new byte[0]);
+  }
+
+  private static byte[] readAll(final InputStream input) throws IOException {
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    final byte[] buffer = new byte[7];
+    int read;
+    while ((read = input.read(buffer)) != -1) {
+      output.write(buffer, 0, read);
+    }
+    return output.toByteArray();
+  }
+}
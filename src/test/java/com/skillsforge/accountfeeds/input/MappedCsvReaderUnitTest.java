@@ -0,0 +1,121 @@
+package com.skillsforge.accountfeeds.input;
+
+import com.skillsforge.accountfeeds.config.ProgramState;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Checks that {@link MappedCsvReader} produces the same rows and log output as a {@link CsvReader}
+ * decoding the same bytes, including when they are not valid UTF-8.
+ *
+ * @author agent
+ * @date 17-Oct-2026
+ */
+public class MappedCsvReaderUnitTest {
+
+  private static final byte[] FUZZ_BYTES = {
+      'a', 'b', ' ', ',', ',', '"', '"', '\n', '\n', '\r', '#',
+      (byte) 0xC3, (byte) 0xA9, (byte) 0xE2, (byte) 0x82, (byte) 0xAC, (byte) 0xF0, (byte) 0x9F,
+      (byte) 0x98, (byte) 0x80, (byte) 0xFF
+  };
+
+  @Test
+  public void testFixtureMatchesCsvReader() throws IOException {
+    assertMatchesCsvReader(
+        CsvReaderUnitTest.initStrings().toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testMultiByteCharactersMatchCsvReader() throws IOException {
+    assertMatchesCsvReader(("\ufeffUserID,Name\n1,\"Zoë \"\"☃\"\"\"\n2,😀\r\n"
+                            + "3,\"split\né\",x#é\n").getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testErrorsOnMultiByteCharactersMatchCsvReader() throws IOException {
+    assertMatchesCsvReader("a\n\"b\"é,c\n\"d\"😀,e\n\"f\"😀\n".getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testRandomBytesMatchCsvReader() throws IOException {
+    final Random random = new Random(20170703L);
+    for (int iteration = 0; iteration < 3000; iteration++) {
+      final byte[] input = new byte[random.nextInt(48)];
+      for (int i = 0; i < input.length; i++) {
+        input[i] = FUZZ_BYTES[random.nextInt(FUZZ_BYTES.length)];
+      }
+      assertMatchesCsvReader(input);
+    }
+  }
+
+  @Test
+  public void testParseLineMatchesReadFile() throws Exception {
+    final byte[] input = "a,b\n\n\"c\"\"d\",e\n".getBytes(StandardCharsets.UTF_8);
+    final MappedCsvReader reader = new MappedCsvReader(ByteBuffer.wrap(input), new ProgramState());
+    Assert.assertEquals(reader.parseLine(), Arrays.asList("a", "b"));
+    Assert.assertEquals(reader.parseLine(), Arrays.asList());
+    Assert.assertEquals(reader.parseLine(), Arrays.asList("c\"d", "e"));
+    Assert.assertNull(reader.parseLine());
+  }
+
+  @Test
+  public void testByteOffsetsMatchCsvReader() throws IOException {
+    final byte[] input = "id,Zoë\r\n1,\"a\r\nb\"\n\n2,😀☃\r\n3,x\n4"
+        .getBytes(StandardCharsets.UTF_8);
+    final StringBuilder expected = new StringBuilder();
+    try (final CsvReader reader = new CsvReader(
+        new InputStreamReader(new ByteArrayInputStream(input), StandardCharsets.UTF_8),
+        new ProgramState())) {
+      reader.countByteOffsets(0);
+      reader.readFile(row -> expected.append(row.getByteOffset()).append(' '));
+    }
+    Assert.assertEquals(expected.toString(), "0 9 18 19 30 34 ");
+
+    final StringBuilder actual = new StringBuilder();
+    new MappedCsvReader(ByteBuffer.wrap(input), new ProgramState()).readFile(
+        row -> actual.append(row.getByteOffset()).append(' '));
+    Assert.assertEquals(actual.toString(), expected.toString());
+  }
+
+  private static void assertMatchesCsvReader(@Nonnull final byte[] input) throws IOException {
+    final ByteArrayOutputStream expectedLog = new ByteArrayOutputStream();
+    final ProgramState expectedState =
+        new ProgramState(new PrintStream(expectedLog, true, "UTF-8"));
+    final StringBuilder expected = new StringBuilder();
+    try (final CsvReader reader = new CsvReader(
+        new InputStreamReader(new ByteArrayInputStream(input), StandardCharsets.UTF_8),
+        expectedState)) {
+      reader.readFile(row -> expected.append(row.getLineNumber()).append(": ")
+          .append(row.toList()).append('\n'));
+    }
+    expectedState.renderLog();
+
+    final ByteArrayOutputStream log = new ByteArrayOutputStream();
+    final ProgramState state = new ProgramState(new PrintStream(log, true, "UTF-8"));
+    final StringBuilder actual = new StringBuilder();
+    new MappedCsvReader(ByteBuffer.wrap(input), state).readFile(
+        row -> actual.append(row.getLineNumber()).append(": ")
+            .append(row.toList()).append('\n'));
+    state.renderLog();
+
+    final String description = Arrays.toString(input);
+    Assert.assertEquals(actual.toString(), expected.toString(),
+        "Rows differed for: " + description);
+    Assert.assertEquals(log.toString("UTF-8"), expectedLog.toString("UTF-8"),
+        "Log differed for: " + description);
+  }
+}
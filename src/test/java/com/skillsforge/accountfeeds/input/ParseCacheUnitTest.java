@@ -0,0 +1,68 @@
+package com.skillsforge.accountfeeds.input;
+
+import com.skillsforge.accountfeeds.config.LogLine;
+import com.skillsforge.accountfeeds.config.ProgramState;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nonnull;
+
+/**
+ * @author agent
+ * @date 17-Oct-2026
+ */
+public class ParseCacheUnitTest {
+
+  @Test
+  public void testReplayMatchesParse() throws IOException {
+    final File directory = Files.createTempDirectory("parse-cache").toFile();
+    final File file = new File(directory, "Users.csv");
+    // Includes a malformed row (so that something is logged), and characters outside ASCII.
+    final String input = "UserID,Name\nu1,\"Zoë\"\n\nu2,😀\uD800\nu3,\"unterminated\n";
+    Files.write(file.toPath(), input.getBytes(StandardCharsets.UTF_8));
+
+    final ParseCache cache = new ParseCache(directory);
+    final int[] parses = {0};
+    final ParseCache.Parser parser = (readState, visitor) -> {
+      parses[0]++;
+      try (final CsvReader reader = new CsvReader(new StringReader(input), readState)) {
+        reader.readFile(visitor);
+      } catch (IOException e) {
+        Assert.fail("Could not parse.", e);
+      }
+    };
+
+    final ProgramState missState = new ProgramState();
+    final List<List<String>> missRows = new ArrayList<>();
+    cache.readFile(missState, file, row -> missRows.add(row.toList()), parser);
+
+    final ProgramState hitState = new ProgramState();
+    final List<List<String>> hitRows = new ArrayList<>();
+    cache.readFile(hitState, file, row -> hitRows.add(row.toList()), parser);
+
+    Assert.assertEquals(parses[0], 1, "The second read should have come from the cache.");
+    Assert.assertEquals(hitRows, missRows);
+    Assert.assertEquals(hitRows.get(3).get(1), "😀\uD800");
+    final List<String> missLog = errorStrings(missState);
+    final List<String> hitLog = errorStrings(hitState);
+    Assert.assertTrue(missLog.size() > 1, "The malformed row should be logged.");
+    // Apart from the first line, which says whether the cache was used.
+    Assert.assertEquals(hitLog.subList(1, hitLog.size()), missLog.subList(1, missLog.size()));
+  }
+
+  @Nonnull
+  private static List<String> errorStrings(@Nonnull final ProgramState state) {
+    return state.takeLogLines().stream().map(LogLine::getErrorString)
+        .collect(Collectors.toList());
+  }
+}
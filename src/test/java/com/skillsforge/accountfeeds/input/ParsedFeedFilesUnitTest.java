@@ -0,0 +1,68 @@
+package com.skillsforge.accountfeeds.input;
+
+import com.skillsforge.accountfeeds.config.LogLine;
+import com.skillsforge.accountfeeds.config.OrganisationParameters;
+import com.skillsforge.accountfeeds.config.ProgramState;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nonnull;
+
+/**
+ * @author agent
+ * @date 17-Oct-2026
+ */
+public class ParsedFeedFilesUnitTest {
+
+  @Test
+  public void testKeysDifferingInCaseOrWhitespaceAreDuplicates()
+      throws IOException, URISyntaxException {
+
+    final File directory = Files.createTempDirectory("feed").toFile();
+    write(directory, "Users.csv",
+        "UserID,Username,Email,Title,Forename,Surname,Disabled,Archived,PFA\n"
+        + "Bob,bob,bob@example.ac.uk,Mr,Bob,Smith,false,false,true\n"
+        + "bob ,Bob ,Bob@example.ac.uk,Mr,Bob,Smith,false,false,true\n");
+    write(directory, "UserGroups.csv", "UserID,GroupAlias\n");
+    write(directory, "UserRelationships.csv",
+        "UserIDLeft,UserIDRight,RoleAliasLeft,RoleAliasRight,Delete\n");
+    write(directory, "Groups.csv", "GroupAlias,GroupName,GroupDescription,Delete\n");
+    write(directory, "GroupRoles.csv", "GroupAlias,RoleAlias\n");
+    final File stateFile = new File(getClass().getResource("/test-csvs/state.json").toURI());
+
+    final ProgramState state = new ProgramState(new String[]{
+        "quickcheck", "-s", directory.getPath(), "-p", stateFile.getPath(), "--no-parse-cache",
+        "--threads=1"});
+    final OrganisationParameters orgParams = new OrganisationParameters(state);
+    Assert.assertFalse(state.hasFatalErrorBeenEncountered());
+    new ParsedFeedFiles(state, orgParams).checkKeyColumns();
+
+    // The Email is only duplicated in a case-sensitive comparison, as it is when indexed.
+    final List<String> duplicates = state.takeLogLines().stream()
+        .filter(line -> "PFF.ckc.3".equals(line.getErrorCode()))
+        .map(LogLine::getErrorString)
+        .collect(Collectors.toList());
+    Assert.assertEquals(duplicates.size(), 2, duplicates.toString());
+    Assert.assertTrue(duplicates.get(0).contains("Line 3 has the same UserID as line 2"));
+    Assert.assertTrue(duplicates.get(1).contains("Line 3 has the same Username as line 2"));
+  }
+
+  private static void write(
+      @Nonnull final File directory,
+      @Nonnull final String name,
+      @Nonnull final String contents) throws IOException {
+
+    final File file = new File(directory, name);
+    file.deleteOnExit();
+    Files.write(file.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+  }
+}
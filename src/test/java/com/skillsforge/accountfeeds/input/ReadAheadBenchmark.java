@@ -0,0 +1,157 @@
+package com.skillsforge.accountfeeds.input;
+
+import com.skillsforge.accountfeeds.config.ProgramState;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.UnaryOperator;
+
+import javax.annotation.Nonnull;
+
+/**
+ * A rough benchmark of {@link ReadAheadInputStream} on a simulated slow (network) mount, where
+ * every read has a fixed round-trip latency and the mount has limited bandwidth.  It times parsing
+ * the same synthetic Users file with {@link CsvReader} reading the mount directly, through a
+ * BufferedInputStream as large as the read-ahead buffers (larger requests, but no overlap), and
+ * through the read-ahead stage.  Not run as part of the test suite: run its main method with the
+ * test classpath, optionally passing the number of rows, the latency per read in microseconds,
+ * the bandwidth in MB/s, the buffer size in KiB, and the depth.
+ *
+ * @author agent
+ * @date 17-Oct-2026
+ */
+@SuppressWarnings({"UseOfSystemOutOrSystemErr", "CallToSystemGC"})
+public final class ReadAheadBenchmark {
+  private static final int WARM_UP_ROUNDS = 2;
+  private static final int TIMED_ROUNDS = 5;
+
+  private ReadAheadBenchmark() {
+  }
+
+  public static void main(final String[] args) throws IOException {
+    final int rows = (args.length > 0) ? Integer.parseInt(args[0]) : 200_000;
+    final long latencyMicros = (args.length > 1) ? Long.parseLong(args[1]) : 500;
+    final long megabytesPerSecond = (args.length > 2) ? Long.parseLong(args[2]) : 100;
+    final int bufferSize = ((args.length > 3) ? Integer.parseInt(args[3]) : 1024) * 1024;
+    final int depth = (args.length > 4) ? Integer.parseInt(args[4]) : 2;
+
+    final byte[] bytes = generateUsers(rows).getBytes(StandardCharsets.UTF_8);
+    System.out.printf("%d rows, %d bytes; %d us per read, %d MB/s; %d KiB x %d buffers%n",
+        rows, bytes.length, latencyMicros, megabytesPerSecond, bufferSize / 1024, depth);
+
+    long checksum = 0;
+    for (int round = 0; round < (WARM_UP_ROUNDS + TIMED_ROUNDS); round++) {
+      final boolean timed = round >= WARM_UP_ROUNDS;
+      System.gc();
+
+      long start = System.nanoTime();
+      checksum += parse(new SlowInputStream(bytes, latencyMicros, megabytesPerSecond),
+          UnaryOperator.identity());
+      final long directNanos = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      checksum += parse(new SlowInputStream(bytes, latencyMicros, megabytesPerSecond),
+          input -> new BufferedInputStream(input, bufferSize));
+      final long bufferedNanos = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      checksum += parse(new SlowInputStream(bytes, latencyMicros, megabytesPerSecond),
+          input -> new ReadAheadInputStream(input, bufferSize, depth));
+      final long readAheadNanos = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      checksum += parse(new ByteArrayInputStream(bytes), UnaryOperator.identity());
+      final long inMemoryNanos = System.nanoTime() - start;
+
+      if (timed) {
+        System.out.printf("direct %6.1f ms   buffered %6.1f ms   read-ahead %6.1f ms   "
+                          + "(parsing alone %6.1f ms)%n",
+            directNanos / 1e6, bufferedNanos / 1e6, readAheadNanos / 1e6, inMemoryNanos / 1e6);
+      }
+    }
+    System.out.printf("(checksum %d)%n", checksum);
+  }
+
+  private static long parse(
+      @Nonnull final InputStream mount,
+      @Nonnull final UnaryOperator<InputStream> wrapper) throws IOException {
+
+    final long[] fields = {0};
+    try (final CsvReader reader = new CsvReader(
+        new InputStreamReader(wrapper.apply(mount), StandardCharsets.UTF_8),
+        new ProgramState())) {
+      reader.readFile(row -> fields[0] += row.size());
+    }
+    return fields[0];
+  }
+
+  @Nonnull
+  private static String generateUsers(final int rows) {
+    final StringBuilder csv = new StringBuilder(rows * 120);
+    csv.append("UserID,Username,Email,Title,Forename,Surname,Disabled,Archived,Department\r\n");
+    for (int row = 0; row < rows; row++) {
+      csv.append(String.format("%09d", row)).append(",user").append(row).append(",user")
+          .append(row).append("@example.ac.uk,Dr,Forename").append(row % 97)
+          .append(",Surname").append(row % 89).append(",false,false,")
+          .append(((row % 10) == 0) ? "\"Computer Science, Research\"" : "Mathematics")
+          .append("\r\n");
+    }
+    return csv.toString();
+  }
+
+  /**
+   * Stands in for a file on a network mount: each read waits for a round trip, and then for the
+   * bytes to arrive.  Reads are capped at 1 MiB, like a typical NFS rsize.
+   */
+  private static final class SlowInputStream extends FilterInputStream {
+    private static final int MAX_READ = 1 << 20;
+
+    private final long latencyNanos;
+    private final long megabytesPerSecond;
+
+    private SlowInputStream(
+        @Nonnull final byte[] bytes,
+        final long latencyMicros,
+        final long megabytesPerSecond) {
+
+      super(new ByteArrayInputStream(bytes));
+      this.latencyNanos = TimeUnit.MICROSECONDS.toNanos(latencyMicros);
+      this.megabytesPerSecond = megabytesPerSecond;
+    }
+
+    @Override
+    public int read() throws IOException {
+      final byte[] single = new byte[1];
+      return (read(single, 0, 1) < 0) ? -1 : (single[0] & 0xff);
+    }
+
+    @Override
+    public int read(
+        @Nonnull final byte[] bytes,
+        final int offset,
+        final int length) throws IOException {
+
+      final int read = super.read(bytes, offset, Integer.min(length, MAX_READ));
+      if (read > 0) {
+        sleep(latencyNanos + ((read * 1000L) / megabytesPerSecond));
+      }
+      return read;
+    }
+
+    private static void sleep(final long nanos) {
+      final long until = System.nanoTime() + nanos;
+      long remaining = nanos;
+      while (remaining > 0) {
+        LockSupport.parkNanos(remaining);
+        remaining = until - System.nanoTime();
+      }
+    }
+  }
+}
@@ -0,0 +1,66 @@
+package com.skillsforge.accountfeeds.input;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.Arrays;
+
+import javax.annotation.Nonnull;
+
+/**
+ * @author agent
+ * @date 17-Oct-2026
+ */
+public class ReadAheadInputStreamUnitTest {
+
+  @Test
+  public void testReadsEveryByteInOrder() throws IOException {
+    final byte[] bytes = new byte[10_000];
+    for (int i = 0; i < bytes.length; i++) {
+      bytes[i] = (byte) (i * 31);
+    }
+    // Buffer sizes that don't divide the input, and one that exactly does.
+    for (final int bufferSize : new int[]{7, 1000, 4096, 20_000}) {
+      try (final InputStream input =
+               new ReadAheadInputStream(new ByteArrayInputStream(bytes), bufferSize, 3)) {
+        Assert.assertEquals(input.read(), bytes[0] & 0xff);
+        Assert.assertEquals(readRest(input), Arrays.copyOfRange(bytes, 1, bytes.length),
+            "Buffer size " + bufferSize);
+        Assert.assertEquals(input.read(), -1);
+      }
+    }
+  }
+
+  @Test
+  public void testFailureIsThrownAfterTheBytesBeforeIt() throws IOException {
+    final InputStream failing = new InputStream() {
+      @Override
+      public int read() throws IOException {
+        throw new IOException("Network mount went away.");
+      }
+    };
+    try (final InputStream input = new ReadAheadInputStream(new SequenceInputStream(
+        new ByteArrayInputStream(new byte[]{1, 2, 3}), failing), 2, 2)) {
+      Assert.assertEquals(input.read(), 1);
+      Assert.assertEquals(input.read(), 2);
+      Assert.assertEquals(input.read(), 3);
+      Assert.expectThrows(IOException.class, input::read);
+    }
+  }
+
+  @Nonnull
+  private static byte[] readRest(@Nonnull final InputStream input) throws IOException {
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    final byte[] buffer = new byte[333];
+    int read;
+    while ((read = input.read(buffer)) != -1) {
+      output.write(buffer, 0, read);
+    }
+    return output.toByteArray();
+  }
+}
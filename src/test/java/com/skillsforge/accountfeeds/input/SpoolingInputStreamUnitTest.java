@@ -0,0 +1,39 @@
+package com.skillsforge.accountfeeds.input;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+
+/**
+ * @author agent
+ * @date 17-Oct-2026
+ */
+public class SpoolingInputStreamUnitTest {
+
+  @Test
+  public void testEverythingIsSpooledEvenIfNotAllRead() throws IOException {
+    final byte[] input = new byte[200_000];
+    for (int i = 0; i < input.length; i++) {
+      input[i] = (byte) (i % 251);
+    }
+    final File spoolFile = File.createTempFile("Users", ".csv");
+    spoolFile.deleteOnExit();
+
+    try (final InputStream spooling =
+             new SpoolingInputStream(new ByteArrayInputStream(input), spoolFile)) {
+      Assert.assertEquals(spooling.read(), 0);
+      final byte[] buffer = new byte[1000];
+      Assert.assertEquals(spooling.read(buffer, 0, buffer.length), buffer.length);
+      Assert.assertEquals(buffer[0], (byte) 1);
+      Assert.assertEquals(spooling.skip(10), 10L);
+      Assert.assertEquals(spooling.read(), 1011 % 251);
+    }
+
+    Assert.assertEquals(Files.readAllBytes(spoolFile.toPath()), input);
+  }
+}
@@ -0,0 +1,38 @@
+package com.skillsforge.accountfeeds.input;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * @author agent
+ * @date 17-Oct-2026
+ */
+@SuppressWarnings("RedundantStringConstructorCall")
+public class StringPoolUnitTest {
+
+  @Test
+  public void testRepeatedValuesAreShared() {
+    final StringPool pool = new StringPool();
+    final String first = pool.intern(0, new String("false"));
+    final String second = pool.intern(0, new String("false"));
+    final String otherColumn = pool.intern(1, new String("false"));
+
+    Assert.assertSame(second, first);
+    Assert.assertNotSame(otherColumn, first, "Columns should be pooled separately.");
+    Assert.assertEquals(pool.getDuplicateCount(), 1);
+    Assert.assertTrue(pool.getBytesSaved() > 0);
+  }
+
+  @Test
+  public void testDistinctColumnIsNoLongerPooled() {
+    final StringPool pool = new StringPool();
+    for (int row = 0; row < 5000; row++) {
+      pool.intern(0, "user" + row);
+      pool.intern(1, new String(((row % 2) == 0) ? "true" : "false"));
+    }
+    // The first column's pool should have been dropped, so even a value it has seen is not shared.
+    final String seen = pool.intern(0, new String("user1"));
+    Assert.assertNotSame(pool.intern(0, new String("user1")), seen);
+    Assert.assertEquals(pool.getDuplicateCount(), 4998);
+  }
+}